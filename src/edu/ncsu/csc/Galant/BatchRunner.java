@@ -0,0 +1,308 @@
+package edu.ncsu.csc.Galant;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.tools.Diagnostic;
+
+import edu.ncsu.csc.Galant.algorithm.Algorithm;
+import edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor;
+import edu.ncsu.csc.Galant.algorithm.AlgorithmSynchronizer;
+import edu.ncsu.csc.Galant.algorithm.code.CodeIntegrator;
+import edu.ncsu.csc.Galant.algorithm.code.CompilationException;
+import edu.ncsu.csc.Galant.algorithm.code.macro.MalformedMacroException;
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.parser.BinaryGraphFormat;
+import edu.ncsu.csc.Galant.graph.parser.BinaryGraphParser;
+import edu.ncsu.csc.Galant.graph.parser.GraphMLParser;
+import edu.ncsu.csc.Galant.gui.window.GraphWindow;
+
+/**
+ * Runs an algorithm on one or more graphs without the graphical user
+ * interface, e.g., from a script:
+ *
+ *   java -cp build/classes edu.ncsu.csc.Galant.BatchRunner
+ *        [-t threads] [-o output_directory] algorithm.alg graph_or_directory ...
+ *
+ * (or ant batch -Dargs="..."). Each directory is replaced by the .graphml
+ * and .gbin (binary, see BinaryGraphFormat) files in it. For each graph a
+ * line with the graph file name, the number of steps, the parsing and
+ * execution times in milliseconds, and the outcome is printed. If an
+ * output directory is given, the final state of each graph is written
+ * there as GraphML, under the name of the input file.
+ *
+ * The algorithm runs with the synchronizer in batch mode, so it never
+ * waits for a display and records no history. Algorithms that ask the user
+ * for input fail, since there is nobody to ask.
+ *
+ * Each run has its own dispatch, i.e., execution context, so that the
+ * graphs can be processed by several threads at once (-t, default 1); the
+ * lines are still printed in the order of the graphs.
+ *
+ * Only these lines, preceded by a header line, go to standard output, so
+ * that they can be read by other programs; everything else Galant prints
+ * along the way, e.g., compiler errors and the exceptions of failed runs,
+ * goes to standard error.
+ */
+public class BatchRunner {
+
+  private static final String USAGE
+    = "usage: BatchRunner [-t threads] [-o output_directory] algorithm.alg"
+    + " graph_or_directory ...";
+
+  private File outputDirectory;
+  private Class<? extends Algorithm> algorithmClass;
+
+  public BatchRunner(Class<? extends Algorithm> algorithmClass,
+                     File outputDirectory) {
+    this.algorithmClass = algorithmClass;
+    this.outputDirectory = outputDirectory;
+  }
+
+  public static void main(String[] args) {
+    System.setProperty("java.awt.headless", "true");
+    File outputDirectory = null;
+    int threads = 1;
+    int argument = 0;
+    try {
+      while ( args.length - argument > 1 && args[argument].startsWith("-") ) {
+        if ( args[argument].equals("-o") )
+          outputDirectory = new File(args[argument + 1]);
+        else if ( args[argument].equals("-t") )
+          threads = Integer.parseInt(args[argument + 1]);
+        else
+          throw new IllegalArgumentException(args[argument]);
+        argument += 2;
+      }
+    }
+    catch ( IllegalArgumentException e ) {
+      threads = 0;
+    }
+    if ( args.length - argument < 2 || threads < 1 ) {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+    File algorithmFile = new File(args[argument++]);
+    List<File> graphFiles = new ArrayList<File>();
+    for ( ; argument < args.length; argument++ ) {
+      addGraphFiles(new File(args[argument]), graphFiles);
+    }
+    if ( outputDirectory != null ) outputDirectory.mkdirs();
+
+    // anything printed other than the results is a diagnostic
+    PrintStream results = System.out;
+    System.setOut(System.err);
+
+    Timer.parsingTime = new Timer("parsing");
+    Timer.drawingTime = new Timer("drawing");
+    GalantPreferences.initPrefs();
+
+    Class<? extends Algorithm> algorithmClass = compile(algorithmFile);
+    if ( algorithmClass == null ) System.exit(1);
+
+    BatchRunner runner = new BatchRunner(algorithmClass, outputDirectory);
+    results.println("graph\tsteps\tparse_ms\trun_ms\tresult");
+    boolean allSucceeded = runner.runAll(graphFiles, threads, results);
+    System.exit(allSucceeded ? 0 : 2);
+  }
+
+  /**
+   * Runs the algorithm on all the graphs, using the given number of
+   * threads, and prints a line for each, in order, to the given stream
+   * @return true if all runs succeeded
+   */
+  public boolean runAll(List<File> graphFiles, int threads,
+                        PrintStream out) {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    List<Future<Result>> results = new ArrayList<Future<Result>>();
+    for ( final File graphFile : graphFiles ) {
+      results.add(pool.submit(new Callable<Result>() {
+            public Result call() { return run(graphFile); }
+          }));
+    }
+    boolean allSucceeded = true;
+    try {
+      for ( Future<Result> future : results ) {
+        Result result = future.get();
+        out.println(result);
+        out.flush();
+        allSucceeded &= result.succeeded();
+      }
+    }
+    catch ( InterruptedException | ExecutionException e ) {
+      e.printStackTrace();
+      allSucceeded = false;
+    }
+    finally {
+      pool.shutdownNow();
+    }
+    return allSucceeded;
+  }
+
+  /**
+   * Adds the file to the list if it is not a directory, otherwise all
+   * GraphML and binary graph files in the directory, in alphabetical order
+   */
+  private static void addGraphFiles(File file, List<File> graphFiles) {
+    if ( ! file.isDirectory() ) {
+      graphFiles.add(file);
+      return;
+    }
+    File [] contents = file.listFiles();
+    Arrays.sort(contents);
+    for ( File graphFile : contents ) {
+      if ( graphFile.getName().endsWith(".graphml")
+           || BinaryGraphFormat.isBinaryGraphFile(graphFile) )
+        graphFiles.add(graphFile);
+    }
+  }
+
+  /**
+   * Compiles the algorithm, printing any errors to standard error.
+   * @return the class of the compiled algorithm or null if there were
+   * errors
+   */
+  private static Class<? extends Algorithm> compile(File algorithmFile) {
+    String name = algorithmFile.getName();
+    if ( name.endsWith(".alg") ) name = name.substring(0, name.length() - 4);
+    try {
+      String code = new String(Files.readAllBytes(algorithmFile.toPath()),
+                               StandardCharsets.UTF_8);
+      Algorithm algorithm = CodeIntegrator.integrateCode(name, code);
+      if ( algorithm == null ) return null;
+      return algorithm.getClass();
+    }
+    catch ( CompilationException e ) {
+      for ( Diagnostic<?> diagnostic :
+              e.getDiagnostics().getDiagnostics() ) {
+        System.err.println("Error, line " + diagnostic.getLineNumber()
+                           + ": " + diagnostic.getMessage(null));
+      }
+    }
+    catch ( MalformedMacroException e ) {
+      System.err.println("Malformed macro: " + e.getMessage());
+    }
+    catch ( GalantException e ) {
+      System.err.println("Compiler error: " + e.getMessage());
+    }
+    catch ( IOException e ) {
+      System.err.println("Cannot read " + algorithmFile + ": " + e.getMessage());
+    }
+    return null;
+  }
+
+  /**
+   * The outcome of one run, printed as a line of the output
+   */
+  public static class Result {
+    File graphFile;
+    int steps;
+    long parseTime;
+    long runTime;
+    String outcome = "ok";
+
+    public boolean succeeded() { return outcome.equals("ok"); }
+
+    @Override
+    public String toString() {
+      return String.format("%s\t%d\t%.1f\t%.1f\t%s",
+                           graphFile.getPath(), steps,
+                           parseTime / 1e6, runTime / 1e6, outcome);
+    }
+  }
+
+  /**
+   * Runs the algorithm on the graph in the given file, in the current
+   * thread and in a dispatch of its own.
+   * @return the results of the run
+   */
+  public Result run(File graphFile) {
+    GraphDispatch dispatch = GraphDispatch.newContext();
+    dispatch.setWindowSize(GraphWindow.DEFAULT_HEIGHT,
+                           GraphWindow.DEFAULT_WIDTH);
+    GraphDispatch.setContext(dispatch);
+    Result result = new Result();
+    result.graphFile = graphFile;
+    try {
+      long startTime = System.nanoTime();
+      Graph graph = BinaryGraphFormat.isBinaryGraphFile(graphFile)
+        ? new BinaryGraphParser(graphFile).getGraph()
+        : new GraphMLParser(graphFile).getGraph();
+      result.parseTime = System.nanoTime() - startTime;
+      dispatch.setWorkingGraph(graph, UUID.randomUUID());
+
+      Algorithm algorithm;
+      try {
+        algorithm = algorithmClass.getDeclaredConstructor().newInstance();
+      }
+      catch ( ReflectiveOperationException e ) {
+        Throwable cause = e.getCause() == null ? e : e.getCause();
+        result.outcome = ("cannot create algorithm: " + cause)
+          .replace('\t', ' ').replace('\n', ' ');
+        return result;
+      }
+      algorithm.setGraph(graph);
+      AlgorithmSynchronizer synchronizer = new AlgorithmSynchronizer();
+      synchronizer.setBatchMode(true);
+      AlgorithmExecutor executor
+        = new AlgorithmExecutor(algorithm, synchronizer);
+      dispatch.setAlgorithmSynchronizer(synchronizer);
+      dispatch.setAlgorithmExecutor(executor);
+      dispatch.setAnimationMode(true);
+      try {
+        startTime = System.nanoTime();
+        algorithm.run();
+        result.runTime = System.nanoTime() - startTime;
+        result.steps = synchronizer.getStepCount();
+        if ( synchronizer.exceptionThrown() || executor.exceptionThrown )
+          result.outcome = "exception";
+        else if ( ! synchronizer.algorithmFinished() )
+          result.outcome = "terminated";
+        if ( outputDirectory != null ) {
+          writeGraph(graph, dispatch.getAlgorithmState(),
+                     new File(outputDirectory, graphFile.getName()));
+        }
+      }
+      finally {
+        dispatch.setAnimationMode(false);
+      }
+    }
+    catch ( Exception e ) {
+      result.outcome = e.toString().replace('\t', ' ').replace('\n', ' ');
+    }
+    finally {
+      GraphDispatch.setContext(null);
+    }
+    return result;
+  }
+
+  /**
+   * Writes the graph, as of the given state, straight to the (buffered)
+   * file rather than building the whole document as a string first
+   */
+  private static void writeGraph(Graph graph, int state, File file)
+    throws IOException {
+    PrintWriter out = new PrintWriter(file, "UTF-8");
+    try {
+      graph.writeXml(out, state);
+      out.println();
+    }
+    finally {
+      out.close();
+    }
+  }
+}
+
+//  [Last modified: 2026 10 19 at 14:21:09 GMT]
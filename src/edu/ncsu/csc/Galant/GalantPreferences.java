@@ -19,6 +19,7 @@ import javax.swing.JSpinner;
 import edu.ncsu.csc.Galant.gui.editor.GEditorFrame;
 import edu.ncsu.csc.Galant.gui.prefs.components.ColorPanel;
 import edu.ncsu.csc.Galant.gui.prefs.components.FilePanel;
+import edu.ncsu.csc.Galant.gui.prefs.components.PreferenceCheckBox;
 import edu.ncsu.csc.Galant.gui.prefs.components.PreferenceSpinner;
 import edu.ncsu.csc.Galant.prefs.Accessors;
 import edu.ncsu.csc.Galant.prefs.Preference;
@@ -68,6 +69,22 @@ public class GalantPreferences {
 
   public static final Preference<Integer> NODE_RADIUS;
 
+  public static final Preference<Boolean> LAYOUT_BY_HOPS;
+
+  // Animation
+
+  public static final PreferenceGroup ANIMATION;
+
+  public static final Preference<Integer> RUN_AHEAD_STEPS;
+
+  public static final Preference<Boolean> HISTORY_ON_DISK;
+
+  public static final Preference<Boolean> KEEP_HISTORY;
+
+  public static final Preference<Integer> PLAYBACK_FRAMES_PER_SECOND;
+
+  public static final Preference<Integer> PLAYBACK_STEPS_PER_SECOND;
+
   // Open/Save
 
   public static final PreferenceGroup OPEN_SAVE;
@@ -218,6 +235,59 @@ public class GalantPreferences {
       }
     };
 
+    // the force-directed layout (smart repositioning) divides the
+    // repulsion between two nodes by the square root of the number of hops
+    // between them rather than basing it on their degrees
+    LAYOUT_BY_HOPS =
+      VISUAL_GRAPH_EDITOR
+      .addPreference(new Preference<Boolean>("Layout repulsion by hops",
+                                             false,
+                                             Accessors.BOOLEAN_ACCESSOR));
+    new PreferenceCheckBox(LAYOUT_BY_HOPS);
+
+    // -------- Animation --------
+
+    ANIMATION = PreferenceGroup.ROOT.addNewChild("Animation");
+
+    // 0 means the algorithm executes one step at a time, in lock step
+    // with the display
+    RUN_AHEAD_STEPS =
+      ANIMATION.addPreference(new Preference<Integer>("Steps to run ahead",
+                                                      0,
+                                                      Accessors.INT_ACCESSOR));
+    new PreferenceSpinner(RUN_AHEAD_STEPS, 0, null, 1000);
+
+    // states of nodes and edges go to a temporary file instead of the
+    // heap, for very long animations of large graphs
+    HISTORY_ON_DISK =
+      ANIMATION.addPreference(new Preference<Boolean>("Record history on disk",
+                                                      false,
+                                                      Accessors.BOOLEAN_ACCESSOR));
+    new PreferenceCheckBox(HISTORY_ON_DISK);
+
+    // if the history is recorded on disk, ask for a file to keep it in, so
+    // that the animation can be replayed by opening that file
+    KEEP_HISTORY =
+      ANIMATION.addPreference(new Preference<Boolean>("Keep recorded history",
+                                                      false,
+                                                      Accessors.BOOLEAN_ACCESSOR));
+    new PreferenceCheckBox(KEEP_HISTORY);
+
+    // continuous playback of an animation: how often the display is
+    // redrawn and how many steps it advances per second; several steps
+    // are shown in one frame if there are more steps than frames
+    PLAYBACK_FRAMES_PER_SECOND =
+      ANIMATION.addPreference(new Preference<Integer>("Playback frames per second",
+                                                      30,
+                                                      Accessors.INT_ACCESSOR));
+    new PreferenceSpinner(PLAYBACK_FRAMES_PER_SECOND, 1, 120, 1);
+
+    PLAYBACK_STEPS_PER_SECOND =
+      ANIMATION.addPreference(new Preference<Integer>("Playback steps per second",
+                                                      5,
+                                                      Accessors.INT_ACCESSOR));
+    new PreferenceSpinner(PLAYBACK_STEPS_PER_SECOND, 1, null, 1);
+
     // -------- Open/Save --------
 
     OPEN_SAVE = PreferenceGroup.ROOT.addNewChild("Open/Save");
@@ -245,4 +315,4 @@ public class GalantPreferences {
 
 }
 
-//  [Last modified: 2017 04 26 at 20:30:41 GMT]
+//  [Last modified: 2026 10 19 at 13:31:18 GMT]
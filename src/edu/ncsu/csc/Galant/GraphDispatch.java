@@ -19,19 +19,32 @@ import edu.ncsu.csc.Galant.algorithm.Terminate;
  * information about window width and height to other classes as appropriate;
  * and for passing information about current mode (animation vs. editing)
  *
+ * A dispatch is the execution context of an algorithm run: the graph, the
+ * executor and synchronizer, and the mode all live here. The graphical user
+ * interface uses a single, global, dispatch. Independent runs, e.g., in a
+ * batch of experiments, can each create their own with newContext() and
+ * bind it to the thread that runs them with setContext(); getInstance()
+ * then returns that dispatch in the thread and in any thread it starts,
+ * such as the algorithm thread. Graphs, graph elements and their states
+ * keep the dispatch that was current when they were created.
+ *
  * @author Jason Cockrell, Ty Devries, Alex McCabe, Michael Owoc; edited by
  * Matthias Stallmann, Weijia Li, and Yuang Ni.
  *
- * @todo I'm puzzled by the need for getIntance() when there is only one
- * instance at any given time. Seems like all information should be static
- * and initialized appropriately when Galant execution begins. A more
- * appropriate name for this class, given its current usage, would be
- * Globals. The original intent may have been to have multiple instances for
- * multiple communication channels between graphs, algorithms and editors.
+ * @todo A more appropriate name for this class, given its current usage,
+ * would be ExecutionContext.
  */
 public class GraphDispatch {
 
   private static GraphDispatch instance;
+
+  /**
+   * the dispatch bound to the current thread, if any; inherited by threads
+   * it starts
+   */
+  private static final InheritableThreadLocal<GraphDispatch> context
+    = new InheritableThreadLocal<GraphDispatch>();
+
   private Graph workingGraph;
   /**
    * A unique identifier for a graph.
@@ -128,13 +141,30 @@ public class GraphDispatch {
   private List<PropertyChangeListener> listener
     = new ArrayList<PropertyChangeListener>();
 
+  /**
+   * Properties of the events sent to element listeners, whose new value is
+   * the node or edge that changed: a change of its attributes, or a change
+   * of the fixed position of a node, respectively
+   */
+  public static final String ELEMENT_STATE = "elementState";
+  public static final String NODE_POSITION = "nodePosition";
+
+  /**
+   * Listeners for changes of individual nodes and edges; kept apart from
+   * the others since there is one event per change, possibly from the
+   * algorithm thread
+   */
+  private List<PropertyChangeListener> elementListener
+    = new ArrayList<PropertyChangeListener>();
+
   private GraphDispatch() {
     LogHelper.enterConstructor(getClass());
     LogHelper.exitConstructor(getClass());
   }
 
   /**
-   * @return the (unique) instance of a GraphDispatch; this method allows
+   * @return the dispatch bound to the current thread or, if there is none,
+   * the global instance of a GraphDispatch; this method allows
    * various parts of the code to communicate with each other indirectly;
    * for example, an instance of the Graph class does not have to be
    * associated with a GraphDispatch instance upon creation in order for it
@@ -146,20 +176,53 @@ public class GraphDispatch {
    * changes.
    */
   public static GraphDispatch getInstance() {
-    if (instance == null) {
-      instance = new GraphDispatch();
+    GraphDispatch current = context.get();
+    if ( current != null ) return current;
+    synchronized ( GraphDispatch.class ) {
+      if (instance == null) {
+        instance = new GraphDispatch();
+      }
+      return instance;
     }
-    return instance;
+  }
+
+  /**
+   * @return a new dispatch, independent of the global one, for a run that
+   * has no window
+   */
+  public static GraphDispatch newContext() {
+    return new GraphDispatch();
+  }
+
+  /**
+   * Binds the given dispatch to the current thread, so that getInstance()
+   * returns it there and in threads started from there; null goes back to
+   * the global instance.
+   */
+  public static void setContext(GraphDispatch dispatch) {
+    if ( dispatch == null )
+      context.remove();
+    else
+      context.set(dispatch);
   }
 
   public Graph getWorkingGraph() {
     if (workingGraph == null) {
-      workingGraph = new Graph();
+      workingGraph = new Graph(this);
       workingGraph.graphWindow = graphWindow;
     }
     return workingGraph;
   }
 
+  /**
+   * @return the working graph or null if there is none yet; unlike
+   * getWorkingGraph(), does not create one, so it is safe to call from an
+   * element listener, which creating a graph would notify
+   */
+  public Graph getExistingWorkingGraph() {
+    return workingGraph;
+  }
+
   public void setWorkingGraph(Graph g, UUID u) {
     this.workingGraph = g;
     this.graphSource = u;
@@ -261,6 +324,14 @@ public class GraphDispatch {
       algorithmSynchronizer.pauseExecution();
   }
 
+  /**
+   * @return true if an algorithm is running without a display, i.e., with
+   * the synchronizer in batch mode
+   */
+  public boolean isBatchRun() {
+    return animationMode && algorithmSynchronizer.isBatchMode();
+  }
+
   /**
    * Locks the current algorithm state if algorithm is running
    */
@@ -312,6 +383,20 @@ public class GraphDispatch {
     listener.add(newListener);
   }
 
+  /**
+   * Tells the element listeners that the given node or edge has changed;
+   * property is ELEMENT_STATE or NODE_POSITION
+   */
+  public void elementChanged(String property, Object element) {
+    for (PropertyChangeListener name : elementListener) {
+      name.propertyChange(new PropertyChangeEvent(this, property, null, element));
+    }
+  }
+
+  public void addElementListener(PropertyChangeListener newListener) {
+    elementListener.add(newListener);
+  }
+
   public int getWindowWidth() {
     return windowWidth;
   }
@@ -345,4 +430,4 @@ public class GraphDispatch {
 
 }
 
-//  [Last modified: 2017 03 13 at 19:47:59 GMT]
+//  [Last modified: 2026 10 19 at 14:38:21 GMT]
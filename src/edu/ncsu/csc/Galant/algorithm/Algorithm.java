@@ -384,7 +384,7 @@ public abstract class Algorithm implements Runnable {
     edgeStack = new EdgeStack();
     nodePQ = new NodePriorityQueue();
     edgePQ = new EdgePriorityQueue();
-    dispatch = GraphDispatch.getInstance();
+    dispatch = graph != null ? graph.getDispatch() : GraphDispatch.getInstance();
     dispatch.setAlgorithmMovesNodes(false);
     synchronizer = dispatch.getAlgorithmSynchronizer();
     try {
@@ -942,6 +942,23 @@ public abstract class Algorithm implements Runnable {
     return v.getOutgoingEdges();
   }
 
+  /**
+   * Read-only versions of the above that do not copy the edges; used by
+   * the for_adjacent, for_incoming and for_outgoing macros
+   */
+  public List<Edge> incidentView(Node v) throws GalantException {
+    checkGraphElement(v);
+    return v.incidentView();
+  }
+  public List<Edge> incomingView(Node v) throws GalantException {
+    checkGraphElement(v);
+    return v.incomingView();
+  }
+  public List<Edge> outgoingView(Node v) throws GalantException {
+    checkGraphElement(v);
+    return v.outgoingView();
+  }
+
   /**
    * The following can be used if sets of neighbors, etc., are desired
    */
@@ -1017,14 +1034,7 @@ public abstract class Algorithm implements Runnable {
   public Boolean isEdge(Node v, Node w) throws GalantException {
     checkGraphElement(v);
     checkGraphElement(w);
-    EdgeList incidenceList
-      = v.getOutgoingEdges();
-    for ( Edge e : incidenceList ) {
-      if ( v.travel(e) == w ) {
-        return true;
-      }
-    }
-    return false;
+    return graph.isEdge(v, w);
   }
 
   /**
@@ -1293,6 +1303,10 @@ public abstract class Algorithm implements Runnable {
    * Displays the exception in a dialog window
    */
   public void displayException(Exception e) {
+    // lets the executor know right away rather than waiting for what looks
+    // like an infinite loop
+    if ( synchronizer != null )
+      synchronizer.reportExceptionThrown();
     ExceptionDialog.displayExceptionInDialog(e);
   }
 
@@ -1312,9 +1326,15 @@ public abstract class Algorithm implements Runnable {
     return graph.isDirected();
   }
 
-  /**  */
+  /**
+   * Changes the directedness via the graph window so that its buttons
+   * reflect the change; changes the graph directly if there is no window
+   */
   public void setDirected(boolean directed) {
-    dispatch.getGraphWindow().setDirectedness(directed);
+    if ( dispatch.getGraphWindow() == null )
+      graph.setDirected(directed);
+    else
+      dispatch.getGraphWindow().setDirectedness(directed);
   }
 
   public NodeList getNodes() {
@@ -1335,7 +1355,7 @@ public abstract class Algorithm implements Runnable {
   //     public NodeList nodes() { return (NodeList) getNodes(); }
 
   public Integer numberOfNodes() {
-    return graph.getNodes().size();
+    return graph.numberOfNodes();
   }
 
   public EdgeList getEdges() {
@@ -1345,7 +1365,7 @@ public abstract class Algorithm implements Runnable {
   //     public EdgeList edges() { return (EdgeList) getEdges(); }
 
   public Integer numberOfEdges() {
-    return graph.getEdges().size();
+    return graph.numberOfEdges();
   }
 
   /** @see edu.ncsu.csc.Galant.graph.component.Graph#getStartNode() */
@@ -1493,4 +1513,4 @@ public abstract class Algorithm implements Runnable {
   public abstract void run();
 }
 
-//  [Last modified: 2017 05 20 at 19:16:59 GMT]
+//  [Last modified: 2026 10 18 at 17:49:52 GMT]
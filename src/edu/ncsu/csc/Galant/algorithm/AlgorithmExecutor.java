@@ -20,8 +20,9 @@ import edu.ncsu.csc.Galant.logging.LogHelper;
 public class AlgorithmExecutor {
 
     /**
-     * the amount of time to wait between polling the algorithm, in
-     * milliseconds
+     * the longest time to wait for the algorithm to signal the end of a
+     * step before checking on it, in milliseconds; a step normally ends
+     * with a signal that wakes up the main thread right away
      */
     final int WAIT_TIME = 10;
 
@@ -38,13 +39,27 @@ public class AlgorithmExecutor {
 
     private Algorithm algorithm;
     private AlgorithmSynchronizer synchronizer;
+    /**
+     * The execution context of the algorithm, i.e., the one current when
+     * the executor is created
+     */
+    private final GraphDispatch dispatch = GraphDispatch.getInstance();
     /**
      * Needs to be public so that it can be interrupted (not clear that it
      * helps)
      */
     public Thread algorithmThread;
-    private int algorithmState;
-    private int displayState;
+    /**
+     * Written by the algorithm thread in run-ahead mode, hence volatile
+     */
+    private volatile int algorithmState;
+    private volatile int displayState;
+
+    /**
+     * When replaying a recorded animation, the last state recorded; there
+     * is no algorithm then
+     */
+    private int recordedState;
 
     /**
      * true if an error or infinite loop occurred during execution
@@ -71,15 +86,32 @@ public class AlgorithmExecutor {
         this.exceptionThrown = false;
     }
 
+    /**
+     * Replays an animation recorded earlier, e.g., one opened with
+     * Graph.openHistoryLog(); all states up to the given one already exist,
+     * so the display simply moves among them.
+     */
+    public AlgorithmExecutor(int recordedState,
+                             AlgorithmSynchronizer synchronizer) {
+        this.synchronizer = synchronizer;
+        this.recordedState = recordedState;
+        synchronizer.finishAlgorithm();
+    }
+
     /**
      * Starts the algorithm thread and causes it to execute the first step.
      * @todo not clear if we want the first step to execute
      */
     public void startAlgorithm() {
-        GraphDispatch dispatch = GraphDispatch.getInstance();
         dispatch.setActiveQuery(null);
-        algorithmState = displayState = 0;
-        algorithmThread.start();
+        displayState = 0;
+        if ( algorithm == null ) {
+            algorithmState = recordedState;
+        }
+        else {
+            algorithmState = 0;
+            algorithmThread.start();
+        }
         incrementDisplayState();
     }
 
@@ -90,19 +122,16 @@ public class AlgorithmExecutor {
     public synchronized void stopAlgorithm() {
       LogHelper.disable();
         LogHelper.enterMethod(getClass(), "stopAlgorithm");
-        GraphDispatch dispatch = GraphDispatch.getInstance();
         dispatch.setAnimationMode(false);
-        synchronized ( synchronizer ) {
-            synchronizer.stop();
-            synchronizer.notify();
-        }
+        synchronizer.stop();
         LogHelper.logDebug("algorithm thread notified"
                            + ", infiniteLoop = " + infiniteLoop
                            + ", exceptionThrown = " + synchronizer.exceptionThrown()
                            + ", activeQuery = "
                            + dispatch.getActiveQuery());
         try {
-            if ( ! infiniteLoop
+            if ( algorithmThread != null
+                 && ! infiniteLoop
                  && ! synchronizer.exceptionThrown()
                  && dispatch.getActiveQuery() == null ) {
                 LogHelper.logDebug("stopAlgorithm(): about to join algorithm thread");
@@ -128,6 +157,12 @@ public class AlgorithmExecutor {
      */
     public int getAlgorithmState() { return algorithmState; }
 
+    /**
+     * Called by the synchronizer, in the algorithm thread, when the
+     * algorithm starts a new step in run-ahead mode
+     */
+    void advanceAlgorithmState() { algorithmState++; }
+
     /**
      * Needed for code that relies on knowing what the current display is showing
      */
@@ -149,43 +184,20 @@ public class AlgorithmExecutor {
         LogHelper.logDebug("-> incrementDisplayState display = "
                            + displayState
                            + " algorithm = " + algorithmState);
-        GraphDispatch dispatch = GraphDispatch.getInstance();
-        if ( displayState == algorithmState
-             && ! synchronizer.algorithmFinished()
-             && ! synchronizer.stopped()
-             && ! synchronizer.exceptionThrown()
-             && dispatch.getActiveQuery() == null ) {
+        if ( synchronizer.isRunningAhead() ) {
+            incrementRunAheadDisplayState();
+        }
+        else if ( displayState == algorithmState
+                  && ! synchronizer.algorithmFinished()
+                  && ! synchronizer.stopped()
+                  && ! synchronizer.exceptionThrown()
+                  && dispatch.getActiveQuery() == null ) {
             displayState++;
             algorithmState++;
 
             // wake up the algorithmThread, have it do something
-            synchronized ( synchronizer ) {
-                synchronizer.notify();
-            }
-            int timeInBusyWait = 0;
-            do {
-                try {
-                    Thread.sleep(WAIT_TIME);
-                    timeInBusyWait += WAIT_TIME;
-                    if ( timeInBusyWait % PRINT_INTERVAL == 0 ) {
-                        System.out.println("waiting "
-                                           + (timeInBusyWait / (double) 1000)
-                                           + " seconds");
-                    }
-                } catch (InterruptedException e) {
-                    System.out.printf("Error occured while trying to wait");
-                    e.printStackTrace(System.out);
-                }
-            } while ( ! synchronizer.stepFinished()
-                      && ! synchronizer.stopped()
-                      //                      && ! algorithmThread.interrupted()
-                      && ! synchronizer.exceptionThrown()
-                      && ! exceptionThrown
-                      && timeInBusyWait < BUSY_WAIT_TIME_LIMIT );
-            if ( timeInBusyWait >= BUSY_WAIT_TIME_LIMIT ) {
-                System.out.println("busy wait time limit exceeded");
-                infiniteLoop = true;
-            }
+            synchronizer.resumeAlgorithm();
+            waitForAlgorithm();
         }
         else if ( displayState < algorithmState ) {
             displayState++;
@@ -202,11 +214,59 @@ public class AlgorithmExecutor {
         LogHelper.restoreState();
     }
 
+    /**
+     * In run-ahead mode the display simply moves to the next completed
+     * state; only if there is none does the algorithm have to be asked for
+     * a step, as in lock-step mode.
+     */
+    private void incrementRunAheadDisplayState() {
+        if ( displayState >= synchronizer.getCompletedState()
+             && ! synchronizer.algorithmFinished()
+             && ! synchronizer.stopped()
+             && ! synchronizer.exceptionThrown()
+             && dispatch.getActiveQuery() == null ) {
+            synchronizer.resumeAlgorithm();
+            waitForAlgorithm();
+        }
+        if ( displayState < synchronizer.getCompletedState() ) {
+            displayState++;
+            synchronizer.setDisplayState(displayState);
+        }
+    }
+
+    /**
+     * Waits for the algorithm to finish the step it was asked to do; if it
+     * does not finish within BUSY_WAIT_TIME_LIMIT, it is assumed to be in an
+     * infinite loop.
+     */
+    private void waitForAlgorithm() {
+        long startTime = System.nanoTime();
+        long timeInBusyWait = 0;
+        long nextPrintTime = PRINT_INTERVAL;
+        while ( ! synchronizer.awaitStep(WAIT_TIME)
+                && ! exceptionThrown
+                && timeInBusyWait < BUSY_WAIT_TIME_LIMIT ) {
+            timeInBusyWait = (System.nanoTime() - startTime) / 1000000;
+            if ( timeInBusyWait >= nextPrintTime ) {
+                System.out.println("waiting "
+                                   + (nextPrintTime / (double) 1000)
+                                   + " seconds");
+                nextPrintTime += PRINT_INTERVAL;
+            }
+        }
+        if ( timeInBusyWait >= BUSY_WAIT_TIME_LIMIT ) {
+            System.out.println("busy wait time limit exceeded");
+            infiniteLoop = true;
+        }
+    }
+
     /**
      * Called when user requests a step back
      */
     public void decrementDisplayState() {
         if ( displayState >= 0 ) displayState--;
+        if ( synchronizer.isRunningAhead() )
+            synchronizer.setDisplayState(displayState);
     }
 
     /**
@@ -214,6 +274,8 @@ public class AlgorithmExecutor {
      */
     public boolean hasNextState() {
         if ( algorithmState > displayState ) return true;
+        if ( synchronizer.isRunningAhead()
+             && synchronizer.getCompletedState() > displayState ) return true;
 		if ( ! synchronizer.algorithmFinished() ) return true;
         return false;
 	}
@@ -232,4 +294,4 @@ public class AlgorithmExecutor {
     }
 }
 
-//  [Last modified: 2017 03 08 at 19:31:24 GMT]
+//  [Last modified: 2026 10 19 at 13:14:05 GMT]
@@ -13,24 +13,47 @@
  *   manager (AlgorithmExecutor)
  *
  * - if the current display state is the same as the algorithm state, the
- *   algorithm wakes up and executes, doing a startStep(), i.e., setting
- *   stepFinished false and checking for termination
+ *   executor calls resumeAlgorithm() and then waits in awaitStep(); the
+ *   algorithm wakes up and executes, doing a startStep(), i.e., checking
+ *   for termination
  *
  * - when the current algorithm step is done, the algorithm calls
  *   pauseExecution() to wake up the AlgorithmExecuter (main thread)
  *
  * - this synchronizer waits to be woken up again, i.e., when the user steps
  *    forward beyond the current algorithm state
+ *
+ * Both hand-offs use conditions of a single lock, so that each thread
+ * wakes up as soon as the other one signals it, rather than polling.
+ *
+ * In run-ahead mode (a positive run-ahead limit) the algorithm does not
+ * wait at the end of a step unless it is too far ahead of the display,
+ * memory is getting scarce, or a query dialog is waiting for an
+ * answer. The algorithm then advances the algorithm state itself, at the
+ * start of its next step, and the display simply catches up with the
+ * states already recorded.
+ *
+ * In batch mode there is no display at all: the algorithm never waits,
+ * the algorithm state stays the same, so that no history accumulates, and
+ * the synchronizer merely counts the steps.
  */
 
 package edu.ncsu.csc.Galant.algorithm;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import edu.ncsu.csc.Galant.GraphDispatch;
-import edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 
 public class AlgorithmSynchronizer {
 
+    /**
+     * the algorithm stops running ahead when the heap in use exceeds this
+     * fraction of the maximum heap size
+     */
+    public static final double RUN_AHEAD_MEMORY_FRACTION = 0.75;
+
     /** true if done with current algorithm step */
     protected boolean stepFinished = false;
     /** true if algorithm has reached the end of execution; may still be
@@ -44,49 +67,187 @@ public class AlgorithmSynchronizer {
     protected boolean locked = false;
     /** true if there was an exception thrown during the current step */
     protected boolean exceptionThrown = false;
+    /** true if the executor has asked for another step and the algorithm
+     * has not yet started on it; guards against the request coming before
+     * the algorithm waits for it */
+    private boolean resumeRequested = false;
+
+    /** maximum number of steps the algorithm may complete beyond the
+     * display state; 0 means lock-step execution */
+    private int runAheadLimit = 0;
+    /** in run-ahead mode, the latest algorithm state the algorithm has
+     * completed */
+    private int completedState = 0;
+    /** in run-ahead mode, the display state as last reported by the
+     * executor */
+    private int displayState = 0;
+    /** in run-ahead or batch mode, true if the algorithm has gone past the
+     * end of a step, so that its next step needs a new algorithm state (or
+     * is counted) */
+    private boolean ranAhead = false;
+
+    /** true if the algorithm runs without a display */
+    private boolean batchMode = false;
+    /** in batch mode, the number of steps the algorithm has started */
+    private int stepCount = 0;
+
+    /** the execution context of the algorithm, i.e., the one current when
+     * the synchronizer is created */
+    private final GraphDispatch dispatch = GraphDispatch.getInstance();
+
+    /** guards all of the above */
+    private final ReentrantLock monitor = new ReentrantLock();
+    /** signaled when the algorithm may execute its next step */
+    private final Condition resumed = monitor.newCondition();
+    /** signaled when the algorithm yields, finishes, throws an exception,
+     * or is stopped */
+    private final Condition stepDone = monitor.newCondition();
 
     /**
      * Signals the algorithm that it needs to stop running. The signal is
-     * heeded at the beginning of the next step.
+     * heeded at the beginning of the next step, or immediately if the
+     * algorithm is waiting for one.
      */
-    public synchronized void stop() {
-        terminated = true;
+    public void stop() {
+        monitor.lock();
+        try {
+            terminated = true;
+            resumed.signalAll();
+            stepDone.signalAll();
+        }
+        finally {
+            monitor.unlock();
+        }
      }
 
-    public synchronized boolean stopped() {
-        return terminated;
+    public boolean stopped() {
+        monitor.lock();
+        try {
+            return terminated;
+        }
+        finally {
+            monitor.unlock();
+        }
     }
 
     /**
-     * The algorithm signals that it has reached the end of execution on its own.
-     * @todo not clear that this has to be synchronized
+     * The algorithm signals that it has reached the end of execution on its
+     * own; this also ends the current step.
      */
-    public synchronized void finishAlgorithm() {
-        synchronized( this ) {
+    public void finishAlgorithm() {
+        monitor.lock();
+        try {
             algorithmFinished = true;
+            stepFinished = true;
+            if ( runAheadLimit > 0 ) completedState = currentState();
+            stepDone.signalAll();
+        }
+        finally {
+            monitor.unlock();
+        }
+    }
+
+    public boolean algorithmFinished() {
+        monitor.lock();
+        try {
+            return algorithmFinished;
         }
+        finally {
+            monitor.unlock();
+        }
+    }
+
+    /**
+     * Sets the number of steps the algorithm may run ahead of the display;
+     * must be called before the algorithm starts.
+     */
+    public void setRunAheadLimit(int runAheadLimit) {
+        this.runAheadLimit = runAheadLimit;
     }
 
-    public synchronized boolean algorithmFinished() {
-        return algorithmFinished;
+    public boolean isRunningAhead() { return runAheadLimit > 0; }
+
+    /**
+     * @return the latest algorithm state that is complete in run-ahead mode
+     */
+    public int getCompletedState() {
+        monitor.lock();
+        try {
+            return completedState;
+        }
+        finally {
+            monitor.unlock();
+        }
+    }
+
+    /**
+     * Called by the executor in run-ahead mode whenever the display state
+     * changes; wakes up the algorithm in case it can now run further ahead.
+     */
+    public void setDisplayState(int displayState) {
+        monitor.lock();
+        try {
+            this.displayState = displayState;
+            resumed.signalAll();
+        }
+        finally {
+            monitor.unlock();
+        }
+    }
+
+    /**
+     * Puts the synchronizer in batch mode; must be called before the
+     * algorithm starts.
+     */
+    public void setBatchMode(boolean batchMode) {
+        this.batchMode = batchMode;
+    }
+
+    public boolean isBatchMode() { return batchMode; }
+
+    /**
+     * @return the number of steps, i.e., the number of states the display
+     * would have gone through, in batch mode
+     */
+    public int getStepCount() {
+        monitor.lock();
+        try {
+            return stepCount;
+        }
+        finally {
+            monitor.unlock();
+        }
     }
 
     public void lock() { locked = true; }
     public void unlock() { locked = false; }
     public boolean isLocked() { return locked; }
 
-    public synchronized void reportExceptionThrown() {
-        exceptionThrown = true;
+    public void reportExceptionThrown() {
+        monitor.lock();
+        try {
+            exceptionThrown = true;
+            stepDone.signalAll();
+        }
+        finally {
+            monitor.unlock();
+        }
     }
 
-    public synchronized boolean exceptionThrown() {
-        return exceptionThrown;
+    public boolean exceptionThrown() {
+        monitor.lock();
+        try {
+            return exceptionThrown;
+        }
+        finally {
+            monitor.unlock();
+        }
     }
 
     /**
      * Signals the beginning of a step: the algorithm calls startStep() and
-     * the main thread checks, in a busy wait loop, to see whether the
-     * current step is finished.
+     * the main thread waits, in awaitStep(), for the current step to be
+     * finished.
      *
      * startStep() is also used by the algorithm to take appropriate action when
      * termination is called for; if yes then throws an exception to
@@ -94,48 +255,167 @@ public class AlgorithmSynchronizer {
      * compiled algorithm;
      * @see edu.ncsu.csc.Galant.algorithm.code.CodeIntegrator
      */
-    public synchronized void startStep() throws Terminate {
-        if ( terminated )
-            throw new Terminate();
-        if ( locked ) {
-            locked = false;
-            pauseExecution();
+    public void startStep() throws Terminate {
+        monitor.lock();
+        try {
+            if ( terminated )
+                throw new Terminate();
+            if ( locked ) {
+                locked = false;
+                pauseExecution();
+            }
+            if ( terminated )
+                throw new Terminate();
+            if ( ranAhead ) {
+                ranAhead = false;
+                if ( batchMode )
+                    stepCount++;
+                else
+                    dispatch.getAlgorithmExecutor().advanceAlgorithmState();
+            }
+            stepFinished = false;
+        }
+        finally {
+            monitor.unlock();
         }
-        if ( terminated )
-            throw new Terminate();
-        stepFinished = false;
     }
 
-    public synchronized boolean stepFinished() {
+    public boolean stepFinished() {
+        monitor.lock();
+        try {
+            return stepFinished;
+        }
+        finally {
+            monitor.unlock();
+        }
+    }
+
+    public void finishStep() {
+        monitor.lock();
+        try {
+            stepFinished = true;
+            stepDone.signalAll();
+        }
+        finally {
+            monitor.unlock();
+        }
+    }
+
+    /**
+     * Called by the main thread to let the algorithm execute its next
+     * step; the step is not finished until the algorithm says so. In
+     * run-ahead mode this lets the algorithm take one more step even if it
+     * would not run ahead on its own, e.g., after a query was answered.
+     */
+    public void resumeAlgorithm() {
+        monitor.lock();
+        try {
+            stepFinished = false;
+            resumeRequested = true;
+            resumed.signalAll();
+        }
+        finally {
+            monitor.unlock();
+        }
+    }
+
+    /**
+     * Called by the main thread after resumeAlgorithm(); waits until the
+     * algorithm finishes its step, stops, or throws an exception, but no
+     * longer than the given time. A pause in the middle of a locked step
+     * does not count: the step ends with the endStep().
+     * In run-ahead mode, the step is over when the algorithm has completed
+     * a state beyond the display state.
+     *
+     * @return true if the step is over, for any of the above reasons
+     */
+    public boolean awaitStep(long milliseconds) {
+        monitor.lock();
+        try {
+            long nanoseconds = TimeUnit.MILLISECONDS.toNanos(milliseconds);
+            while ( ! stepOver() && nanoseconds > 0 ) {
+                nanoseconds = stepDone.awaitNanos(nanoseconds);
+            }
+            return stepOver();
+        }
+        catch ( InterruptedException e ) {
+            System.out.println("interruption in awaitStep");
+            return stepOver();
+        }
+        finally {
+            monitor.unlock();
+        }
+    }
+
+    private boolean stepOver() {
+        if ( terminated || exceptionThrown ) return true;
+        if ( runAheadLimit > 0 )
+            return completedState > displayState || algorithmFinished;
         return stepFinished;
     }
 
-    public synchronized void finishStep() {
-        stepFinished = true;
+    /**
+     * @return true if the algorithm, in run-ahead mode, can go on with its
+     * next step without being asked to
+     */
+    private boolean mayRunAhead() {
+        if ( completedState - displayState >= runAheadLimit ) return false;
+        if ( dispatch.getActiveQuery() != null ) return false;
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used < RUN_AHEAD_MEMORY_FRACTION * runtime.maxMemory();
+    }
+
+    private int currentState() {
+        return dispatch.getAlgorithmExecutor().getAlgorithmState();
     }
 
     /**
      * Called at the end of each algorithm step; yields control back to the
-     * main thread
+     * main thread. Does nothing in the middle of a locked step: that step
+     * goes on until endStep().
      */
-    public synchronized void pauseExecution() throws Terminate {
+    public void pauseExecution() throws Terminate {
         LogHelper.disable();
         LogHelper.logDebug("-> pauseExecution, locked = " + locked);
-        if ( terminated )
-            throw new Terminate();
-        AlgorithmExecutor executor
-            = GraphDispatch.getInstance().getAlgorithmExecutor();
-        stepFinished = true;
-        synchronized( this ) {
-            try {
-                if ( ! locked ) {
-                    this.wait();
+        monitor.lock();
+        try {
+            if ( terminated )
+                throw new Terminate();
+            if ( ! locked && batchMode ) {
+                stepFinished = true;
+                ranAhead = true;
+            }
+            else if ( ! locked && runAheadLimit > 0 ) {
+                completedState = currentState();
+                stepFinished = true;
+                stepDone.signalAll();
+                while ( ! resumeRequested && ! mayRunAhead() && ! terminated ) {
+                    resumed.await();
                 }
+                resumeRequested = false;
+                ranAhead = true;
             }
-            catch ( InterruptedException e ) {
-                System.out.println("interruption in pauseExecution");
+            else if ( ! locked ) {
+                // if the next step was requested before the algorithm got
+                // here (e.g., before the pause in Algorithm.initialize()),
+                // the algorithm simply goes on with it
+                if ( ! resumeRequested ) {
+                    stepFinished = true;
+                    stepDone.signalAll();
+                }
+                while ( ! resumeRequested && ! terminated ) {
+                    resumed.await();
+                }
+                resumeRequested = false;
             }
         }
+        catch ( InterruptedException e ) {
+            System.out.println("interruption in pauseExecution");
+        }
+        finally {
+            monitor.unlock();
+        }
         if ( terminated )
             throw new Terminate();
         LogHelper.logDebug("<- pauseExecution, locked = " + locked);
@@ -143,4 +423,4 @@ public class AlgorithmSynchronizer {
     }
 }
 
-//  [Last modified: 2016 12 22 at 18:38:31 GMT]
+//  [Last modified: 2026 10 19 at 14:02:37 GMT]
@@ -100,7 +100,7 @@ public class Macros {
                         adjacentNode = args[2];
                     return Matcher.quoteReplacement("for ( Edge "
                                                     + edge + " : "
-                                                    + "outEdges(" + node + ") )"
+                                                    + "outgoingView(" + node + ") )"
                                                     + whitespace
                                                     + "{ Node "
                                                     + adjacentNode
@@ -145,7 +145,7 @@ public class Macros {
                         adjacentNode = args[2];
                     return Matcher.quoteReplacement("for ( Edge "
                                                     + edge + " : "
-                                                    + "inEdges(" + node + ") )"
+                                                    + "incomingView(" + node + ") )"
                                                     + whitespace
                                                     + "{ Node "
                                                     + adjacentNode
@@ -191,7 +191,7 @@ public class Macros {
                         adjacentNode = args[2];
                     return Matcher.quoteReplacement("for ( Edge "
                                                     + edge + " : "
-                                                    + "edges(" + node + ") )"
+                                                    + "incidentView(" + node + ") )"
                                                     + whitespace
                                                     + "{ Node "
                                                     + adjacentNode
@@ -220,7 +220,7 @@ public class Macros {
                                              String block) {
                     return Matcher.quoteReplacement("for(Node "
                                                     + args[0]
-                                                    + " : getNodes())");
+                                                    + " : getGraph().nodeView())");
                 }
             });
 
@@ -238,7 +238,7 @@ public class Macros {
                 protected String modifyMatch(String code, MatchResult nameMatch, String[] args, String whitespace,
                                              String block)
                 {
-                    return Matcher.quoteReplacement("for(Edge " + args[0] + " : getEdges())");
+                    return Matcher.quoteReplacement("for(Edge " + args[0] + " : getGraph().edgeView())");
                 }
             });
 
@@ -344,4 +344,4 @@ public class Macros {
     }
 }
 
-//  [Last modified: 2017 01 19 at 17:11:15 GMT]
+//  [Last modified: 2026 10 18 at 17:31:09 GMT]
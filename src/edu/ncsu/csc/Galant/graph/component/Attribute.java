@@ -1,19 +1,38 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
+
 /**
  * A generic item in an AttributeList. Usually only one of the four
  * possible getters other than getKey() will return a non-null value.
+ *
+ * Attributes are immutable, so they can be shared among lists and element
+ * states. The key is interned in AttributeKeys; its index is what lists
+ * and states use for comparisons.
  */
 public abstract class Attribute implements Cloneable {
-    protected String key;
-    public Attribute(String key) { this.key = key; }
+    protected final String key;
+    protected final int keyIndex;
+    public Attribute(String key) {
+        this.key = key;
+        this.keyIndex = AttributeKeys.intern(key);
+    }
     public String getKey() { return key; } 
+    public int getKeyIndex() { return keyIndex; }
     public Integer getIntegerValue() { return null; }
     public Double getDoubleValue() { return null; }
     public Boolean getBooleanValue() { return null; } 
     public String getStringValue() { return null; }
     public abstract Attribute clone();
     public abstract String toString();
+
+    /**
+     * Writes the attribute, as it appears in GraphML, to out; same as
+     * toString(), without an intermediate string where that can be avoided
+     */
+    public void appendTo(Appendable out) throws IOException {
+        out.append(toString());
+    }
 }
 
-//  [Last modified: 2015 07 27 at 16:05:48 GMT]
+//  [Last modified: 2026 10 18 at 15:37:30 GMT]
@@ -0,0 +1,91 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Symbol table for attribute keys. Every key used by an Attribute is
+ * interned here and given a small integer index, so that attribute lookups
+ * compare ints instead of strings and an AttributeList can keep attributes
+ * in slots addressed directly by key index. The standard attributes have
+ * fixed indexes, declared below, that are smaller than any user-defined
+ * key.
+ *
+ * Keys are never removed; the number of distinct keys in a session is small.
+ */
+public final class AttributeKeys {
+
+    public static final int ID = 0;
+    public static final int WEIGHT = 1;
+    public static final int LABEL = 2;
+    public static final int COLOR = 3;
+    public static final int DELETED = 4;
+    public static final int HIGHLIGHTED = 5;
+    public static final int HIDDEN = 6;
+    public static final int HIDDEN_LABEL = 7;
+    public static final int HIDDEN_WEIGHT = 8;
+    public static final int MARKED = 9;
+    public static final int X = 10;
+    public static final int Y = 11;
+    public static final int LAYER = 12;
+    public static final int POSITION_IN_LAYER = 13;
+    public static final int SOURCE = 14;
+    public static final int TARGET = 15;
+    public static final int MESSAGE = 16;
+
+    public static final int NUMBER_OF_STANDARD_KEYS = 17;
+
+    private static final ConcurrentHashMap<String, Integer> indexes
+        = new ConcurrentHashMap<String, Integer>();
+    private static final ArrayList<String> keys = new ArrayList<String>();
+
+    static {
+        String [] standardKeys = {
+            GraphElement.ID, GraphElement.WEIGHT, GraphElement.LABEL,
+            GraphElement.COLOR, GraphElement.DELETED, GraphElement.HIGHLIGHTED,
+            GraphElement.HIDDEN, GraphElement.HIDDEN_LABEL,
+            GraphElement.HIDDEN_WEIGHT, "marked", "x", "y", "layer",
+            "positionInLayer", "source", "target", "message"
+        };
+        for ( String key : standardKeys ) intern(key);
+    }
+
+    private AttributeKeys() {}
+
+    /**
+     * @return the index of the key, adding it to the table if it is new
+     */
+    public static int intern(String key) {
+        Integer index = indexes.get(key);
+        if ( index != null ) return index;
+        synchronized ( keys ) {
+            index = indexes.get(key);
+            if ( index == null ) {
+                index = keys.size();
+                keys.add(key);
+                indexes.put(key, index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of the key or -1 if it has never been interned, in
+     * which case no attribute can have it
+     */
+    public static int find(String key) {
+        Integer index = indexes.get(key);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the (shared) key string with the given index
+     */
+    public static String getKey(int index) {
+        synchronized ( keys ) {
+            return keys.get(index);
+        }
+    }
+}
+
+//  [Last modified: 2026 10 18 at 14:40:27 GMT]
@@ -1,16 +1,36 @@
 package edu.ncsu.csc.Galant.graph.component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * An AttributeList plays the role of a Map. A list is used so that
  * attributes will appeare in the order they were added rather than
  * alphabetically by key.
+ *
+ * In addition to the list, attributes whose key index (see AttributeKeys)
+ * is less than SLOTS are kept in an array indexed by key index. These
+ * include all standard attributes and, in practice, all user-defined ones,
+ * so that a lookup takes constant time without any allocation. Attributes
+ * with larger key indexes are found by comparing key indexes along the
+ * list.
  */
 public class AttributeList {
 
+    /**
+     * Maximum number of slots; bounds the memory used by the slot array when
+     * an algorithm makes up many attribute names.
+     */
+    private static final int SLOTS = 64;
+
     protected ArrayList<Attribute> attributes;
 
+    /**
+     * slots[i] is the attribute whose key has index i, if i < slots.length;
+     * allocated lazily and grown as keys with larger indexes are added
+     */
+    private Attribute [] slots;
+
     public AttributeList() { attributes = new ArrayList<Attribute>(); }
 
     /**
@@ -21,97 +41,103 @@ public class AttributeList {
     public ArrayList<Attribute> getAttributes() { return attributes; }
 
     /**
-     * The getters traverse the list until they find a matching key or return
-     * null if they don't.
+     * @return the attribute whose key has the given index (see
+     * AttributeKeys), or null if there is none
+     */
+    public Attribute get(int keyIndex) {
+        if ( keyIndex < 0 ) return null;
+        if ( keyIndex < SLOTS ) {
+            return slots != null && keyIndex < slots.length
+                ? slots[keyIndex] : null;
+        }
+        int position = positionOf(keyIndex);
+        return position < 0 ? null : attributes.get(position);
+    }
+
+    /**
+     * @return the attribute with the given key, regardless of its type, or
+     * null if there is none
+     */
+    public Attribute get(String key) {
+        return get(AttributeKeys.find(key));
+    }
+
+    /**
+     * The getters return null if there is no attribute with the key.
      *
      * @todo if the key matches, should check that the attribute has the
      * right type and think about throwing an exception
      */
     public Integer getInteger(String key) {
-        for ( Attribute attribute : attributes ) {
-            if ( attribute.getKey().equals(key) ) {
-                return attribute.getIntegerValue();
-            }
-        }
-        return null;
+        Attribute attribute = get(key);
+        return attribute == null ? null : attribute.getIntegerValue();
     }
 
     public Double getDouble(String key) {
-        for ( Attribute attribute : attributes ) {
-            if ( attribute.getKey().equals(key) ) {
-                return attribute.getDoubleValue();
-            }
-        }
-        return null;
+        Attribute attribute = get(key);
+        return attribute == null ? null : attribute.getDoubleValue();
     }
 
     public Boolean getBoolean(String key) {
-        for ( Attribute attribute : attributes ) {
-            if ( attribute.getKey().equals(key) ) {
-                return attribute.getBooleanValue();
-            }
-        }
+        Attribute attribute = get(key);
         // if missing, return a default, safe value
-        return false;
+        return attribute == null ? Boolean.FALSE : attribute.getBooleanValue();
     }
 
     public String getString(String key) {
-        for ( Attribute attribute : attributes ) {
-            if ( attribute.getKey().equals(key) ) {
-                return attribute.getStringValue();
-            }
-        }
-        return null;
+        Attribute attribute = get(key);
+        return attribute == null ? null : attribute.getStringValue();
     }
 
     /**
      * The following setters replace an attribute in the list if one with the
      * same key already exists (regardless of the class) and add one if none
-     * exists.  They return true if and only if the attribute was in the list
-     * already.
+     * exists; a null value removes the attribute. They return true if and
+     * only if the attribute was in the list already.
      */
   public boolean set(String key, Integer value) {
-    for ( int i = 0; i < attributes.size(); i++ ) {
-      if ( attributes.get(i).getKey().equals(key) ) {
-        attributes.set(i, new IntegerAttribute(key, value));
-        return true;
-      }
-    }
-    attributes.add(new IntegerAttribute(key, value));
-    return false;
+    if ( value == null ) return remove(key);
+    return set(new IntegerAttribute(key, value));
   }
 
   public boolean set(String key, Double value) {
-    for ( int i = 0; i < attributes.size(); i++ ) {
-      if ( attributes.get(i).getKey().equals(key) ) {
-        attributes.set(i, new DoubleAttribute(key, value));
-        return true;
-      }
-    }
-    attributes.add(new DoubleAttribute(key, value));
-    return false;
+    if ( value == null ) return remove(key);
+    return set(new DoubleAttribute(key, value));
   }
 
   public boolean set(String key, Boolean value) {
-    for ( int i = 0; i < attributes.size(); i++ ) {
-      if ( attributes.get(i).getKey().equals(key) ) {
-        attributes.set(i, new BooleanAttribute(key, value));
-        return true;
-      }
-    }
-    attributes.add(new BooleanAttribute(key, value));
-    return false;
+    if ( value == null ) return remove(key);
+    return set(new BooleanAttribute(key, value));
   }
 
   public boolean set(String key, String value) {
-    for ( int i = 0; i < attributes.size(); i++ ) {
-      if ( attributes.get(i).getKey().equals(key) ) {
-        attributes.set(i, new StringAttribute(key, value));
-        return true;
+    if ( value == null ) return remove(key);
+    return set(new StringAttribute(key, value));
+  }
+
+  /**
+   * Replaces the attribute having the same key as the given one, or adds
+   * it if there is none; attributes are immutable, so the attribute itself
+   * can be shared.
+   * @return true if an attribute with the same key was in the list already
+   */
+  public boolean set(Attribute attribute) {
+    int keyIndex = attribute.getKeyIndex();
+    Attribute previous = get(keyIndex);
+    if ( keyIndex < SLOTS ) {
+      if ( slots == null || keyIndex >= slots.length ) {
+        int length = Math.max(AttributeKeys.NUMBER_OF_STANDARD_KEYS, keyIndex + 1);
+        slots = slots == null
+          ? new Attribute[length] : Arrays.copyOf(slots, length);
       }
+      slots[keyIndex] = attribute;
+    }
+    if ( previous == null ) {
+      attributes.add(attribute);
+      return false;
     }
-    attributes.add(new StringAttribute(key, value));
-    return false;
+    attributes.set(attributes.indexOf(previous), attribute);
+    return true;
   }
 
     /**
@@ -120,13 +146,23 @@ public class AttributeList {
      * @return true if the attribute was present
      */
     public boolean remove(String key) {
+        int keyIndex = AttributeKeys.find(key);
+        Attribute attribute = get(keyIndex);
+        if ( attribute == null ) return false;
+        if ( keyIndex < SLOTS ) slots[keyIndex] = null;
+        attributes.remove(attribute);
+        return true;
+    }
+
+    /**
+     * @return the position in the list of the attribute whose key has the
+     * given index or -1 if there is none
+     */
+    private int positionOf(int keyIndex) {
         for ( int i = 0; i < attributes.size(); i++ ) {
-            if ( attributes.get(i).getKey().equals(key) ) {
-                attributes.remove(i);
-                return true;
-            }
+            if ( attributes.get(i).getKeyIndex() == keyIndex ) return i;
         }
-        return false;
+        return -1;
     }
 
     /**
@@ -137,9 +173,8 @@ public class AttributeList {
      */
     public AttributeList duplicate() {
       AttributeList newList = new AttributeList();
-      for ( Attribute attribute : this.attributes ) {
-        newList.attributes.add(attribute);
-      }
+      newList.attributes.addAll(this.attributes);
+      if ( this.slots != null ) newList.slots = this.slots.clone();
       return newList;
     }
 
@@ -156,4 +191,4 @@ public class AttributeList {
 
 }
 
-//  [Last modified: 2018 08 27 at 20:44:20 GMT]
+//  [Last modified: 2026 10 18 at 14:43:52 GMT]
@@ -0,0 +1,287 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.util.Arrays;
+
+/**
+ * A quadtree over the positions of (a subset of) the nodes of a layout,
+ * used by GraphLayout to approximate the repulsive forces in the manner of
+ * Barnes and Hut: a cell that is far away relative to its size acts as a
+ * single node at its center of mass, with the number of nodes in it as its
+ * weight. Computing the repulsion on one node then takes about log n steps
+ * instead of n.
+ *
+ * The repulsion between nodes v and w is multiplied by the smaller of
+ * their degree factors (see GraphLayout.forceDirected()); for a cell the
+ * mean degree factor of its nodes takes the place of that of w. With the
+ * default degree boost all factors are 1 and this is exact.
+ *
+ * The tree is built top down by partitioning an array of node indexes, so
+ * a leaf is a contiguous range of that array; cells are kept in parallel
+ * arrays that are reused when the tree is rebuilt, once per component in
+ * every iteration of the layout.
+ */
+class BarnesHutTree {
+
+    /**
+     * a cell whose side is less than THETA times its distance to a node is
+     * treated as a single node
+     */
+    static final double THETA = 0.7;
+
+    /** a cell with at most this many nodes is not subdivided */
+    private static final int LEAF_CAPACITY = 8;
+
+    /** nor is one this deep, e.g., when many nodes share a position */
+    private static final int MAX_DEPTH = 24;
+
+    private static final int INITIAL_CELLS = 64;
+
+    /** scale of the repulsive force, which is strength / distance */
+    private final double strength;
+
+    /**
+     * body k of the tree is node order[k], at position (bodyX[k],
+     * bodyY[k]) with degree factor bodyFactor[k]
+     */
+    private int [] order = new int[0];
+    private double [] bodyX = new double[0];
+    private double [] bodyY = new double[0];
+    private double [] bodyFactor = new double[0];
+
+    /**
+     * For each cell: its lower left corner and side, the number of nodes
+     * in it (weight), their center of mass and mean degree factor, and
+     * either its (up to four) children or, for a leaf, the range
+     * [first, last) of its bodies. An internal cell has first == -1.
+     */
+    private double [] cellX;
+    private double [] cellY;
+    private double [] side;
+    private double [] weight;
+    private double [] centerX;
+    private double [] centerY;
+    private double [] factor;
+    private int [] children;
+    private int [] first;
+    private int [] last;
+    private int cells;
+
+    /** cells still to be visited when computing a force */
+    private int [] stack = new int[64];
+
+    /**
+     * @param strength the repulsive force between two nodes at distance d
+     * (and degree factors 1) is strength / d; a negative strength pushes
+     * them apart
+     */
+    BarnesHutTree(double strength) {
+        this.strength = strength;
+        allocateCells(INITIAL_CELLS);
+    }
+
+    /**
+     * Builds the tree over nodes members[from] through members[to - 1],
+     * whose coordinates are given by xs and ys and degree factors by
+     * factors, all indexed by node.
+     */
+    void build(double [] xs, double [] ys, double [] factors,
+               int [] members, int from, int to) {
+        int n = to - from;
+        if ( order.length < n ) {
+            order = new int[n];
+            bodyX = new double[n];
+            bodyY = new double[n];
+            bodyFactor = new double[n];
+        }
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for ( int k = 0; k < n; k++ ) {
+            int node = members[from + k];
+            order[k] = node;
+            bodyX[k] = xs[node];
+            bodyY[k] = ys[node];
+            bodyFactor[k] = factors[node];
+            minX = Math.min(minX, bodyX[k]);
+            minY = Math.min(minY, bodyY[k]);
+            maxX = Math.max(maxX, bodyX[k]);
+            maxY = Math.max(maxY, bodyY[k]);
+        }
+        cells = 0;
+        if ( n == 0 ) return;
+        double rootSide = Math.max(maxX - minX, maxY - minY);
+        if ( rootSide <= 0 ) rootSide = 1;
+        buildCell(0, n, minX, minY, rootSide, 0);
+    }
+
+    /**
+     * @return the index of a new cell for bodies [lo, hi), which lie in the
+     * square with lower left corner (x, y) and the given side
+     */
+    private int buildCell(int lo, int hi, double x, double y,
+                          double cellSide, int depth) {
+        int cell = newCell(x, y, cellSide);
+        if ( hi - lo <= LEAF_CAPACITY || depth >= MAX_DEPTH ) {
+            first[cell] = lo;
+            last[cell] = hi;
+            double sumX = 0, sumY = 0, sumFactor = 0;
+            for ( int k = lo; k < hi; k++ ) {
+                sumX += bodyX[k];
+                sumY += bodyY[k];
+                sumFactor += bodyFactor[k];
+            }
+            setAggregate(cell, hi - lo, sumX, sumY, sumFactor);
+            return cell;
+        }
+        double half = cellSide / 2;
+        double midX = x + half;
+        double midY = y + half;
+        int xSplit = partition(lo, hi, bodyX, midX);
+        int lowerSplit = partition(lo, xSplit, bodyY, midY);
+        int upperSplit = partition(xSplit, hi, bodyY, midY);
+        double sumX = 0, sumY = 0, sumFactor = 0;
+        for ( int quadrant = 0; quadrant < 4; quadrant++ ) {
+            // quadrants: lower left, upper left, lower right, upper right
+            int childLo = quadrant == 0 ? lo : quadrant == 1 ? lowerSplit
+                : quadrant == 2 ? xSplit : upperSplit;
+            int childHi = quadrant == 0 ? lowerSplit : quadrant == 1 ? xSplit
+                : quadrant == 2 ? upperSplit : hi;
+            int child = -1;
+            if ( childLo < childHi ) {
+                child = buildCell(childLo, childHi,
+                                  quadrant < 2 ? x : midX,
+                                  quadrant % 2 == 0 ? y : midY,
+                                  half, depth + 1);
+                sumX += weight[child] * centerX[child];
+                sumY += weight[child] * centerY[child];
+                sumFactor += weight[child] * factor[child];
+            }
+            children[4 * cell + quadrant] = child;
+        }
+        first[cell] = -1;
+        setAggregate(cell, hi - lo, sumX, sumY, sumFactor);
+        return cell;
+    }
+
+    private void setAggregate(int cell, int count,
+                              double sumX, double sumY, double sumFactor) {
+        weight[cell] = count;
+        centerX[cell] = sumX / count;
+        centerY[cell] = sumY / count;
+        factor[cell] = sumFactor / count;
+    }
+
+    /**
+     * Rearranges bodies [lo, hi) so that those whose coordinate is less
+     * than the split come first
+     * @return the index of the first of the others
+     */
+    private int partition(int lo, int hi, double [] coordinate, double split) {
+        int i = lo;
+        int j = hi - 1;
+        while ( i <= j ) {
+            if ( coordinate[i] < split ) i++;
+            else swap(i, j--);
+        }
+        return i;
+    }
+
+    private void swap(int i, int j) {
+        int node = order[i]; order[i] = order[j]; order[j] = node;
+        double t = bodyX[i]; bodyX[i] = bodyX[j]; bodyX[j] = t;
+        t = bodyY[i]; bodyY[i] = bodyY[j]; bodyY[j] = t;
+        t = bodyFactor[i]; bodyFactor[i] = bodyFactor[j]; bodyFactor[j] = t;
+    }
+
+    /**
+     * Adds the repulsive force on node i, which is at (x, y) and has the
+     * given degree factor, to force; nodes at the same position as i exert
+     * no force, since they give it no direction.
+     */
+    void addRepulsiveForce(int i, double x, double y, double nodeFactor,
+                           double [] force) {
+        if ( cells == 0 ) return;
+        int top = 0;
+        stack[top++] = 0;
+        while ( top > 0 ) {
+            int cell = stack[--top];
+            if ( first[cell] >= 0 ) {
+                for ( int k = first[cell]; k < last[cell]; k++ ) {
+                    if ( order[k] == i ) continue;
+                    addForce(bodyX[k] - x, bodyY[k] - y,
+                             Math.min(nodeFactor, bodyFactor[k]), force);
+                }
+                continue;
+            }
+            double dx = centerX[cell] - x;
+            double dy = centerY[cell] - y;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if ( side[cell] < THETA * distance && ! contains(cell, x, y) ) {
+                addForce(dx, dy,
+                         weight[cell] * Math.min(nodeFactor, factor[cell]),
+                         force);
+                continue;
+            }
+            if ( top + 4 > stack.length )
+                stack = Arrays.copyOf(stack, 2 * stack.length);
+            for ( int quadrant = 0; quadrant < 4; quadrant++ ) {
+                int child = children[4 * cell + quadrant];
+                if ( child >= 0 ) stack[top++] = child;
+            }
+        }
+    }
+
+    /**
+     * Adds the force exerted from offset (dx, dy) with the given weight
+     */
+    private void addForce(double dx, double dy, double scale, double [] force) {
+        double squaredDistance = dx * dx + dy * dy;
+        if ( squaredDistance == 0 ) return;
+        double magnitude = scale * strength / squaredDistance;
+        force[0] += dx * magnitude;
+        force[1] += dy * magnitude;
+    }
+
+    private boolean contains(int cell, double x, double y) {
+        return x >= cellX[cell] && x <= cellX[cell] + side[cell]
+            && y >= cellY[cell] && y <= cellY[cell] + side[cell];
+    }
+
+    private int newCell(double x, double y, double cellSide) {
+        if ( cells == side.length ) allocateCells(2 * cells);
+        int cell = cells++;
+        cellX[cell] = x;
+        cellY[cell] = y;
+        side[cell] = cellSide;
+        return cell;
+    }
+
+    private void allocateCells(int capacity) {
+        if ( cellX == null ) {
+            cellX = new double[capacity];
+            cellY = new double[capacity];
+            side = new double[capacity];
+            weight = new double[capacity];
+            centerX = new double[capacity];
+            centerY = new double[capacity];
+            factor = new double[capacity];
+            children = new int[4 * capacity];
+            first = new int[capacity];
+            last = new int[capacity];
+            return;
+        }
+        cellX = Arrays.copyOf(cellX, capacity);
+        cellY = Arrays.copyOf(cellY, capacity);
+        side = Arrays.copyOf(side, capacity);
+        weight = Arrays.copyOf(weight, capacity);
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        factor = Arrays.copyOf(factor, capacity);
+        children = Arrays.copyOf(children, 4 * capacity);
+        first = Arrays.copyOf(first, capacity);
+        last = Arrays.copyOf(last, capacity);
+    }
+}
+
+//  [Last modified: 2026 10 18 at 21:41:53 GMT]
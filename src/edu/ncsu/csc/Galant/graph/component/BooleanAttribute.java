@@ -1,17 +1,22 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
+
 public class BooleanAttribute extends Attribute implements Cloneable {
-    private Boolean value;
-    public BooleanAttribute(String key, Boolean value) {
+    private final boolean value;
+    public BooleanAttribute(String key, boolean value) {
         super(key);
         this.value = value;
     }
-    public Boolean getBooleanValue() { return value; }
-    public void set(Boolean value) { this.value = value; }
+    public boolean booleanValue() { return value; }
+    public Boolean getBooleanValue() { return Boolean.valueOf(value); }
     public Attribute clone() { return new BooleanAttribute(key, value); }
     public String toString() {
         return key + "=\"" + value + "\"";
     }
+    public void appendTo(Appendable out) throws IOException {
+        out.append(key).append("=\"").append(String.valueOf(value)).append('"');
+    }
 }
 
-//  [Last modified: 2015 12 05 at 18:07:28 GMT]
+//  [Last modified: 2026 10 18 at 15:37:30 GMT]
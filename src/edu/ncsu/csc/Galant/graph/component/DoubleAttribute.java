@@ -1,17 +1,32 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
+
 public class DoubleAttribute extends Attribute implements Cloneable {
-    private Double value;
+    private final double value;
+    /** boxed value, created at most once, when first asked for */
+    private Double boxedValue;
+    public DoubleAttribute(String key, double value) {
+        super(key);
+        this.value = value;
+    }
     public DoubleAttribute(String key, Double value) {
         super(key);
         this.value = value;
+        this.boxedValue = value;
+    }
+    public double doubleValue() { return value; }
+    public Double getDoubleValue() {
+        if ( boxedValue == null ) boxedValue = value;
+        return boxedValue;
     }
-    public Double getDoubleValue() { return value; }
-    public void set(Double value) { this.value = value; }
     public Attribute clone() { return new DoubleAttribute(key, value); }
     public String toString() {
         return key + "=\"" + value + "\"";
     }
+    public void appendTo(Appendable out) throws IOException {
+        out.append(key).append("=\"").append(Double.toString(value)).append('"');
+    }
 }
 
-//  [Last modified: 2015 07 27 at 15:55:50 GMT]
+//  [Last modified: 2026 10 18 at 15:37:30 GMT]
@@ -1,5 +1,6 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -82,7 +83,10 @@ public class Edge extends GraphElement {
     public void initializeAfterParsing()
         throws GalantException {
         LogHelper.disable();
-        LogHelper.logDebug("-> initializeAfterParsing " + this);
+        // toString() is costly, so the messages are built only when they
+        // are printed
+        if ( LogHelper.isEnabled() )
+            LogHelper.logDebug("-> initializeAfterParsing " + this);
         super.initializeAfterParsing();
         // id has already been parsed by GraphElement.initializeAfterParsing()
         Integer graphElementId = getInteger(super.ID);
@@ -128,51 +132,87 @@ public class Edge extends GraphElement {
         catch ( Terminate t ) { // should not happen
             t.printStackTrace();
         }
-        LogHelper.logDebug(" id = " + id + " explicit = " + hasExplicitId);
-        LogHelper.logDebug("<- initializeAfterParsing, edge = "
+        if ( LogHelper.isEnabled() ) {
+            LogHelper.logDebug(" id = " + id + " explicit = " + hasExplicitId);
+            LogHelper.logDebug("<- initializeAfterParsing, edge = "
                                + this);
+        }
         LogHelper.restoreState();
     }
 
 	public String xmlString() {
+        StringBuilder s = new StringBuilder();
+        try {
+            writeXml(s);
+        }
+        catch ( IOException e ) { // a StringBuilder does not throw these
+            throw new IllegalStateException(e);
+        }
+		return s.toString();
+	}
+
+    /**
+     * Writes the GraphML element for this edge, same as xmlString(), to
+     * out
+     */
+    public void writeXml(Appendable out) throws IOException {
+        out.append("<edge ");
         // id may not exist for an edge; not really essential;
         // inputHasEdgeIds() returns true if they appeared in the input, in
         // which case they should be rendered in the output as the first
         // attribute; edges with non-existent id's need to be given ones
-        String idComponent = "";
         if ( super.graph.hasExplicitEdgeIds() ) {
           Integer edgeId = this.id;
           if ( edgeId == null ) edgeId = super.graph.nextEdgeId();
-          idComponent = "id=\"" + edgeId + "\"";
+          out.append("id=\"").append(String.valueOf(edgeId)).append('"');
         }
- 		String s = "<edge " + idComponent;
         // need this to get past here when the edge is first created and this
         // function is used for debugging.
         if ( this.source != null && this.target != null ) {
-            s += " source=\"" + this.source.getId() + "\"";
-            s += " target=\"" + this.target.getId() + "\"";
+            out.append(" source=\"").append(String.valueOf(this.source.getId()));
+            out.append("\" target=\"").append(String.valueOf(this.target.getId()));
+            out.append('"');
         }
-        s += super.attributesWithoutId();
-        s += " />";
-		return s;
-	}
+        latestState().writeAttributes(out, AttributeKeys.ID,
+                                      GraphElementState.NO_KEY);
+        out.append(" />");
+    }
 
     /**
      * This version is called when the current state of the animation is
      * exported.
      */
 	public String xmlString(int state) {
-        if ( ! inScope(state) ) {
-            return "";
+        StringBuilder s = new StringBuilder();
+        try {
+            writeXml(s, state);
         }
-		String s = "<edge "
-            + " source=\"" + this.source.getId() + "\""
-            + " target=\"" + this.target.getId() + "\"";
-        s += super.xmlString(state);
-        s += " />";
-		return s;
+        catch ( IOException e ) { // a StringBuilder does not throw these
+            throw new IllegalStateException(e);
+        }
+		return s.toString();
 	}
 
+    /**
+     * Writes the GraphML element for this edge as of the given state, same
+     * as xmlString(state), to out; writes nothing if the edge is not in
+     * scope at that state
+     */
+    public void writeXml(Appendable out, int state) throws IOException {
+        if ( ! inScope(state) ) {
+            return;
+        }
+        out.append("<edge  source=\"").append(String.valueOf(this.source.getId()));
+        out.append("\" target=\"").append(String.valueOf(this.target.getId()));
+        out.append('"');
+        GraphElementState elementState = getLatestValidState(state);
+        if ( elementState != null ) {
+            elementState.writeAttributes(out, GraphElementState.NO_KEY,
+                                         GraphElementState.NO_KEY);
+        }
+        out.append(" />");
+    }
+
     /**
      * For debugging only
      */
@@ -189,4 +229,4 @@ public class Edge extends GraphElement {
 	}
 }
 
-//  [Last modified: 2017 01 21 at 21:25:22 GMT]
+//  [Last modified: 2026 10 18 at 19:40:12 GMT]
@@ -0,0 +1,138 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.util.ArrayList;
+
+/**
+ * Maps pairs of nodes to the edges between them, so that Graph can answer
+ * getEdge() and isEdge() queries in constant time instead of scanning an
+ * incidence list. The key of a pair is the two node id's packed into a
+ * long, smaller id first, so that an edge can be found from either end
+ * and the index does not depend on whether the graph is directed; the
+ * caller checks direction and scope. The table uses open addressing with
+ * linear probing, so that a lookup does not allocate.
+ *
+ * The edges between a pair of nodes are kept in the order in which they
+ * were added, i.e., in the order of the incidence lists. Keys are never
+ * removed, only the edges; a pair whose edges have all been removed simply
+ * has none.
+ */
+class EdgeIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** keys of the occupied slots */
+    private long [] keys;
+    /**
+     * for each occupied slot, a single Edge or an ArrayList of Edges; null
+     * for an empty slot
+     */
+    private Object [] values;
+    /** number of occupied slots */
+    private int size;
+
+    EdgeIndex(int expectedEdges) {
+        int capacity = INITIAL_CAPACITY;
+        while ( capacity < 2 * expectedEdges ) capacity *= 2;
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    private static long key(int one, int other) {
+        int low = Math.min(one, other);
+        int high = Math.max(one, other);
+        return ((long) low << 32) | (high & 0xffffffffL);
+    }
+
+    /**
+     * @return the position of the slot for the key, which is either the
+     * one holding it or the empty one where it belongs
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int position = (int) (hash >>> 32) & mask;
+        while ( values[position] != null && keys[position] != key ) {
+            position = (position + 1) & mask;
+        }
+        return position;
+    }
+
+    @SuppressWarnings("unchecked")
+    void add(Edge edge) {
+        long key = key(edge.getSourceNode().getId(),
+                       edge.getTargetNode().getId());
+        int position = slot(key);
+        Object current = values[position];
+        if ( current == null ) {
+            keys[position] = key;
+            values[position] = edge;
+            if ( ++size * 2 > keys.length ) grow();
+        }
+        else if ( current instanceof Edge ) {
+            ArrayList<Edge> edges = new ArrayList<Edge>(2);
+            edges.add((Edge) current);
+            edges.add(edge);
+            values[position] = edges;
+        }
+        else {
+            ((ArrayList<Edge>) current).add(edge);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void remove(Edge edge) {
+        long key = key(edge.getSourceNode().getId(),
+                       edge.getTargetNode().getId());
+        int position = slot(key);
+        Object current = values[position];
+        if ( current == edge ) {
+            values[position] = new ArrayList<Edge>(1);
+        }
+        else if ( current instanceof ArrayList ) {
+            ((ArrayList<Edge>) current).remove(edge);
+        }
+    }
+
+    /**
+     * @return the first edge from source to target that is in scope; if
+     * directed is false, an edge from target to source also qualifies;
+     * null if there is no such edge
+     */
+    @SuppressWarnings("unchecked")
+    Edge find(Node source, Node target, boolean directed) {
+        Object current = values[slot(key(source.getId(), target.getId()))];
+        if ( current instanceof Edge ) {
+            Edge edge = (Edge) current;
+            return matches(edge, source, directed) ? edge : null;
+        }
+        if ( current != null ) {
+            ArrayList<Edge> edges = (ArrayList<Edge>) current;
+            for ( int i = 0; i < edges.size(); i++ ) {
+                Edge edge = edges.get(i);
+                if ( matches(edge, source, directed) ) return edge;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(Edge edge, Node source, boolean directed) {
+        if ( ! edge.inScope() ) return false;
+        return ! directed || edge.getSourceNode() == source;
+    }
+
+    private void grow() {
+        long [] oldKeys = keys;
+        Object [] oldValues = values;
+        keys = new long[2 * oldKeys.length];
+        values = new Object[2 * oldValues.length];
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldValues[i] != null ) {
+                int position = slot(oldKeys[i]);
+                keys[position] = oldKeys[i];
+                values[position] = oldValues[i];
+            }
+        }
+    }
+}
+
+//  [Last modified: 2026 10 18 at 17:44:18 GMT]
@@ -6,17 +6,23 @@ package edu.ncsu.csc.Galant.graph.component;
 
 import java.awt.Point;
 import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.Collection;
 
 import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.GalantPreferences;
 import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.gui.window.GraphWindow;
 import edu.ncsu.csc.Galant.gui.util.EdgeSelectionDialog;
 import edu.ncsu.csc.Galant.gui.util.NodeSelectionDialog;
+import edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor;
 import edu.ncsu.csc.Galant.algorithm.Terminate;
 import edu.ncsu.csc.Galant.graph.datastructure.NodeList;
 import edu.ncsu.csc.Galant.graph.datastructure.EdgeList;
@@ -40,6 +46,12 @@ public class Graph {
   private boolean layered = false;
   private LayerInformation layerInformation;
 
+  /**
+   * All nodes and edges, including deleted ones. The display reads these,
+   * via nodeArray() and edgeArray(), while an algorithm that is running
+   * ahead may be adding to them in its own thread, so every change to the
+   * lists, or replacement of them, holds elementLock.
+   */
   private NodeList nodes;
 
   private TreeMap<Integer, Node> nodeById = new TreeMap<Integer, Node>();
@@ -48,6 +60,44 @@ public class Graph {
 
   private EdgeList edges;
 
+  private final Object elementLock = new Object();
+
+  /**
+   * The nodes and edges that are in scope in the latest state, i.e., not
+   * deleted, and one more than the largest id among them; null if they
+   * need to be recomputed. These are invalidated whenever a node or edge
+   * is added, removed, deleted or undeleted and when the graph is reset,
+   * so that the counts and lists algorithms ask for over and over again do
+   * not require a scan. A list is never modified, only replaced, so that
+   * a loop over it is not disturbed if the algorithm adds or deletes
+   * elements inside the loop.
+   */
+  private volatile List<Node> liveNodes;
+  private volatile List<Edge> liveEdges;
+  private int nodeIdBound;
+  private int edgeIdBound;
+
+  /**
+   * The edges indexed by their end points, for getEdge() and isEdge(); built
+   * by the first query and then kept up to date as edges are added and
+   * removed. A deleted edge stays in the index and is skipped by the query,
+   * so that deleting or undeleting an edge costs nothing here.
+   */
+  private EdgeIndex edgeIndex;
+
+  /**
+   * where the states of nodes and edges are recorded during an animation,
+   * if not on the heap; null otherwise
+   */
+  private HistoryLog historyLog;
+
+  /**
+   * incremented whenever a node gets a new fixed position, e.g., when it is
+   * dragged or the graph is repositioned; tells the display that positions
+   * it has computed before are out of date
+   */
+  private volatile int positionVersion = 0;
+
   private MessageBanner banner;
 
   /**
@@ -65,7 +115,7 @@ public class Graph {
    * handled; perhaps a graph can be another GraphElement with attributes
    * such as a list of nodes, etc.
    */
-  protected List<GraphState> states;
+  protected StateHistory<GraphState> states;
 
   /**
    * @todo Never clear what this meant. A better name might be startNode,
@@ -87,20 +137,28 @@ public class Graph {
   private boolean hasExplicitEdgeIds = false;
 
   /**
-   * Default constructor.
+   * Default constructor; the graph belongs to the current dispatch.
+   */
+  public Graph() {
+    this(GraphDispatch.getInstance());
+  }
+
+  /**
+   * Creates a graph that belongs to the given dispatch, i.e., execution
+   * context; its nodes and edges inherit the dispatch.
    *
    * @todo let the Terminate exception propagate all the way to the top,
    * where it can be caught based on whether or not you're running an
    * algorithm
    */
-  public Graph() {
-    dispatch = GraphDispatch.getInstance();
+  public Graph(GraphDispatch dispatch) {
+    this.dispatch = dispatch;
     graphWindow = dispatch.getGraphWindow();
     nodes = new NodeList();
     edges = new EdgeList();
-    states = new ArrayList<GraphState>();
+    states = new StateHistory<GraphState>();
     try {
-      this.addState( new GraphState() );
+      this.addState( new GraphState(dispatch) );
     }
     catch ( Terminate t ) {     // should not happen
       t.printStackTrace();
@@ -108,22 +166,25 @@ public class Graph {
     banner = new MessageBanner(this);
   }
 
+  /**
+   * @return the dispatch, i.e., execution context, this graph belongs to
+   */
+  public GraphDispatch getDispatch() {
+    return dispatch;
+  }
+
   /**
    * Resets the graph to its original state at the end of an
    * animation.
    */
   public void reset() {
-    int initialStateNumber = GraphDispatch.getInstance().getAlgorithmState();
+    // a kept history log needs all the states and all the nodes and edges
+    finishHistoryLog();
+    int initialStateNumber = dispatch.getAlgorithmState();
 
     // first, reset any graph visibility attributes
     // not currently used
-    ArrayList<GraphState> initialStates
-      = new ArrayList<GraphState>();
-    for ( GraphState state : this.states ) {
-      if ( state.getState() > 0 ) break;
-      initialStates.add(state);
-    }
-    this.states = initialStates;
+    this.states.truncateAfter(0);
 
     // get rid of any nodes and edges created by the algorithm; better to
     // do this by gathering the ones that should not be removed and then
@@ -134,10 +195,22 @@ public class Graph {
     }
     EdgeList validEdges = new EdgeList();
     for ( Edge edge : this.edges ) {
-      if ( edge.inScope(initialStateNumber) ) validEdges.add(edge);
+      if ( edge.inScope(initialStateNumber) ) {
+        validEdges.add(edge);
+      }
+      else {
+        // also take it out of the incidence lists of its nodes
+        edge.getSourceNode().removeEdge(edge);
+        edge.getTargetNode().removeEdge(edge);
+      }
+    }
+    synchronized ( elementLock ) {
+      this.nodes = validNodes;
+      this.edges = validEdges;
     }
-    this.nodes = validNodes;
-    this.edges = validEdges;
+    invalidateNodes();
+    invalidateEdges();
+    edgeIndex = null;
 
     // then reset the attributes of all nodes and edges
     for ( Node node : this.nodes ) {
@@ -146,10 +219,136 @@ public class Graph {
     for ( Edge edge : this.edges ) {
       edge.reset();
     }
+    stopHistoryLog();
     // then reinitialize the message banner
     banner = new MessageBanner(this);
   }
 
+  /**
+   * From now on, until the graph is reset at the end of the animation,
+   * record the states of the nodes and edges in a HistoryLog, a temporary
+   * file, rather than on the heap. Meant for long animations of large
+   * graphs, where the histories would otherwise exhaust the memory.
+   */
+  public void startHistoryLog() throws IOException {
+    startHistoryLog(null);
+  }
+
+  /**
+   * Same as startHistoryLog(), except that, unless file is null, the log
+   * goes to the given file and is kept: at the end of the animation it is
+   * completed, so that openHistoryLog() can replay the animation later.
+   */
+  public void startHistoryLog(File file) throws IOException {
+    if ( historyLog != null ) return;
+    historyLog = file == null
+      ? HistoryLog.createTemporary(dispatch)
+      : new HistoryLog(file, false, dispatch);
+    for ( Node node : this.nodes ) {
+      node.startHistoryLog(historyLog);
+    }
+    for ( Edge edge : this.edges ) {
+      edge.startHistoryLog(historyLog);
+    }
+  }
+
+  /** the extension of files that hold recorded animations */
+  public static final String HISTORY_LOG_EXTENSION = "ghist";
+
+  public static boolean isHistoryLogFile(String fileName) {
+    return fileName.endsWith("." + HISTORY_LOG_EXTENSION);
+  }
+
+  /**
+   * @return a graph with the nodes and edges of an animation recorded in a
+   * kept HistoryLog, see startHistoryLog(File), including those added by
+   * the algorithm; they read their states from the log. An
+   * AlgorithmExecutor for getRecordedState() replays the animation; at the
+   * end the graph is reset, as usual, and the log closed.
+   */
+  public static Graph openHistoryLog(File file)
+    throws IOException, GalantException {
+    Graph graph = new Graph();
+    graph.historyLog = HistoryLog.open(file, graph);
+    try {
+      graph.initializeAfterParsing();
+    }
+    catch ( GalantException e ) {
+      graph.stopHistoryLog();
+      throw e;
+    }
+    return graph;
+  }
+
+  /**
+   * @return the last state of the animation recorded in the HistoryLog
+   * this graph was opened from, see openHistoryLog()
+   */
+  public int getRecordedState() {
+    return historyLog == null ? 0 : historyLog.getLastState();
+  }
+
+  /**
+   * Completes the HistoryLog, if it is kept; a failure is reported but
+   * does not affect the animation itself
+   */
+  private void finishHistoryLog() {
+    if ( historyLog == null ) return;
+    AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
+    try {
+      historyLog.finish(this, nodeArray(), edgeArray(), banner, states,
+                        executor == null ? 0 : executor.getAlgorithmState());
+    }
+    catch ( IOException | UncheckedIOException e ) {
+      GalantException exception
+        = new GalantException("Unable to keep the recorded animation in "
+                              + historyLog.getFile() + ": " + e.getMessage()
+                              + "\n - in finishHistoryLog");
+      exception.report();
+      if ( graphWindow != null ) exception.displayStatic();
+    }
+  }
+
+  /**
+   * Moves the states of the nodes and edges back to the heap and deletes
+   * the HistoryLog, if there is one
+   */
+  private void stopHistoryLog() {
+    if ( historyLog == null ) return;
+    for ( Node node : this.nodes ) {
+      node.stopHistoryLog();
+    }
+    for ( Edge edge : this.edges ) {
+      edge.stopHistoryLog();
+    }
+    historyLog.close();
+    historyLog = null;
+  }
+
+  /**
+   * @return the log in which states of nodes and edges are recorded, or
+   * null if they are kept on the heap
+   */
+  HistoryLog getHistoryLog() {
+    return historyLog;
+  }
+
+  MessageBanner getBanner() {
+    return banner;
+  }
+
+  /**
+   * @return a number that changes whenever the fixed position of a node
+   * changes
+   */
+  public int getPositionVersion() {
+    return positionVersion;
+  }
+
+  void fixedPositionChanged() {
+    positionVersion++;
+  }
+
   /**
    * @return a new state for this graph; the new state will be identical
    * to the current (latest one) except that it will be tagged with the
@@ -172,11 +371,7 @@ public class Graph {
    * retrieving information about any attribute.
    */
   public GraphState latestState() {
-    GraphState state = null;
-    if ( states.size() != 0 ) {
-      state = states.get(states.size() - 1);
-    }
-    return state;
+    return states.latest();
   }
 
   /**
@@ -191,17 +386,7 @@ public class Graph {
    * before the time stamp.
    */
   public GraphState getLatestValidState(int stateNumber) {
-    GraphState toReturn = null;
-    int stateIndex = states.size() - 1;
-    while ( stateIndex >= 0 ) {
-      GraphState state = states.get(stateIndex);
-      if ( state.getState() <= stateNumber ) {
-        toReturn = state;
-        break;
-      }
-      stateIndex--;
-    }
-    return toReturn;
+    return states.getLatestValid(stateNumber);
   }
 
   /**
@@ -216,18 +401,8 @@ public class Graph {
    * @invariant states are always sorted by state number.
    */
   private void addState(GraphState stateToAdd) throws Terminate {
-    int stateNumber = stateToAdd.getState();
-    boolean found = false;
-    for ( int i = states.size() - 1; i >= stateNumber; i-- ) {
-      GraphState state = states.get(i);
-      if ( state.getState() == stateNumber ) {
-        states.set(i, stateToAdd);
-        found = true;
-        break;
-      }
-    }
-    if ( ! found ) {
-      states.add(stateToAdd);
+    boolean added = states.add(stateToAdd.getState(), stateToAdd);
+    if ( added ) {
       dispatch.pauseExecutionIfRunning();
     }
   }
@@ -393,31 +568,32 @@ public class Graph {
 
   /**
    * displays node labels if show is true, hides them if show is false
-   * also toggles the button in the graph window if appropriate
+   * also toggles the button in the graph window if appropriate; these
+   * have no effect if there is no window, e.g., in a batch run
    */
   public void showNodeLabels(boolean show) {
-    graphWindow.showNodeLabels(show);
+    if ( graphWindow != null ) graphWindow.showNodeLabels(show);
   }
   /**
    * displays node weights if show is true, hides them if show is false
    * also toggles the button in the graph window if appropriate
    */
   public void showNodeWeights(Boolean show) {
-    graphWindow.showNodeWeights(show);
+    if ( graphWindow != null ) graphWindow.showNodeWeights(show);
   }
   /**
    * displays edge labels if show is true, hides them if show is false
    * also toggles the button in the graph window if appropriate
    */
   public void showEdgeLabels(boolean show) {
-    graphWindow.showEdgeLabels(show);
+    if ( graphWindow != null ) graphWindow.showEdgeLabels(show);
   }
   /**
    * displays edge weights if show is true, hides them if show is false
    * also toggles the button in the graph window if appropriate
    */
   public void showEdgeWeights(Boolean show) {
-    graphWindow.showEdgeWeights(show);
+    if ( graphWindow != null ) graphWindow.showEdgeWeights(show);
   }
 
   /**
@@ -596,16 +772,108 @@ public class Graph {
     return banner.get(state);
   }
 
+  /**
+   * Called when the set of nodes in scope may have changed
+   */
+  private void invalidateNodes() {
+    liveNodes = null;
+  }
+
+  /**
+   * Called when the set of edges in scope may have changed
+   */
+  private void invalidateEdges() {
+    liveEdges = null;
+  }
+
+  /**
+   * Called by an element whose deleted attribute has changed
+   */
+  void scopeChanged(GraphElement element) {
+    if ( element instanceof Node ) {
+      invalidateNodes();
+    }
+    else {
+      invalidateEdges();
+      Edge edge = (Edge) element;
+      if ( edge.getSourceNode() != null )
+        edge.getSourceNode().adjacencyChanged();
+      if ( edge.getTargetNode() != null )
+        edge.getTargetNode().adjacencyChanged();
+    }
+  }
+
+  /**
+   * @return all nodes, including deleted ones, as an array that the caller
+   * can traverse while nodes are being added in another thread
+   */
+  private Node [] nodeArray() {
+    synchronized ( elementLock ) {
+      return nodes.toArray(new Node[nodes.size()]);
+    }
+  }
+
+  /**
+   * @return all edges, including deleted ones; see nodeArray()
+   */
+  private Edge [] edgeArray() {
+    synchronized ( elementLock ) {
+      return edges.toArray(new Edge[edges.size()]);
+    }
+  }
+
+  /**
+   * @return a read-only list of the nodes that are in scope in the latest
+   * state; unlike getNodes(), which returns a copy that the caller may
+   * modify, this does not scan or allocate unless the nodes have changed.
+   */
+  public List<Node> nodeView() {
+    List<Node> live = liveNodes;
+    if ( live == null ) {
+      NodeList inScope = new NodeList();
+      int maxId = 0;
+      for ( Node v : nodeArray() ) {
+        if ( v.inScope() ) {
+          inScope.add(v);
+          if ( v.getId() > maxId ) maxId = v.getId();
+        }
+      }
+      nodeIdBound = maxId + 1;
+      live = Collections.unmodifiableList(inScope);
+      liveNodes = live;
+    }
+    return live;
+  }
+
+  /**
+   * @return a read-only list of the edges that are in scope in the latest
+   * state; see nodeView()
+   */
+  public List<Edge> edgeView() {
+    List<Edge> live = liveEdges;
+    if ( live == null ) {
+      EdgeList inScope = new EdgeList();
+      int maxId = 0;
+      for ( Edge e : edgeArray() ) {
+        if ( e.inScope() ) {
+          inScope.add(e);
+          // edges added while editing or by an algorithm have no id
+          Integer id = e.getId();
+          if ( id != null && id > maxId ) maxId = id;
+        }
+      }
+      edgeIdBound = maxId + 1;
+      live = Collections.unmodifiableList(inScope);
+      liveEdges = live;
+    }
+    return live;
+  }
+
   /**
    * @return the number of <code>Node</code>s in the current <code>Graph</code>
    */
   public int numberOfNodes() {
-    int count = 0;
-    for ( Node n : nodes ) {
-      if ( n.inScope() )
-        count++;
-    }
-    return count;
+    return nodeView().size();
   }
 
   /**
@@ -614,24 +882,15 @@ public class Graph {
    * id's start at 0 and are contiguous.
    */
   public int nodeIds() {
-    int maxId = 0;
-    for ( Node currentNode : nodes ) {
-      if ( currentNode.inScope() && currentNode.getId() > maxId )
-        maxId = currentNode.getId();
-    }
-    return maxId + 1;
+    nodeView();
+    return nodeIdBound;
   }
 
   /**
    * @return the number of <code>Edge</code>s in the current <code>Graph</code>
    */
   public int numberOfEdges() {
-    int count = 0;
-    for ( Edge n : edges ) {
-      if ( n.inScope() )
-        count++;
-    }
-    return count;
+    return edgeView().size();
   }
 
   /**
@@ -641,12 +900,8 @@ public class Graph {
    * to avoid confusion.
    */
   public int edgeIds() {
-    int maxId = 0;
-    for ( Edge currentEdge : edges ) {
-      if ( currentEdge.inScope() && currentEdge.getId() > maxId )
-        maxId = currentEdge.getId();
-    }
-    return maxId + 1;
+    edgeView();
+    return edgeIdBound;
   }
 
   /**
@@ -673,22 +928,20 @@ public class Graph {
    * provide NodeList as a data structure to avoid the template.
    */
   public NodeList getNodes() {
-    NodeList retNodes = new NodeList();
-    for ( Node v : this.nodes ) {
-      if ( v.inScope() ) {
-        retNodes.add(v);
-      }
-    }
-    return retNodes;
+    return new NodeList(nodeView());
   }
 
   /**
    * @return all nodes in the graph that exist in the given state.
+   *
+   * The methods that take a state are used by the display, possibly while
+   * the algorithm is running ahead and adding nodes or edges, so they
+   * traverse a copy of the list taken with elementLock held.
    */
   public NodeList getNodes(int state)
   {
     NodeList retNodes = new NodeList();
-    for ( Node n : this.nodes ) {
+    for ( Node n : nodeArray() ) {
       if ( n.inScope(state) ) {
         retNodes.add(n);
       }
@@ -700,7 +953,11 @@ public class Graph {
    * @param nodes new set of nodes to be added to the graph
    */
   public void setNodes(Collection<Node> nodes) {
-    this.nodes = new NodeList(nodes);
+    NodeList newNodes = new NodeList(nodes);
+    synchronized ( elementLock ) {
+      this.nodes = newNodes;
+    }
+    invalidateNodes();
   }
 
   /**
@@ -709,39 +966,21 @@ public class Graph {
    */
   public EdgeList getEdges()
   {
-    EdgeList retEdges = new EdgeList();
-    for ( Edge e : this.edges ) {
-      if ( e.inScope() ) {
-        retEdges.add(e);
-      }
-    }
-    return retEdges;
+    return new EdgeList(edgeView());
   }
 
   /**
    * @return the edges as a set
    */
   public EdgeSet getEdgeSet() {
-    EdgeSet retEdges = new EdgeSet();
-    for ( Edge e : this.edges ) {
-      if ( e.inScope() ) {
-        retEdges.add(e);
-      }
-    }
-    return retEdges;
+    return new EdgeSet(edgeView());
   }
 
   /**
    * @return the nodes as a set
    */
   public NodeSet getNodeSet() {
-    NodeSet retNodes = new NodeSet();
-    for ( Node v : this.nodes ) {
-      if ( v.inScope() ) {
-        retNodes.add(v);
-      }
-    }
-    return retNodes;
+    return new NodeSet(nodeView());
   }
 
   /**
@@ -749,7 +988,7 @@ public class Graph {
    */
   public EdgeSet getEdgeSet(int state) {
     EdgeSet retEdges = new EdgeSet();
-    for ( Edge e : this.edges ) {
+    for ( Edge e : edgeArray() ) {
       if ( e.inScope(state) ) {
         retEdges.add(e);
       }
@@ -762,7 +1001,7 @@ public class Graph {
    */
   public NodeSet getNodeSet(int state) {
     NodeSet retNodes = new NodeSet();
-    for ( Node v : this.nodes ) {
+    for ( Node v : nodeArray() ) {
       if ( v.inScope(state) ) {
         retNodes.add(v);
       }
@@ -776,7 +1015,7 @@ public class Graph {
   public EdgeList getEdges(int state)
   {
     EdgeList retEdges = new EdgeList();
-    for ( Edge e : this.edges ) {
+    for ( Edge e : edgeArray() ) {
       if ( e.inScope(state) ) {
         retEdges.add(e);
       }
@@ -784,12 +1023,48 @@ public class Graph {
     return retEdges;
   }
 
+  /**
+   * @return the nodes that may look different in the two given states,
+   * based on the time stamps in their histories; the display uses these to
+   * redraw only what changed when it moves from one state to the other
+   */
+  public NodeList getNodesChangedBetween(int state, int otherState)
+  {
+    NodeList changed = new NodeList();
+    for ( Node n : nodeArray() ) {
+      if ( n.changedBetween(state, otherState) ) {
+        changed.add(n);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * @return the edges that may look different in the two given states
+   * @see #getNodesChangedBetween(int, int)
+   */
+  public EdgeList getEdgesChangedBetween(int state, int otherState)
+  {
+    EdgeList changed = new EdgeList();
+    for ( Edge e : edgeArray() ) {
+      if ( e.changedBetween(state, otherState) ) {
+        changed.add(e);
+      }
+    }
+    return changed;
+  }
+
   /**
    * Replaces the current <code>Edge</code>s.
    * @param edges new set of edges to be added to the graph
    */
   public void setEdges(Collection<Edge> edges) {
-    this.edges = new EdgeList(edges);
+    EdgeList newEdges = new EdgeList(edges);
+    synchronized ( elementLock ) {
+      this.edges = newEdges;
+    }
+    invalidateEdges();
+    edgeIndex = null;
   }
 
   /**
@@ -805,17 +1080,31 @@ public class Graph {
    * must match.
    */
   public Edge getEdge(Node source, Node target) throws GalantException {
-    List<Edge> incidenceList
-      = source.getOutgoingEdges();
-    for ( Edge e : incidenceList ) {
-      if ( source.travel(e) == target ) {
-        return e;
-      }
-    }
+    Edge edge = edgeIndex().find(source, target, directed);
+    if ( edge != null ) return edge;
     throw new GalantException("no edge with source " + source.getId()
                               + " and target " + target.getId() + " exists");
   }
 
+  /**
+   * @return true if there is an edge with the given source and target; if
+   * the graph is undirected, the edge may go either way
+   */
+  public boolean isEdge(Node source, Node target) {
+    return edgeIndex().find(source, target, directed) != null;
+  }
+
+  private EdgeIndex edgeIndex() {
+    if ( edgeIndex == null ) {
+      EdgeIndex index = new EdgeIndex(edges.size());
+      for ( Edge edge : edges ) {
+        index.add(edge);
+      }
+      edgeIndex = index;
+    }
+    return edgeIndex;
+  }
+
   /**
    * Deletes an edge with the given source and target if one exists; throws
    * an exception otherwise; if the graph is directed, source and target
@@ -883,15 +1172,14 @@ public class Graph {
                                 + "\n - in getNodeById");
     }
 
-    if ( ! nodeById.containsKey(id) ) {
+    Node n = nodeById.get(id);
+    if ( n == null ) {
       throw new GalantException("No node with id = "
                                 + id
                                 + " exists"
                                 + "\n - in getNodeById");
     }
 
-    Node n = nodeById.get(id);
-
     if ( n.isDeleted() ) {
       throw new GalantException("Node has been deleted, id = "
                                 + id
@@ -959,8 +1247,11 @@ public class Graph {
     LogHelper.enterMethod(getClass(), "addInitialNode(), x = " + x + ", y = " + y);
     Integer newId = nextNodeId();
     Node n = new Node(this, newId, x, y);
-    nodes.add(n);
+    synchronized ( elementLock ) {
+      nodes.add(n);
+    }
     nodeById.put(newId, n);
+    invalidateNodes();
 
     if ( this.rootNode == null ) {
       this.rootNode = n;
@@ -987,8 +1278,11 @@ public class Graph {
     dispatch.startStepIfRunning();
     Integer newId = nextNodeId();
     Node n = new Node(this, newId, x, y);
-    nodes.add(n);
+    synchronized ( elementLock ) {
+      nodes.add(n);
+    }
     nodeById.put(newId, n);
+    invalidateNodes();
 
     // probably not needed but couldn't hurt; maybe the algorithm
     // constructs a tree and then traverses it
@@ -1010,7 +1304,8 @@ public class Graph {
    * created.
    */
   public void addNode(Node n) {
-    LogHelper.enterMethod(getClass(), "addNode: node = " + n);
+    if ( LogHelper.isEnabled() )
+      LogHelper.enterMethod(getClass(), "addNode: node = " + n);
 
     /**
      * @todo subclass method for layered graphs
@@ -1019,8 +1314,11 @@ public class Graph {
       layerInformation.addNode(n);
     }
 
-    nodes.add(n);
+    synchronized ( elementLock ) {
+      nodes.add(n);
+    }
     nodeById.put(n.getId(), n);
+    invalidateNodes();
 
     if ( this.rootNode == null ) {
       this.rootNode = n;
@@ -1035,13 +1333,18 @@ public class Graph {
    */
   public void addEdge(Edge edge) {
     LogHelper.disable();
-    LogHelper.enterMethod(getClass(), "addEdge " + edge);
+    if ( LogHelper.isEnabled() )
+      LogHelper.enterMethod(getClass(), "addEdge " + edge);
     // during parsing we need to know if the edge had an explicit id in
     // its GraphML representation
     if ( edge.hasExplicitId() ) this.hasExplicitEdgeIds = true;
     edge.getSourceNode().addEdge(edge);
     edge.getTargetNode().addEdge(edge);
-    edges.add(edge);
+    synchronized ( elementLock ) {
+      edges.add(edge);
+    }
+    invalidateEdges();
+    if ( edgeIndex != null ) edgeIndex.add(edge);
     LogHelper.exitMethod(getClass(), "addEdge, hasExplicitEdgeIds = "
                          + hasExplicitEdgeIds);
     LogHelper.restoreState();
@@ -1101,12 +1404,16 @@ public class Graph {
    */
   public void removeEdge(Edge e) {
     LogHelper.enterMethod(getClass(), "removeEdge " + e);
-    edges.remove(e);
+    synchronized ( elementLock ) {
+      edges.remove(e);
+    }
+    invalidateEdges();
+    if ( edgeIndex != null ) edgeIndex.remove(e);
 
     Node source = e.getSourceNode();
-    source.getIncidentEdges().remove(e);
+    source.removeEdge(e);
     Node target = e.getTargetNode();
-    target.getIncidentEdges().remove(e);
+    target.removeEdge(e);
     LogHelper.exitMethod(getClass(), "removeEdge");
   }
 
@@ -1133,7 +1440,10 @@ public class Graph {
       removeEdge(e);
     }
 
-    nodes.remove(n);
+    synchronized ( elementLock ) {
+      nodes.remove(n);
+    }
+    invalidateNodes();
     LogHelper.exitMethod(getClass(), "removeNode");
   }
 
@@ -1198,14 +1508,16 @@ public class Graph {
    * Currently the only supported algorithm is Force directed repositioning
    * @param boost is the extent to which degree of a node will cause it to
    * repel other nodes - repulsive force is multiplied by degree raised to
-   * the boost power.
+   * the boost power. Whether repulsion depends on the number of hops
+   * between nodes instead is a preference.
    *
    * @see edu.ncsu.csc.Galant.graph.component.GraphLayout#forceDirected()
    */
   public void smartReposition(Double boost) {
     savedLayout = new GraphLayout(this);
     GraphLayout layoutToBeRepositioned = new GraphLayout(this);
-    layoutToBeRepositioned.forceDirected(boost);
+    layoutToBeRepositioned
+      .forceDirected(boost, GalantPreferences.LAYOUT_BY_HOPS.get());
     layoutToBeRepositioned.usePositions();
   }
 
@@ -1255,40 +1567,30 @@ public class Graph {
     if ( layered ) layerInformation.initializeAfterParsing();
   }
 
+  /**
+   * rough length of the GraphML element for a node or an edge, so that the
+   * buffer for a whole graph seldom needs to grow
+   */
+  private static final int XML_ELEMENT_LENGTH = 64;
+
+  private StringBuilder xmlBuffer() {
+    return new StringBuilder(512 + XML_ELEMENT_LENGTH
+                             * (this.nodes.size() + this.edges.size()));
+  }
+
   /**
    * Returns a valid graphml representation of the graph; for use when no
    * algorithm is running
    */
   public String xmlString() {
-    LogHelper.disable();
-    LogHelper.enterMethod(getClass(), "xmlString");
-    String s = "";
-    s += "<?xml version=\"1.0\" encoding=\"UTF-8\"?> \n";
-    s += "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\" \n";
-    s += "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" \n";
-    s += "xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns \n";
-    s += "http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n";
-    s += " <graph ";
-    if ( name != null )
-      s += " name=\"" + name + "\"";
-    if ( comment != null )
-      s += " comment=\"" + comment + "\"";
-    if ( this.isLayered() ) {
-      s += " type=\"layered\"";
-    }
-    s += " edgedefault=\"" + (this.isDirected() ? "directed" : "undirected") + "\"";
-    s += ">\n";
-    for ( Node n : this.nodes ) {
-      s += "  " + n.xmlString() + "\n";
+    StringBuilder s = xmlBuffer();
+    try {
+      writeXml(s);
     }
-    for ( Edge e : this.edges ) {
-      s += "  " + e.xmlString() + "\n";
+    catch ( IOException e ) { // a StringBuilder does not throw these
+      throw new IllegalStateException(e);
     }
-    s += " </graph>";
-    s += "</graphml>";
-    LogHelper.exitMethod(getClass(), "xmlString");
-    LogHelper.restoreState();
-    return s;
+    return s.toString();
   }
 
   /**
@@ -1296,44 +1598,94 @@ public class Graph {
    * want to export the current state of a running algorithm.
    */
   public String xmlString(int state) {
+    StringBuilder s = xmlBuffer();
+    try {
+      writeXml(s, state);
+    }
+    catch ( IOException e ) { // a StringBuilder does not throw these
+      throw new IllegalStateException(e);
+    }
+    return s.toString();
+  }
+
+  /**
+   * Writes the graphml representation of the graph, same as xmlString(),
+   * to out, element by element, so that a large graph can be saved without
+   * first building the whole document as a string; out should be buffered
+   * if it is a file
+   */
+  public void writeXml(Appendable out) throws IOException {
     LogHelper.disable();
-    LogHelper.enterMethod(getClass(), "xmlString(" + state + ")");
-    String s = "";
-    s += "<?xml version=\"1.0\" encoding=\"UTF-8\"?> \n";
-    s += "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\" \n";
-    s += "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" \n";
-    s += "xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns \n";
-    s += "http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n";
-    s += " <graph ";
-    if ( name != null )
-      s += " name=\"" + name + "\"";
-    if ( comment != null )
-      s += " comment=\"" + comment + "\"";
-    if ( this.isLayered() ) {
-      s += " type=\"layered\"";
+    LogHelper.enterMethod(getClass(), "writeXml");
+    writeXmlHeader(out);
+    for ( Node n : this.nodes ) {
+      out.append("  ");
+      n.writeXml(out);
+      out.append('\n');
     }
-    s += " edgedefault=\"" + (this.isDirected() ? "directed" : "undirected") + "\"";             //
-                                                                                                 // directed/undirected
-    s += ">\n";
+    for ( Edge e : this.edges ) {
+      out.append("  ");
+      e.writeXml(out);
+      out.append('\n');
+    }
+    out.append(" </graph>");
+    out.append("</graphml>");
+    LogHelper.exitMethod(getClass(), "writeXml");
+    LogHelper.restoreState();
+  }
+
+  /**
+   * Writes the graphml representation of the graph as of the given state,
+   * same as xmlString(state), to out; nodes and edges that are not in scope
+   * at that state are left out
+   */
+  public void writeXml(Appendable out, int state) throws IOException {
+    LogHelper.disable();
+    LogHelper.enterMethod(getClass(), "writeXml(" + state + ")");
+    writeXmlHeader(out);
     for ( Node n : this.nodes ) {
-      LogHelper.logDebug( "  writing xml string for node with id " + n.getId() );
-      LogHelper.logDebug( "  writing xml string for node " + n);
-      String sN = n.xmlString(state);
-      if ( ! sN.trim().isEmpty() )
-        s += "  " + sN + "\n";
+      if ( n.inScope(state) ) {
+        LogHelper.logDebug( "  writing xml string for node with id " + n.getId() );
+        out.append("  ");
+        n.writeXml(out, state);
+        out.append('\n');
+      }
     }
     for ( Edge e : this.edges ) {
-      LogHelper.logDebug("writing xml string for edge " + e);
-      String sE = e.xmlString(state);
-      if ( ! sE.trim().isEmpty() )
-        s += "  " + sE + "\n";
-    }
-    s += " </graph>";
-    s += "</graphml>";
-    LogHelper.exitMethod(getClass(), "xmlString(" + state + ")");
+      if ( e.inScope(state) ) {
+        out.append("  ");
+        e.writeXml(out, state);
+        out.append('\n');
+      }
+    }
+    out.append(" </graph>");
+    out.append("</graphml>");
+    LogHelper.exitMethod(getClass(), "writeXml(" + state + ")");
     LogHelper.restoreState();
-    return s;
+  }
+
+  /**
+   * Writes everything up to and including the start tag of the graph
+   * element
+   */
+  private void writeXmlHeader(Appendable out) throws IOException {
+    out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?> \n");
+    out.append("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\" \n");
+    out.append("xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" \n");
+    out.append("xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns \n");
+    out.append("http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n");
+    out.append(" <graph ");
+    if ( name != null )
+      out.append(" name=\"").append(name).append('"');
+    if ( comment != null )
+      out.append(" comment=\"").append(comment).append('"');
+    if ( this.isLayered() ) {
+      out.append(" type=\"layered\"");
+    }
+    out.append(" edgedefault=\"")
+      .append(this.isDirected() ? "directed" : "undirected").append('"');
+    out.append(">\n");
   }
 }
 
-// [Last modified: 2017 04 18 at 19:59:20 GMT]
+// [Last modified: 2026 10 19 at 13:12:40 GMT]
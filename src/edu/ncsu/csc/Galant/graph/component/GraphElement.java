@@ -1,7 +1,5 @@
 package edu.ncsu.csc.Galant.graph.component;
 
-import java.util.List;
-import java.util.ArrayList;
 import java.util.Comparator;
 
 import edu.ncsu.csc.Galant.GalantException;
@@ -47,9 +45,9 @@ public class GraphElement implements Comparable<GraphElement> {
 
     /**
      * The list of states that this element has been in up to this point --
-     * essentially the list of all changes.
+     * essentially the list of all changes, indexed by algorithm state.
      */
-	protected List<GraphElementState> states;
+	protected StateHistory<GraphElementState> states;
 
     /**
      * Constructor to be used during parsing; all additional information is
@@ -61,36 +59,57 @@ public class GraphElement implements Comparable<GraphElement> {
      * algorithm
      */
     public GraphElement(Graph graph) {
-        this.dispatch = GraphDispatch.getInstance();
-        this.states = new ArrayList<GraphElementState>();
+        this.dispatch = graph != null
+            ? graph.getDispatch() : GraphDispatch.getInstance();
+        this.states = new StateHistory<GraphElementState>();
+        if ( graph != null && graph.getHistoryLog() != null )
+            this.states = new LoggedStateHistory(graph.getHistoryLog(), states);
         this.graph = graph;
         try {
-            this.addState(new GraphElementState());
+            this.addState(new GraphElementState(dispatch));
         }
         catch ( Terminate t ) { // should not happen
             t.printStackTrace();
         }
     }
 
+    /**
+     * @return the graph with which this element is associated
+     */
+    public Graph getGraph() { return graph; }
+
     /**
      * Resets this element to its original state at the end of an animation.
      * @param graphState the initial state of the graph containing this element
      */
     protected void reset() {
-        ArrayList<GraphElementState> initialStates
-            = new ArrayList<GraphElementState>();
-        for ( GraphElementState state : this.states ) {
-            if ( state.getState() > 0 ) break;
-            initialStates.add(state);
-        }
-        this.states = initialStates;
+        this.states.truncateAfter(0);
+    }
+
+    /**
+     * From now on, record the states of this element in the given log
+     * rather than on the heap; see Graph.startHistoryLog()
+     */
+    void startHistoryLog(HistoryLog log) {
+        this.states = new LoggedStateHistory(log, states);
+    }
+
+    /**
+     * Moves the states of this element back to the heap, so that the log
+     * can be closed
+     */
+    void stopHistoryLog() {
+        if ( states instanceof LoggedStateHistory )
+            this.states = ((LoggedStateHistory) states).toStateHistory();
     }
 
     /**
      * @return a new state for this element; the new state will be identical
      * to the current (latest one) except that it will be tagged with the
      * current algorithm state if the algorithm is running; subsequent
-     * changes to this GraphElement will take place in the new state.
+     * changes to this GraphElement will take place in the new state. The
+     * new state stores only those changes, not a copy of all attributes;
+     * @see GraphElementState#GraphElementState(GraphElementState)
      *
      * @todo there is no reason to create new states when parsing and the
      * only reason to do it when editing is for a possible "undo" mechanism,
@@ -110,12 +129,9 @@ public class GraphElement implements Comparable<GraphElement> {
      * a "blank" one with all attributes = null is returned.
      */
     public GraphElementState latestState() {
-        GraphElementState state = null;
-        if ( states.size() != 0 ) {
-            state = states.get(states.size() - 1);
-        }
-        else {
-            state = new GraphElementState();
+        GraphElementState state = states.latest();
+        if ( state == null ) {
+            state = new GraphElementState(dispatch);
         }
         return state;
     }
@@ -133,19 +149,56 @@ public class GraphElement implements Comparable<GraphElement> {
      * stamp.
      */
 	public GraphElementState getLatestValidState(int stateNumber) {
-        GraphElementState toReturn = null;
-        int stateIndex = states.size() - 1;
-		while ( stateIndex >= 0 ) {
-			GraphElementState state = states.get(stateIndex);
-			if ( state.getState() <= stateNumber ) {
-				toReturn = state;
-                break;
-			}
-            stateIndex--;
-		}
-        return toReturn;
+        return states.getLatestValid(stateNumber);
 	}
 
+    /**
+     * @return true if this element may look different in the two given
+     * states, i.e., it got a new state after the earlier of them and no
+     * later than the other; false means its state is the same in both
+     * (including not existing at all)
+     */
+    public boolean changedBetween(int state, int otherState) {
+        int earlier = Math.min(state, otherState);
+        int later = Math.max(state, otherState);
+        return states.getLatestValidStateNumber(later) > earlier;
+    }
+
+    /**
+     * Lookups of the standard attributes by key index (see AttributeKeys);
+     * unlike the getters taking a key string these do not have to find the
+     * index first, and they never allocate.
+     * @return the attribute in the latest state, or in the latest state
+     * valid at the given time stamp, or null if there is none; the first
+     * version is public so that comparators can resolve their key once
+     */
+    public Attribute getAttribute(int keyIndex) {
+        GraphElementState state = states.latest();
+        return state == null ? null : state.getAttribute(keyIndex);
+    }
+    protected Attribute getAttribute(int state, int keyIndex) {
+        GraphElementState validState = getLatestValidState(state);
+        return validState == null ? null : validState.getAttribute(keyIndex);
+    }
+
+    /**
+     * @return true if the attribute is a boolean one with value true; as
+     * elsewhere, a missing attribute is false
+     */
+    protected static boolean isTrue(Attribute attribute) {
+        return attribute instanceof BooleanAttribute
+            && ((BooleanAttribute) attribute).booleanValue();
+    }
+    protected static Double doubleValue(Attribute attribute) {
+        return attribute == null ? null : attribute.getDoubleValue();
+    }
+    protected static Integer integerValue(Attribute attribute) {
+        return attribute == null ? null : attribute.getIntegerValue();
+    }
+    protected static String stringValue(Attribute attribute) {
+        return attribute == null ? null : attribute.getStringValue();
+    }
+
 	/**
      * Adds the given state to the list of states for this element. If there
      * is already a state having the same algorithm state (time stamp), there
@@ -154,23 +207,19 @@ public class GraphElement implements Comparable<GraphElement> {
      * beginStep()/endStep() pair or if no algorithm is running.  If an
      * algorithm is running, this method initiates synchronization with the
      * master thread to indicate that the changes corresponding to the added
-     * state are completed
+     * state are completed. The element listeners of the dispatch, e.g., the
+     * display, are told that this element changed.
+     *
+     * In batch mode the algorithm state never advances, so the new state
+     * always replaces the latest one; the step still ends here (unless
+     * locked), so that it is counted as it would be with a display.
      *
      * @invariant states are always sorted by state number.
      */
 	private void addState(GraphElementState stateToAdd) throws Terminate {
-        int stateNumber = stateToAdd.getState();
-        boolean found = false;
-        for ( int i = states.size() - 1; i >= stateNumber; i-- ) {
-            GraphElementState state = states.get(i);
-            if ( state.getState() == stateNumber ) {
-                states.set(i, stateToAdd);
-                found = true;
-                break;
-            }
-        }
-        if ( ! found ) {
-            states.add(stateToAdd);
+        boolean added = states.add(stateToAdd.getState(), stateToAdd);
+        dispatch.elementChanged(GraphDispatch.ELEMENT_STATE, this);
+        if ( added || dispatch.isBatchRun() ) {
             dispatch.pauseExecutionIfRunning();
         }
 	}
@@ -189,11 +238,11 @@ public class GraphElement implements Comparable<GraphElement> {
 	}
 	public Integer getInteger(String key) {
         GraphElementState state = latestState();
-		return state.getAttributes().getInteger(key);
+		return state.getIntegerAttribute(key);
 	}
 	public Integer getInteger(int state, String key) {
         GraphElementState validState = getLatestValidState(state);
-		return validState == null ? null : validState.getAttributes().getInteger(key);
+		return validState == null ? null : validState.getIntegerAttribute(key);
 	}
 
     /************** Double attributes ***************/
@@ -205,17 +254,18 @@ public class GraphElement implements Comparable<GraphElement> {
 	}
 	public Double getDouble(String key) {
         GraphElementState state = latestState();
-		return state.getAttributes().getDouble(key);
+		return state.getDoubleAttribute(key);
 	}
 	public Double getDouble(int state, String key) {
         GraphElementState validState = getLatestValidState(state);
-		return validState == null ? null : validState.getAttributes().getDouble(key);
+		return validState == null ? null : validState.getDoubleAttribute(key);
 	}
 
     /************** Boolean attributes ***************/
 	public boolean set(String key, Boolean value) throws Terminate {
         GraphElementState newState = newState();
         boolean found = newState.set(key, value);
+        if ( key.equals(DELETED) ) scopeChanged();
         addState(newState);
         return found;
 	}
@@ -237,13 +287,12 @@ public class GraphElement implements Comparable<GraphElement> {
      */
 	public Boolean getBoolean(String key) {
         GraphElementState state = latestState();
-		return state.getAttributes().getBoolean(key);
+		return state.getBooleanAttribute(key);
 	}
 	public Boolean getBoolean(int state, String key) {
         GraphElementState validState = getLatestValidState(state);
         if ( validState == null ) return false;
-        if ( validState.getAttributes() == null ) return false;
-		return validState.getAttributes().getBoolean(key);
+		return validState.getBooleanAttribute(key);
 	}
 
     /**
@@ -265,11 +314,11 @@ public class GraphElement implements Comparable<GraphElement> {
 	}
 	public String getString(String key) {
         GraphElementState state = latestState();
-		return state.getAttributes().getString(key);
+		return state.getStringAttribute(key);
 	}
 	public String getString(int state, String key) {
         GraphElementState validState = getLatestValidState(state);
-		return validState == null ? null : validState.getAttributes().getString(key);
+		return validState == null ? null : validState.getStringAttribute(key);
 	}
 
     /**
@@ -279,14 +328,25 @@ public class GraphElement implements Comparable<GraphElement> {
     public void remove(String key) throws Terminate {
         GraphElementState newState = newState();
         newState.remove(key);
+        if ( key.equals(DELETED) ) scopeChanged();
         addState(newState);
     }
 
+    /**
+     * Lets the graph know that this element may have come into or gone out
+     * of scope, so that it recomputes its lists of nodes and edges; this
+     * happens before the new state is added, i.e., before the algorithm
+     * could pause.
+     */
+    private void scopeChanged() {
+        if ( graph != null ) graph.scopeChanged(this);
+    }
+
     public boolean isDeleted() {
-        return getBoolean(DELETED);
+        return isTrue(getAttribute(AttributeKeys.DELETED));
     }
     public boolean isDeleted(int state) {
-        return getBoolean(state, DELETED);
+        return isTrue(getAttribute(state, AttributeKeys.DELETED));
     }
     /**
      * @param true iff this element is to be deleted in the current state.
@@ -325,23 +385,25 @@ public class GraphElement implements Comparable<GraphElement> {
      * visible and which are not
      */
     public Boolean isHidden() {
-        return getBoolean(HIDDEN);
+        return isTrue(getAttribute(AttributeKeys.HIDDEN));
     }
     /**
      * @return true if this element is hidden, i.e., will not be drawn on the
      * graph panel.
      */
-    public Boolean isHidden(int state) { return getBoolean(state, HIDDEN); }
+    public Boolean isHidden(int state) {
+        return isTrue(getAttribute(state, AttributeKeys.HIDDEN));
+    }
     public void hide() throws Terminate { set(HIDDEN); }
     public void show() throws Terminate { clear(HIDDEN); }
 
 
     /**************************** weights **************************/
 	public Double getWeight() {
-        return getDouble(WEIGHT);
+        return doubleValue(getAttribute(AttributeKeys.WEIGHT));
     }
 	public Double getWeight(int state) {
-        return getDouble(state, WEIGHT);
+        return doubleValue(getAttribute(state, AttributeKeys.WEIGHT));
     }
 
     /**
@@ -370,7 +432,7 @@ public class GraphElement implements Comparable<GraphElement> {
      * drawn on the graph panel.
      */
     public Boolean weightIsHidden(int state) {
-        return getBoolean(state, HIDDEN_WEIGHT);
+        return isTrue(getAttribute(state, AttributeKeys.HIDDEN_WEIGHT));
     }
     public void hideWeight() throws Terminate { set(HIDDEN_WEIGHT); }
     public void showWeight() throws Terminate { clear(HIDDEN_WEIGHT); }
@@ -378,10 +440,10 @@ public class GraphElement implements Comparable<GraphElement> {
 
     /**************************** labels *************************/
 	public String getLabel() {
-        return getString(LABEL);
+        return stringValue(getAttribute(AttributeKeys.LABEL));
     }
 	public String getLabel(int state) {
-        return getString(state, LABEL);
+        return stringValue(getAttribute(state, AttributeKeys.LABEL));
     }
 
 	public void setLabel(String label) throws Terminate {
@@ -406,17 +468,17 @@ public class GraphElement implements Comparable<GraphElement> {
      * drawn on the graph panel.
      */
     public Boolean labelIsHidden(int state) {
-        return getBoolean(state, HIDDEN_LABEL);
+        return isTrue(getAttribute(state, AttributeKeys.HIDDEN_LABEL));
     }
     public void hideLabel() throws Terminate { set(HIDDEN_LABEL); }
     public void showLabel() throws Terminate { clear(HIDDEN_LABEL); }
 
     /**************************** colors *************************/
 	public String getColor() {
-        return getString(COLOR);
+        return stringValue(getAttribute(AttributeKeys.COLOR));
     }
 	public String getColor(int state) {
-        return getString(state, COLOR);
+        return stringValue(getAttribute(state, AttributeKeys.COLOR));
     }
 
 	public void setColor(String color) throws Terminate {
@@ -444,19 +506,19 @@ public class GraphElement implements Comparable<GraphElement> {
      * is the same, but the nature of the list traversal might not be.
      */
 	public boolean isSelected() {
-        return getBoolean(HIGHLIGHTED);
+        return isTrue(getAttribute(AttributeKeys.HIGHLIGHTED));
     }
 	public Boolean isSelected(int state) {
-        return getBoolean(state, HIGHLIGHTED);
+        return isTrue(getAttribute(state, AttributeKeys.HIGHLIGHTED));
     }
 	public void setSelected(Boolean highlighted) throws Terminate {
         set(HIGHLIGHTED, highlighted);
     }
 	public boolean isHighlighted() {
-        return getBoolean(HIGHLIGHTED);
+        return isTrue(getAttribute(AttributeKeys.HIGHLIGHTED));
     }
 	public Boolean isHighlighted(int state) {
-        return getBoolean(state, HIGHLIGHTED);
+        return isTrue(getAttribute(state, AttributeKeys.HIGHLIGHTED));
     }
 	public void highlight() throws Terminate {
         set(HIGHLIGHTED, true);
@@ -620,9 +682,7 @@ public class GraphElement implements Comparable<GraphElement> {
     }
 
 	public int compareTo(GraphElement other) {
-        Double thisDouble = new Double( this.getWeight() );
-        Double otherDouble = new Double( other.getWeight() );
-		return thisDouble.compareTo( otherDouble );
+        return Double.compare(this.getWeight(), other.getWeight());
 	}
 
     /**
@@ -630,47 +690,23 @@ public class GraphElement implements Comparable<GraphElement> {
      * designated attribute; the attribute must have a Double value
      */
   public static GraphElementComparator getDoubleComparator(String attribute) {
-    return new GraphElementComparator(attribute, false) {
-          public int compare(GraphElement ge_1, GraphElement ge_2) {
-            Double value_1 = ge_1.getDouble(attribute);
-            Double value_2 = ge_2.getDouble(attribute);
-            if ( value_1 > value_2 ) return 1;
-            else if ( value_2 > value_1 ) return -1;
-            else return 0;
-          }
-        };
-    }
+    return getDoubleComparator(attribute, false);
+  }
 
     /**
      * @return a comparator that compares two graph elements based on the
      * designated attribute; the attribute must have an Integer value
      */
     public static GraphElementComparator getIntegerComparator(String attribute) {
-      return new GraphElementComparator(attribute, false) {
-          @Override
-          public int compare(GraphElement ge_1, GraphElement ge_2) {
-            Integer value_1 = ge_1.getInteger(attribute);
-            Integer value_2 = ge_2.getInteger(attribute);
-            if ( value_1 > value_2 ) return 1;
-            else if ( value_2 > value_1 ) return -1;
-            else return 0;
-          }
-        };
+      return getIntegerComparator(attribute, false);
     }
 
    /**
      * @return a comparator that compares two graph elements based on the
-     * designated attribute; the attribute must have an Integer value
+     * designated attribute; the attribute must have a String value
      */
     public static GraphElementComparator getStringComparator(String attribute) {
-      return new GraphElementComparator(attribute, false) {
-        @Override
-        public int compare(GraphElement ge_1, GraphElement ge_2) {
-          String value_1 = ge_1.getString(attribute);
-          String value_2 = ge_2.getString(attribute);
-          return value_1.compareTo(value_2);
-        }
-      };
+      return getStringComparator(attribute, false);
     }
 
   /**
@@ -680,15 +716,7 @@ public class GraphElement implements Comparable<GraphElement> {
    */
   public static GraphElementComparator getDoubleComparator(String attribute,
                                                              boolean reverse) {
-    return new GraphElementComparator(attribute, reverse) {
-      public int compare(GraphElement ge_1, GraphElement ge_2) {
-        Double value_1 = ge_1.getDouble(attribute);
-        Double value_2 = ge_2.getDouble(attribute);
-        if ( reverse )
-          return value_2.compareTo(value_1);
-        else return value_1.compareTo(value_2);
-      }
-    };
+    return new GraphElementComparator.DoubleComparator(attribute, reverse);
   }
 
   /**
@@ -698,15 +726,7 @@ public class GraphElement implements Comparable<GraphElement> {
    */
   public static GraphElementComparator getIntegerComparator(String attribute,
                                                               boolean reverse) {
-    return new GraphElementComparator(attribute, reverse) {
-      public int compare(GraphElement ge_1, GraphElement ge_2) {
-        Integer value_1 = ge_1.getInteger(attribute);
-        Integer value_2 = ge_2.getInteger(attribute);
-        if ( reverse )
-          return value_2.compareTo(value_1);
-        else return value_1.compareTo(value_2);
-      }
-    };
+    return new GraphElementComparator.IntegerComparator(attribute, reverse);
   }
 
   /**
@@ -716,17 +736,9 @@ public class GraphElement implements Comparable<GraphElement> {
    */
   public static GraphElementComparator getStringComparator(String attribute,
                                                              boolean reverse) {
-    return new GraphElementComparator(attribute, reverse) {
-            public int compare(GraphElement ge_1, GraphElement ge_2) {
-                String value_1 = ge_1.getString(attribute);
-                String value_2 = ge_2.getString(attribute);
-                if ( reverse )
-                  return value_2.compareTo(value_1);
-                else return value_1.compareTo(value_2);
-            }
-        };
-    }
+    return new GraphElementComparator.StringComparator(attribute, reverse);
+  }
 
 }
 
-//  [Last modified: 2017 07 22 at 18:47:03 GMT]
+//  [Last modified: 2026 10 19 at 14:03:48 GMT]
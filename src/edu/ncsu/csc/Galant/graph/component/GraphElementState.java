@@ -1,5 +1,7 @@
 package edu.ncsu.csc.Galant.graph.component;
 import java.awt.Point;
+import java.io.IOException;
+import java.util.ArrayList;
 import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 
@@ -26,6 +28,13 @@ import edu.ncsu.csc.Galant.logging.LogHelper;
  */
 public class GraphElementState {
 
+    /**
+     * Maximum number of delta states between two full snapshots
+     * (checkpoints); this bounds the number of states that have to be
+     * visited when looking up an attribute.
+     */
+    public static final int CHECKPOINT_INTERVAL = 32;
+
     /**
      * The sequence number (algorithm state) of this state.
      */
@@ -34,10 +43,29 @@ public class GraphElementState {
     public int getState() { return state; }
 
     /**
-     * Attribute list for the snapshot representing this element state
+     * Attribute list for the snapshot representing this element state; only
+     * checkpoints have one, delta states have a null list.
      */
     protected AttributeList attributes;
-    public AttributeList getAttributes() { return attributes; }
+
+    /**
+     * For a delta state, the state on which it is based; null for a
+     * checkpoint.
+     */
+    private GraphElementState previous;
+
+    /**
+     * For a delta state, the changes with respect to the previous state, in
+     * the order they were made; a removal is recorded as a REMOVED
+     * attribute. Null for a checkpoint.
+     */
+    private ArrayList<Attribute> changes;
+
+    /**
+     * number of delta states between this one and the nearest checkpoint
+     * (inclusive of this one), 0 for a checkpoint
+     */
+    private int depth;
 
     private GraphDispatch dispatch;
 
@@ -46,20 +74,163 @@ public class GraphElementState {
      * known yet.
      */
     public GraphElementState() {
-        this.dispatch = GraphDispatch.getInstance();
+        this(GraphDispatch.getInstance());
+    }
+
+    /**
+     * Same as above, for an element that belongs to the given dispatch,
+     * i.e., execution context.
+     */
+    public GraphElementState(GraphDispatch dispatch) {
+        this.dispatch = dispatch;
         this.state = dispatch.getAlgorithmState();
         this.attributes = new AttributeList();
     }
 
     /**
      * This serves essentially as a copy constructor: creates the new object
-     * in a different algorithm state and copies all the information for the
-     * node (state) - except, of course, the state
+     * in a different algorithm state with all the information for the
+     * node (state) - except, of course, the state. Rather than copying all
+     * attributes, the new state usually records only the changes made to it
+     * (a delta); every CHECKPOINT_INTERVAL states a full copy is made.
+     *
+     * If the given state has the same algorithm state, the new one is going
+     * to replace it, so the new one is based on the same previous state and
+     * starts with a copy of its changes.
+     *
+     * The new state belongs to the same dispatch as the given one.
      */
     public GraphElementState(GraphElementState elementState) {
-        this.dispatch = GraphDispatch.getInstance();
+        this.dispatch = elementState.dispatch;
         this.state = dispatch.getAlgorithmState();
-        this.attributes = elementState.getAttributes().duplicate();
+        if ( elementState.state == this.state ) {
+            this.previous = elementState.previous;
+            this.depth = elementState.depth;
+            if ( elementState.isCheckpoint() )
+                this.attributes = elementState.attributes.duplicate();
+            else
+                this.changes = new ArrayList<Attribute>(elementState.changes);
+        }
+        else if ( elementState.depth + 1 >= CHECKPOINT_INTERVAL ) {
+            this.attributes = elementState.snapshot();
+        }
+        else {
+            this.previous = elementState;
+            this.depth = elementState.depth + 1;
+            this.changes = new ArrayList<Attribute>(2);
+        }
+    }
+
+    /**
+     * A state read back from a HistoryLog: a checkpoint in the given
+     * algorithm state with the given attributes.
+     */
+    GraphElementState(GraphDispatch dispatch, int state,
+                      AttributeList attributes) {
+        this.dispatch = dispatch;
+        this.state = state;
+        this.attributes = attributes;
+    }
+
+    /**
+     * @return true if this state has a full attribute list
+     */
+    public boolean isCheckpoint() { return previous == null; }
+
+    /**
+     * For a HistoryLog: the state a delta is based on and the changes it
+     * records, in order, or null for a checkpoint
+     */
+    GraphElementState getPrevious() { return previous; }
+    ArrayList<Attribute> getChanges() { return changes; }
+
+    /**
+     * @return the full attribute list for this state; for a delta state the
+     * list is reconstructed from the nearest checkpoint and should be
+     * treated as read-only
+     */
+    public AttributeList getAttributes() {
+        if ( isCheckpoint() ) return attributes;
+        return snapshot();
+    }
+
+    /**
+     * @return a new list with all the attributes of this state, built by
+     * applying the deltas since the nearest checkpoint in order
+     */
+    private AttributeList snapshot() {
+        ArrayList<GraphElementState> deltas = new ArrayList<GraphElementState>(depth);
+        GraphElementState checkpoint = this;
+        while ( ! checkpoint.isCheckpoint() ) {
+            deltas.add(checkpoint);
+            checkpoint = checkpoint.previous;
+        }
+        AttributeList list = checkpoint.attributes.duplicate();
+        for ( int i = deltas.size() - 1; i >= 0; i-- ) {
+            for ( Attribute change : deltas.get(i).changes ) {
+                if ( change instanceof Removed )
+                    list.remove(change.getKey());
+                else
+                    list.set(change);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return the attribute whose key has the given index (see
+     * AttributeKeys) as of this state or null if there is none; only the
+     * deltas back to the nearest checkpoint are examined
+     */
+    public Attribute getAttribute(int keyIndex) {
+        GraphElementState elementState = this;
+        while ( ! elementState.isCheckpoint() ) {
+            ArrayList<Attribute> changes = elementState.changes;
+            for ( int i = changes.size() - 1; i >= 0; i-- ) {
+                Attribute change = changes.get(i);
+                if ( change.getKeyIndex() == keyIndex ) {
+                    return change instanceof Removed ? null : change;
+                }
+            }
+            elementState = elementState.previous;
+        }
+        return elementState.attributes.get(keyIndex);
+    }
+
+    private Attribute lookup(String key) {
+        int keyIndex = AttributeKeys.find(key);
+        return keyIndex < 0 ? null : getAttribute(keyIndex);
+    }
+
+    /**
+     * Records a change; for a checkpoint this simply updates the list. For
+     * a delta, a change to a key that was already changed in this state
+     * replaces the earlier change unless the latter was a removal, in which
+     * case the new change is added after it so that the order of attributes
+     * in a reconstructed list is the same as if the full list had been
+     * modified.
+     * @return true if the attribute was present prior to the call
+     */
+    private boolean change(Attribute attribute) {
+        if ( isCheckpoint() ) {
+            if ( attribute instanceof Removed )
+                return attributes.remove(attribute.getKey());
+            return attributes.set(attribute);
+        }
+        int keyIndex = attribute.getKeyIndex();
+        boolean found = getAttribute(keyIndex) != null;
+        for ( int i = changes.size() - 1; i >= 0; i-- ) {
+            Attribute earlier = changes.get(i);
+            if ( earlier.getKeyIndex() == keyIndex ) {
+                if ( ! (earlier instanceof Removed) ) {
+                    changes.set(i, attribute);
+                    return found;
+                }
+                break;
+            }
+        }
+        changes.add(attribute);
+        return found;
     }
 
     /**
@@ -73,10 +244,11 @@ public class GraphElementState {
         if ( value == null ) {
             return remove(key);
         }
-        return attributes.set(key, value);
+        return change(new IntegerAttribute(key, value));
 	}
 	public Integer getIntegerAttribute(String key) {
-		return attributes.getInteger(key);
+        Attribute attribute = lookup(key);
+		return attribute == null ? null : attribute.getIntegerValue();
 	}
 
     /************** Double attributes ***************/
@@ -84,10 +256,11 @@ public class GraphElementState {
         if ( value == null ) {
             return remove(key);
         }
-        return attributes.set(key, value);
+        return change(new DoubleAttribute(key, value));
 	}
 	public Double getDoubleAttribute(String key) {
-		return attributes.getDouble(key);
+        Attribute attribute = lookup(key);
+		return attribute == null ? null : attribute.getDoubleValue();
 	}
 
     /************** Boolean attributes ***************/
@@ -95,16 +268,21 @@ public class GraphElementState {
         if ( value == null ) {
             return remove(key);
         }
-        return attributes.set(key, value);
+        return change(new BooleanAttribute(key, value));
 	}
     public boolean set(String key) {
-        return attributes.set(key, true);
+        return change(new BooleanAttribute(key, true));
     }
+
+    /**
+     * As with AttributeList.getBoolean(), a missing attribute is false.
+     */
 	public Boolean getBooleanAttribute(String key) {
-		return attributes.getBoolean(key);
+        Attribute attribute = lookup(key);
+		return attribute == null ? Boolean.FALSE : attribute.getBooleanValue();
 	}
     public Boolean is(String key) {
-        return attributes.getBoolean(key);
+        return getBooleanAttribute(key);
     }
 
     /************** String attributes ***************/
@@ -112,10 +290,11 @@ public class GraphElementState {
         if ( value == null ) {
             return remove(key);
         }
-        return attributes.set(key, value);
+        return change(new StringAttribute(key, value));
 	}
 	public String getStringAttribute(String key) {
-		return attributes.getString(key);
+        Attribute attribute = lookup(key);
+		return attribute == null ? null : attribute.getStringValue();
 	}
 
     /**
@@ -124,7 +303,39 @@ public class GraphElementState {
      * @return true if the attribute was present before the call
      */
     public boolean remove(String key) {
-        return attributes.remove(key);
+        return change(new Removed(key));
+    }
+
+    /** stands for no attribute in writeAttributes() */
+    static final int NO_KEY = -1;
+
+    /**
+     * Writes the attributes of this state, each followed by a blank, after
+     * a leading blank, to out, leaving out the ones whose keys have the
+     * given indexes (see AttributeKeys); this is the "interior" of a
+     * GraphML representation of the element.
+     */
+    void writeAttributes(Appendable out, int omitted, int alsoOmitted)
+        throws IOException {
+        out.append(' ');
+        for ( Attribute attribute : getAttributes().getAttributes() ) {
+            int keyIndex = attribute.getKeyIndex();
+            if ( keyIndex != omitted && keyIndex != alsoOmitted ) {
+                attribute.appendTo(out);
+                out.append(' ');
+            }
+        }
+    }
+
+    private String attributeString(int omitted, int alsoOmitted) {
+        StringBuilder s = new StringBuilder();
+        try {
+            writeAttributes(s, omitted, alsoOmitted);
+        }
+        catch ( IOException e ) { // a StringBuilder does not throw these
+            throw new IllegalStateException(e);
+        }
+        return s.toString();
     }
 
     /**
@@ -132,11 +343,7 @@ public class GraphElementState {
      * representation of this element.
      */
     public String xmlString() {
-        String s = " ";
-        for ( Attribute attribute : attributes.getAttributes() ) {
-            s += attribute + " ";
-        }
-        return s;
+        return attributeString(NO_KEY, NO_KEY);
     }
 
     /**
@@ -145,14 +352,7 @@ public class GraphElementState {
      * corresponding fixed ones of a Node.
      */
     public String attributesWithoutPosition() {
-        String s = " ";
-        for ( Attribute attribute : attributes.getAttributes() ) {
-            if ( ! attribute.getKey().equals("x")
-                 && ! attribute.getKey().equals("y") ) {
-                s += attribute + " ";
-            }
-        }
-        return s;
+        return attributeString(AttributeKeys.X, AttributeKeys.Y);
     }
 
     /**
@@ -160,22 +360,39 @@ public class GraphElementState {
      * in cases where the id is optional, as is the case with an Edge
      */
     public String attributesWithoutId() {
-        String s = " ";
-        for ( Attribute attribute : attributes.getAttributes() ) {
-            if ( ! attribute.getKey().equals("id") ) {
-                s += attribute + " ";
-            }
-        }
-        return s;
+        return attributeString(AttributeKeys.ID, NO_KEY);
     }
 
     public String toString() {
         String s = "{elementState ";
         s += "" + state + " ";
-        s += attributes.getAttributes();
+        s += getAttributes().getAttributes();
         s += "}";
         return s;
     }
+
+    /**
+     * @return true if the change is the removal of an attribute
+     */
+    static boolean isRemoval(Attribute change) {
+        return change instanceof Removed;
+    }
+
+    /**
+     * @return the change that removes the attribute with the given key
+     */
+    static Attribute removal(String key) {
+        return new Removed(key);
+    }
+
+    /**
+     * Marks the removal of an attribute in the changes of a delta state.
+     */
+    private static class Removed extends Attribute {
+        Removed(String key) { super(key); }
+        public Attribute clone() { return new Removed(key); }
+        public String toString() { return "-" + key; }
+    }
 }
 
-//  [Last modified: 2017 07 22 at 18:41:38 GMT]
+//  [Last modified: 2026 10 18 at 20:22:31 GMT]
@@ -7,13 +7,10 @@
 package edu.ncsu.csc.Galant.graph.component;
 
 import java.awt.Point;
-import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.LinkedList;
 import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.logging.LogHelper;
@@ -61,8 +58,9 @@ public class GraphLayout {
      * - using degree_factor[v] = degree(v) ^ degree_boost
      * - using sum instead of min
      * - using product instead of min
-     * - using a matrix repulsionFactor to divide the repulsive force by the
-     * number of hops that separate two nodes (as is, squared or square root)
+     * - using repulsion factors (hop distances) to divide the repulsive force by the
+     * number of hops that separate two nodes (as is, squared or square root);
+     * the square root can still be chosen, see forceDirected()
      */
     private static final double DEFAULT_DEGREE_BOOST = 1.0;
 
@@ -79,6 +77,13 @@ public class GraphLayout {
     /** maximum number of repositioning iterations in force-directed layout */
     private static final int MAX_REPOSITION_ITERATIONS = 100000;
 
+    /**
+     * graphs with more nodes than this have their repulsive forces
+     * approximated using a BarnesHutTree; for smaller ones all pairs of
+     * nodes are considered, which is exact and fast enough
+     */
+    private static final int BARNES_HUT_THRESHOLD = 500;
+
     private Graph graph;
     private List<Node> nodes;
     private List<Edge> edges;
@@ -107,11 +112,38 @@ public class GraphLayout {
     private int[] component;
 
     /**
-     * A matrix of node repulsion factors, proportional to the square of the
-     * distance (number of hops) between two nodes. The repelling force
-     * between two nodes is dvided by this
+     * the nodes (indexes) of each connected component, one component after
+     * the other: those of component c are componentMembers[k] for
+     * componentStart[c-1] <= k < componentStart[c]
+     */
+    private int[] componentMembers;
+    private int[] componentStart;
+
+    /**
+     * The neighbors of node (index) i are adjacency[k] for adjacencyStart[i]
+     * <= k < adjacencyStart[i+1], in the order of the edges; a node appears
+     * once for every edge, self-loops are left out.
+     */
+    private int[] adjacencyStart;
+    private int[] adjacency;
+
+    /**
+     * current positions of the nodes, by index, while forceDirected() runs,
+     * and the force on the node being moved
+     */
+    private double[] xs;
+    private double[] ys;
+    private final double[] force = new double[2];
+
+    /**
+     * The number of hops between two nodes; the repelling force between
+     * two nodes is divided by the square root of this, as given by
+     * repulsionFactor(); null unless the layout is by hops
      */
-    private double[][] repulsionFactor;
+    private HopDistances hopDistances;
+
+    /** square roots of the possible numbers of hops */
+    private double[] hopsSquareRoot;
 
     /**
      * how often to print progress (never)
@@ -136,55 +168,30 @@ public class GraphLayout {
             nodePositions.put(node, p);
             index++;
 		}
-        // initRepulsionFactors();
     }
 
     /**
-     * Uses a Floyd-Warshall type algorithm to initialize the repulsion
-     * factors
+     * Initializes the repulsion factors from the numbers of hops between
+     * nodes, found by breadth-first searches (in parallel) rather than an
+     * all-pairs shortest path computation over a matrix of doubles
      */
     private void initRepulsionFactors() {
-        int n = nodes.size();
-        repulsionFactor = new double[n][n];
-        // first calculate the number of hops
-        //  initialize using the edges of the graph:
-        //    there are no hops from a node to itself
-        //    if there's no edge, make the number of hops
-        //     exceed the number of nodes
-        //    if there is an edge, the number of hops = 1
-        for ( int i = 0; i < n; i++ ) {
-            for ( int j = 0; j < n; j++ ) {
-                if ( i == j ) repulsionFactor[i][j] = 0;
-                else repulsionFactor[i][j] = n * n;
-            }
-        }
-        for ( Edge e : edges ) {
-            int sourceIndex = nodeToIndex.get(e.getSource());
-            int targetIndex = nodeToIndex.get(e.getTarget());
-            repulsionFactor[sourceIndex][targetIndex] = 1;
-        }
-        // now iterate, considering each node (index k) as a potential
-        // midpoint of a path
-        for ( int k = 0; k < n; k++ ) {
-            for ( int i = 0; i < n; i++ ) {
-                for ( int j = 0; j < n; j++ ) {
-                    double withMidpointK
-                        = repulsionFactor[i][k] + repulsionFactor[k][j];
-                    repulsionFactor[i][j]
-                        = (withMidpointK < repulsionFactor[i][j])
-                        ? withMidpointK : repulsionFactor[i][j];
-                }
-            }
-        }
-        // finally, take the square root of each entry
-        for ( int i = 0; i < n; i++ ) {
-            for ( int j = 0; j < n; j++ ) {
-                repulsionFactor[i][j]
-                    = Math.sqrt(repulsionFactor[i][j]);
-            }
+        if ( adjacency == null ) computeAdjacency();
+        hopDistances = new HopDistances(adjacencyStart, adjacency);
+        hopsSquareRoot = new double[HopDistances.MAX_HOPS + 1];
+        for ( int hops = 0; hops <= HopDistances.MAX_HOPS; hops++ ) {
+            hopsSquareRoot[hops] = Math.sqrt(hops);
         }
     }
 
+    /**
+     * @return the repulsion factor of nodes i and j, the square root of the
+     * number of hops between them
+     */
+    private double repulsionFactor(int i, int j) {
+        return hopsSquareRoot[hopDistances.get(i, j)];
+    }
+
     /**
      * Sets positions of nodes in the graph to correspond to those given in
      * this layout.
@@ -228,26 +235,24 @@ public class GraphLayout {
      * bottom of the window. "Close to" is defined by the WINDOW_PADDING
      * constant and, in the vertical direction, by WINDOW_OFFSET.
      */
-    public void fitWindow(Point2D.Double[] points) {
-        List<Node> nodes = graph.getNodes();
-
+    public void fitWindow(double[] xs, double[] ys) {
         // compute max and min x and y positions
  		double x_least = Double.MAX_VALUE;
 		double y_least = Double.MAX_VALUE;
         double x_most = 0;
         double y_most = 0;
 
-		for ( Point2D.Double point: points ) {
-			x_least = (point.x < x_least) ? point.x : x_least;
-			y_least = (point.y < y_least) ? point.y : y_least;
-			x_most = (point.x > x_most) ? point.x : x_most;
-			y_most = (point.y > y_most) ? point.y : y_most;
+		for ( int i = 0; i < xs.length; i++ ) {
+			x_least = (xs[i] < x_least) ? xs[i] : x_least;
+			y_least = (ys[i] < y_least) ? ys[i] : y_least;
+			x_most = (xs[i] > x_most) ? xs[i] : x_most;
+			y_most = (ys[i] > y_most) ? ys[i] : y_most;
 		}
 
         // shift points so that x_least and y_least are mapped to 0
-        for ( int i = 0; i < points.length; i++ ) {
-            points[i].x = points[i].x - x_least;
-            points[i].y = points[i].y - y_least;
+        for ( int i = 0; i < xs.length; i++ ) {
+            xs[i] = xs[i] - x_least;
+            ys[i] = ys[i] - y_least;
         }
 
         // compute source (virtual) window width and height
@@ -267,37 +272,79 @@ public class GraphLayout {
         // scale source to target, accounting for offets and padding
         double xScale = targetWidth /sourceWidth;
         double yScale = targetHeight /sourceHeight;
-        for ( int i = 0; i < points.length; i++ ) {
-            points[i].x = points[i].x * xScale + WINDOW_PADDING;
-            points[i].y = points[i].y * yScale + WINDOW_PADDING + WINDOW_OFFSET;
+        for ( int i = 0; i < xs.length; i++ ) {
+            xs[i] = xs[i] * xScale + WINDOW_PADDING;
+            ys[i] = ys[i] * yScale + WINDOW_PADDING + WINDOW_OFFSET;
         }
    }
 
+    /**
+     * Initializes adjacencyStart and adjacency from the edges of the graph
+     */
+    private void computeAdjacency() {
+        int n = nodes.size();
+        adjacencyStart = new int[n + 1];
+        int[] sources = new int[edges.size()];
+        int[] targets = new int[edges.size()];
+        int edgeCount = 0;
+        for ( Edge e : edges ) {
+            int source = nodeToIndex.get(e.getSourceNode());
+            int target = nodeToIndex.get(e.getTargetNode());
+            if ( source == target ) continue;
+            sources[edgeCount] = source;
+            targets[edgeCount] = target;
+            adjacencyStart[source + 1]++;
+            adjacencyStart[target + 1]++;
+            edgeCount++;
+        }
+        for ( int i = 0; i < n; i++ ) {
+            adjacencyStart[i + 1] += adjacencyStart[i];
+        }
+        adjacency = new int[adjacencyStart[n]];
+        int[] next = new int[n];
+        System.arraycopy(adjacencyStart, 0, next, 0, n);
+        for ( int k = 0; k < edgeCount; k++ ) {
+            adjacency[next[sources[k]]++] = targets[k];
+            adjacency[next[targets[k]]++] = sources[k];
+        }
+    }
+
     /**
      * POST: each node is labeled with an integer indentifying its connected
-     * component; the information is stored in the components array
+     * component; the information is stored in the components array; the
+     * nodes of each component are listed in componentMembers
      */
     private void computeConnectedComponents() {
-        component = new int[nodes.size()];
+        int n = nodes.size();
+        component = new int[n];
+        componentMembers = new int[n];
+        int[] starts = new int[n + 1];
         int componentNumber = 0;
-        for ( Node node : nodes ) {
-            if ( component[nodeToIndex.get(node)] == 0 ) {
+        // the members of a component are also its BFS queue
+        int tail = 0;
+        for ( int start = 0; start < n; start++ ) {
+            if ( component[start] == 0 ) {
                 // not yet encountered; start a new component and do BFS on it
                 componentNumber++;
-                Queue<Node> nodeQueue = new LinkedList<Node>();
-                component[nodeToIndex.get(node)] = componentNumber;
-                nodeQueue.offer(node);
-                while ( nodeQueue.size() > 0 ) {
-                    Node currentNode = nodeQueue.poll();
-                    for ( Node neighbor: currentNode.getAdjacentNodes() ) {
-                        if ( component[nodeToIndex.get(neighbor)] == 0 ) {
-                            component[nodeToIndex.get(neighbor)] = componentNumber;
-                            nodeQueue.offer(neighbor);
+                int head = tail;
+                component[start] = componentNumber;
+                componentMembers[tail++] = start;
+                while ( head < tail ) {
+                    int current = componentMembers[head++];
+                    for ( int k = adjacencyStart[current];
+                          k < adjacencyStart[current + 1]; k++ ) {
+                        int neighbor = adjacency[k];
+                        if ( component[neighbor] == 0 ) {
+                            component[neighbor] = componentNumber;
+                            componentMembers[tail++] = neighbor;
                         }
                     }
                 }
+                starts[componentNumber] = tail;
             }
         }
+        componentStart = new int[componentNumber + 1];
+        System.arraycopy(starts, 0, componentStart, 0, componentNumber + 1);
     }
 
 	/**
@@ -310,20 +357,28 @@ public class GraphLayout {
      * to which the degree of a node amplifies the repulsive force of a node;
      * a large value of boost can be used to spread out cliques or
      * near-cliques.
+     * @param byHops if true, the repulsion between two nodes is divided by
+     * the square root of the number of hops between them instead, and the
+     * boost is ignored; all pairs of nodes are then considered, however
+     * large the graph, since a BarnesHutTree cannot tell the hops apart
 	 */
-	public void forceDirected(Double boost) {
+	public void forceDirected(Double boost, boolean byHops) {
         /**
-         * These store the previous and current positions of the nodes
+         * These store the current and previous positions of the nodes,
+         * by index; nothing is allocated once the iterations start
          */
-		Point2D.Double[] points = new Point2D.Double[nodes.size()];
-		Point2D.Double[] previousPoints = new Point2D.Double[points.length];
+        int n = nodes.size();
+		xs = new double[n];
+		ys = new double[n];
+		double[] previousXs = new double[n];
+		double[] previousYs = new double[n];
 
         /**
          * Stores a factor based on the degrees of the nodes (in an attempt
          * to mitigate the effects of cliques bunching together; so repulsive
          * force will be made proportional to degree
          */
-        double [] degree_factor = new double[nodes.size()];
+        double [] degree_factor = new double[n];
 
         /**
          * power to which to raise degree when computing degree factor
@@ -341,7 +396,8 @@ public class GraphLayout {
         int index = 0;
 		for ( Node node: nodes ) {
 			Point p = nodePositions.get(node);
-			points[index] = new Point2D.Double(p.x, p.y);
+			xs[index] = p.x;
+			ys[index] = p.y;
             int degree = node.getDegree();
             degree_factor[index] = Math.pow(degree_boost, degree);
             index++;
@@ -355,8 +411,18 @@ public class GraphLayout {
 		double step = 1.0;
 		double energy = Double.MAX_VALUE;
 
+        computeAdjacency();
         computeConnectedComponents();
-        fitWindow(points);
+        fitWindow(xs, ys);
+
+        hopDistances = null;
+        if ( byHops ) initRepulsionFactors();
+
+        BarnesHutTree tree = null;
+        if ( n > BARNES_HUT_THRESHOLD && hopDistances == null ) {
+            tree = new BarnesHutTree(REPULSIVE_SCALE_FACTOR
+                                     * SPRING_LENGTH * SPRING_LENGTH);
+        }
 
 		int iterations = 0;
         while ( ! converged && iterations < MAX_REPOSITION_ITERATIONS ) {
@@ -365,10 +431,11 @@ public class GraphLayout {
             if ( iterations % PRINT_FREQUENCY == 0 )
                 System.out.println("force directed layout, iteration "
                                    + iterations);
-			// copy your new points to your old points
-			for ( int i=0; i < points.length; i++ ) {
-				previousPoints[i] = (Point2D.Double) points[i].clone();
-			}
+			// copy your new points to your old points; nodes are moved one
+			// at a time, each seeing the new positions of the ones before it,
+			// so the current positions cannot simply be swapped out
+			System.arraycopy(xs, 0, previousXs, 0, n);
+			System.arraycopy(ys, 0, previousYs, 0, n);
 
 			// store the last energy of the graph. minimize this.
 			double last_energy = energy;
@@ -376,185 +443,188 @@ public class GraphLayout {
 			// reset energy
 			energy = 0.0;
 
-			// loop through the Graph nodes and calculate new forces
-			for ( int i = 0; i < points.length; i++ ) {
-				double[] force = {0.0, 0.0};
-
-				// calculate attractive force of edges
-				for (Edge e : edges) {
-					int j = -1;
-					if ( nodeToIndex.get(e.getSourceNode()).intValue() == i ) {
-						j = nodeToIndex.get(e.getTargetNode());
-                    }
-                    else if ( nodeToIndex.get(e.getTargetNode()).intValue() == i ) {
-						j = nodeToIndex.get(e.getSourceNode());
-					}
-					if ( j != -1 && j != i ) {
-                        // ij is really an edge and not a self-loop
-						double attractive = forceAttractive(points[i], points[j]);
-						double[] unitVector = unitVector(points[i], points[j]);
-						force[0] += unitVector[0] * attractive;
-						force[1] += unitVector[1] * attractive;
-					}
+			// loop through the Graph nodes and calculate new forces; with a
+			// tree, go through the nodes component by component, the
+			// repulsion being based on the positions at the start of each
+			if ( tree == null ) {
+				for ( int i = 0; i < n; i++ ) {
+					energy += moveNode(i, step, degree_factor, null);
 				}
-
-				// calculate repulsive force from other nodes
-                addRepulsiveForce(i, force, points, degree_factor);
-                //addRepulsiveForce(i, force, points);
-
-				// calculate new x position, scaling the force by a step size
-				double x = points[i].getX();
-				if ( Math.abs(force[0]) > 0 ) {
-					x += (step * force[0] / magnitude(force));
-				}
-
-				// calculate new y position, scaling the force by a step size
-				double y = points[i].getY();
-				if (Math.abs(force[1]) > 0) {
-					y += (step * force[1] / magnitude(force));
+			}
+			else {
+				for ( int c = 1; c < componentStart.length; c++ ) {
+					int from = componentStart[c - 1];
+					int to = componentStart[c];
+					tree.build(xs, ys, degree_factor, componentMembers, from, to);
+					for ( int k = from; k < to; k++ ) {
+						energy += moveNode(componentMembers[k], step,
+						                   degree_factor, tree);
+					}
 				}
-				points[i] = new Point2D.Double(x, y);
-
-				// update the energy of this iteration
-				energy += magnitude(force) * magnitude(force);
 			}
 
 			// update step length with adaptive cooling scheme
 			step = updateStepLength(step, energy, last_energy);
 
 			// check to see if we've converged
-			if ( totalChange(points, previousPoints) < FORCE_DIRECTED_TOLERANCE ) {
+			if ( totalChange(xs, ys, previousXs, previousYs)
+                 < FORCE_DIRECTED_TOLERANCE ) {
 				converged = true;
 			}
 		}
 
 		// we've converged, now scale the points in the window
-		fitWindow(points);
+		fitWindow(xs, ys);
 
         // update the node positions based on those just calculated
-        for ( int i = 0; i < this.nodes.size(); i++ ) {
-            int x = (int) points[i].getX();
-            int y = (int) points[i].getY();
+        for ( int i = 0; i < n; i++ ) {
+            int x = (int) xs[i];
+            int y = (int) ys[i];
             Node node = indexToNode[i];
             nodePositions.put(node, new Point(x, y));
         }
+        xs = ys = null;
 	}
 
+    /**
+     * Moves node i in the direction of the force on it, by the given step
+     * @param tree the tree for the repulsive forces or null if all other
+     * nodes are to be considered
+     * @return the contribution of the node to the energy
+     */
+    private double moveNode(int i, double step,
+                            double[] degree_factor, BarnesHutTree tree) {
+        force[0] = 0.0;
+        force[1] = 0.0;
+        double xi = xs[i];
+        double yi = ys[i];
+
+        // calculate attractive force of edges
+        for ( int k = adjacencyStart[i]; k < adjacencyStart[i + 1]; k++ ) {
+            int j = adjacency[k];
+            double dx = xs[j] - xi;
+            double dy = ys[j] - yi;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            double attractive = forceAttractive(distance);
+            force[0] += (dx / distance) * attractive;
+            force[1] += (dy / distance) * attractive;
+        }
+
+        // calculate repulsive force from other nodes
+        if ( tree != null ) {
+            tree.addRepulsiveForce(i, xi, yi, degree_factor[i], force);
+        }
+        else if ( hopDistances != null ) {
+            addRepulsiveForce(i);
+        }
+        else {
+            addRepulsiveForce(i, degree_factor);
+        }
+
+        double magnitude
+            = Math.sqrt(force[0] * force[0] + force[1] * force[1]);
+
+        // calculate new x position, scaling the force by a step size
+        if ( Math.abs(force[0]) > 0 ) {
+            xs[i] = xi + (step * force[0] / magnitude);
+        }
+
+        // calculate new y position, scaling the force by a step size
+        if (Math.abs(force[1]) > 0) {
+            ys[i] = yi + (step * force[1] / magnitude);
+        }
+
+        // the energy of the node
+        return magnitude * magnitude;
+    }
+
 	/**
 	 * Calculate spring force between two points based on natural spring length. Assumes
-	 * there is an edge between p1 and p2.
-	 * @param p1 The position of an edge endpoint
-	 * @param p2 The position of the other edge endpoint
+	 * there is an edge between them.
+	 * @param distance the distance between the edge endpoints
 	 * @return The attractive force between the two nodes
 	 */
-	private static double forceAttractive(Point2D p1, Point2D p2) {
-		return ( p1.distance(p2) * p1.distance(p2) ) / SPRING_LENGTH;
+	private static double forceAttractive(double distance) {
+		return ( distance * distance ) / SPRING_LENGTH;
 	}
 
 	/**
 	 * Calculate the repulsive force between two nodes
-	 * @param p1 The position of a node
-	 * @param p2 The position of a second node
-	 * @param c A scalar
+	 * @param distance the distance between the nodes
 	 * @return The force between the two components
 	 */
-	private static double forceRepulsive(Point2D p1, Point2D p2) {
+	private static double forceRepulsive(double distance) {
 		return (REPULSIVE_SCALE_FACTOR * SPRING_LENGTH * SPRING_LENGTH)
-            / p1.distance(p2) ;
+            / distance ;
 	}
 
     /**
      * calculates the repulsive force that results when the effect of all other
-     * nodes is taken into account: force[0] = x direction, force[1] = y
-     * direction
+     * nodes is taken into account and adds it to force: force[0] = x
+     * direction, force[1] = y direction
      * @param i the index of the node to be impacted by the force
-     * @param force the current value of the force (to be added to)
      * @param degree_factor a factor calculated so that nodes with higher
      * degree have stronger repulsion
      */
-    private void addRepulsiveForce(int i,
-                                   double [] force,
-                                   Point2D.Double [] points,
-                                   double [] degree_factor) {
-        for ( int j = 0; j < points.length; j++ ) {
+    private void addRepulsiveForce(int i, double [] degree_factor) {
+        double xi = xs[i];
+        double yi = ys[i];
+        for ( int j = 0; j < xs.length; j++ ) {
             if ( j != i && component[i] == component[j] ) {
                 double min_degree_factor
                     = (degree_factor[i] > degree_factor[j]) ?
                     degree_factor[j] : degree_factor[i];
-                double repulsive = min_degree_factor
-                    * forceRepulsive(points[i], points[j]);
-                double[] unitVector = unitVector(points[i], points[j]);
-                force[0] += unitVector[0] * repulsive;
-                force[1] += unitVector[1] * repulsive;
+                double dx = xs[j] - xi;
+                double dy = ys[j] - yi;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                double repulsive = min_degree_factor * forceRepulsive(distance);
+                force[0] += (dx / distance) * repulsive;
+                force[1] += (dy / distance) * repulsive;
             }
         }
     }
 
     /**
      * calculates the repulsive force that results when the effect of all other
-     * nodes is taken into account: force[0] = x direction, force[1] = y
-     * direction
+     * nodes is taken into account and adds it to force: force[0] = x
+     * direction, force[1] = y direction
      * @param i the index of the node to be impacted by the force
-     * @param force the current value of the force (to be added to)
-     * This variation uses the repulsionFactor matrix instead of the degree
-     * factor
+     * This variation uses the repulsion factors (numbers of hops) instead
+     * of the degree factor
      */
-    private void addRepulsiveForce(int i,
-                                   double [] force,
-                                   Point2D.Double [] points) {
-        for ( int j = 0; j < points.length; j++ ) {
+    private void addRepulsiveForce(int i) {
+        double xi = xs[i];
+        double yi = ys[i];
+        for ( int j = 0; j < xs.length; j++ ) {
             if ( j != i && component[i] == component[j] ) {
+                double dx = xs[j] - xi;
+                double dy = ys[j] - yi;
+                double distance = Math.sqrt(dx * dx + dy * dy);
                 double repulsive
-                    = forceRepulsive(points[i], points[j]) / repulsionFactor[i][j];
-                double[] unitVector = unitVector(points[i], points[j]);
-                force[0] += unitVector[0] * repulsive;
-                force[1] += unitVector[1] * repulsive;
+                    = forceRepulsive(distance) / repulsionFactor(i, j);
+                force[0] += (dx / distance) * repulsive;
+                force[1] += (dy / distance) * repulsive;
             }
         }
     }
 
-	/**
-	 * Returns a unit vector indicating the direction from source i to destination j
-	 * @param i the source point
-	 * @param j the destination point
-	 * @return The unit vector towards your destination
-	 */
-	private static double[] unitVector(Point2D i, Point2D j) {
-		double twoNorm = j.distance(i);
-		double[] unit = { (j.getX() - i.getX()) / twoNorm, (j.getY() - i.getY()) / twoNorm};
-		return unit;
-	}
-
-	/**
-	 * Returns the magnitude of a vector
-	 * @param vector the vector to calculate
-	 * @return the magnitude of the vector
-	 */
-	private static double magnitude(double[] vector) {
-		double sum = 0;
-		for (int i=0; i < vector.length; i++) {
-			sum += (vector[i]*vector[i]);
-		}
-
-		return Math.sqrt(sum);
-	}
-
 	/**
 	 * Calculate the total change in energy between two states of positions
-	 * @param x the old set of points
-	 * @param x0 the new set of points
+	 * @param xs the new x coordinates
+	 * @param ys the new y coordinates
+	 * @param previousXs the old x coordinates
+	 * @param previousYs the old y coordinates
 	 * @return the amount of change between the two sets
 	 */
-	private static double totalChange(Point2D[] x, Point2D[] x0) {
-		if (x.length != x0.length) {
-			return 0;
-		}
-
+	private static double totalChange(double[] xs, double[] ys,
+                                      double[] previousXs, double[] previousYs) {
 		double totalChange = 0.0;
-		for (int i=0; i < x.length; i++) {
-			double dist = x[i].distance(x0[i]);
+		for (int i=0; i < xs.length; i++) {
+			double dx = previousXs[i] - xs[i];
+			double dy = previousYs[i] - ys[i];
+			double dist = Math.sqrt(dx * dx + dy * dy);
 			if (dist > 0)
-				totalChange += x[i].distance(x0[i]);
+				totalChange += dist;
 		}
 		return totalChange;
 	}
@@ -583,4 +653,4 @@ public class GraphLayout {
 
 }
 
-//  [Last modified: 2017 01 04 at 02:19:46 GMT]
+//  [Last modified: 2026 10 19 at 14:44:15 GMT]
@@ -32,18 +32,36 @@ public class GraphState {
      * known yet.
      */
     public GraphState() {
-        this.dispatch = GraphDispatch.getInstance();
+        this(GraphDispatch.getInstance());
+    }
+
+    /**
+     * Same as above, for a graph that belongs to the given dispatch, i.e.,
+     * execution context.
+     */
+    public GraphState(GraphDispatch dispatch) {
+        this.dispatch = dispatch;
         this.state = dispatch.getAlgorithmState();
         this.attributes = new AttributeList();
     }
 
+    /**
+     * A state read back from a HistoryLog, with the given attributes
+     */
+    GraphState(GraphDispatch dispatch, int state, AttributeList attributes) {
+        this.dispatch = dispatch;
+        this.state = state;
+        this.attributes = attributes;
+    }
+
     /**
      * This serves essentially as a copy constructor: creates the new object
      * in a different algorithm state and copies all the information for the
-     * node (state) - except, of course, the state
+     * node (state) - except, of course, the state; the new state belongs to
+     * the same dispatch
      */
     public GraphState(GraphState State) {
-        this.dispatch = GraphDispatch.getInstance();
+        this.dispatch = State.dispatch;
         this.state = dispatch.getAlgorithmState();
         this.attributes = State.getAttributes().duplicate();
     }
@@ -116,4 +134,4 @@ public class GraphState {
     }
 }
 
-//  [Last modified: 2016 10 17 at 12:52:59 GMT]
+//  [Last modified: 2026 10 19 at 13:08:30 GMT]
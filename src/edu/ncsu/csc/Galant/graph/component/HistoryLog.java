@@ -0,0 +1,708 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.GraphDispatch;
+
+/**
+ * An append-only file, mapped into memory, to which the states of graph
+ * elements are written during an animation instead of being kept on the
+ * heap (see LoggedStateHistory). One log serves all elements of a graph.
+ *
+ * Each element state becomes one record: the element, the algorithm state,
+ * and either all attributes (for a checkpoint) or the changes made in that
+ * state together with the position of the record of the state they apply
+ * to (for a delta), just as in GraphElementState. An attribute is its key
+ * index (see AttributeKeys), a type tag and the value; the first time a
+ * key is used a key record with its string is written as well, so that the
+ * file describes itself.
+ *
+ * The file is mapped in segments of SEGMENT_SIZE bytes, more being mapped
+ * as it grows; a record never crosses the end of a segment. Records are
+ * written by whichever thread changes an element, one at a time, and read,
+ * possibly at the same time, by the display; a record is complete before
+ * its position is handed out, and it is never changed afterwards.
+ *
+ * A log that is not temporary is kept, so that the animation can be
+ * replayed later without running the algorithm again. At the end of the
+ * animation finish() writes what is still missing: the latest state of
+ * each element, the states of the graph and of the message banner, and a
+ * directory. The directory describes the graph (name, flags, the nodes
+ * with their ids and positions, the edges with their ids and end points),
+ * the keys and the segments, and lists, for each element, the algorithm
+ * state and the record of each of its states. The header at the start of
+ * the file gives the position of the directory; open() reads it back and
+ * rebuilds the graph, whose elements then read their states from the file.
+ */
+class HistoryLog {
+
+    static final int SEGMENT_SIZE = 64 << 20;
+
+    private static final byte [] MAGIC = { 'G', 'A', 'L', 'H' };
+    private static final int VERSION = 1;
+    /** the magic bytes, the version, and the start and end of the directory */
+    private static final int HEADER_SIZE = 16 + MAGIC.length;
+
+    private static final byte CHECKPOINT = 'C';
+    private static final byte DELTA = 'D';
+    private static final byte KEY = 'K';
+
+    private static final byte INTEGER = 'I';
+    private static final byte DOUBLE = 'F';
+    private static final byte BOOLEAN = 'B';
+    private static final byte STRING = 'S';
+    private static final byte REMOVED = 'R';
+
+    /** stands for no record, e.g., no previous state */
+    static final long NONE = -1;
+
+    private final File file;
+    private final boolean temporary;
+    /** true if finish() is to write a directory, i.e., the log is kept */
+    private final boolean kept;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+
+    /**
+     * the mapped segments and their positions in the file, in order; the
+     * arrays are replaced, never changed, when a segment is added, so that
+     * readers need no lock
+     */
+    private volatile MappedByteBuffer [] segments = new MappedByteBuffer[0];
+    private volatile long [] segmentStarts = new long[0];
+
+    /** position in the file at which the next record goes */
+    private long end = 0;
+    /** first position beyond the last segment */
+    private long mappedEnd = 0;
+
+    /** keys for which a key record has been written */
+    private final BitSet keysWritten = new BitSet();
+    /** number of elements that have a history in this log */
+    private int elements = 0;
+
+    /** true once the directory is written; later states are not recorded */
+    private boolean finished = false;
+    /** the last algorithm state recorded, once the log is finished */
+    private int lastState = 0;
+
+    /**
+     * where the file is cut off when the log is closed, i.e., the end of
+     * the directory once there is one; for a log opened from a file also
+     * where the records read from it end and the index in AttributeKeys of
+     * each key index used in those records
+     */
+    private long fileEnd = 0;
+    private long recordsEnd = 0;
+    private int [] fileKeyIndexes = new int[0];
+
+    /** reused to encode a record before it is copied into the file */
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+    private final GraphDispatch dispatch;
+
+    /**
+     * Creates a log in the given file, replacing its contents.
+     * @param temporary true if the file is to be deleted when the log is
+     * closed
+     */
+    HistoryLog(File file, boolean temporary, GraphDispatch dispatch)
+        throws IOException {
+        this.file = file;
+        this.temporary = temporary;
+        this.kept = ! temporary;
+        this.dispatch = dispatch;
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.randomAccessFile.setLength(0);
+        this.channel = randomAccessFile.getChannel();
+        scratch.clear();
+        scratch.put(MAGIC);
+        scratch.putInt(VERSION);
+        // no directory yet
+        scratch.putLong(0);
+        scratch.putLong(0);
+        write();
+    }
+
+    /**
+     * Opens the file of a kept log as it is; see open()
+     */
+    private HistoryLog(File file, GraphDispatch dispatch) throws IOException {
+        this.file = file;
+        this.temporary = false;
+        this.kept = false;
+        this.dispatch = dispatch;
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = randomAccessFile.getChannel();
+    }
+
+    /**
+     * Creates a log in a temporary file
+     */
+    static HistoryLog createTemporary(GraphDispatch dispatch)
+        throws IOException {
+        File file = File.createTempFile("galant-history", ".log");
+        file.deleteOnExit();
+        return new HistoryLog(file, true, dispatch);
+    }
+
+    File getFile() { return file; }
+
+    /**
+     * @return the last algorithm state of the animation recorded in a log
+     * that has been finished or opened
+     */
+    int getLastState() { return lastState; }
+
+    /**
+     * @return a number identifying a new element in the records of this log
+     */
+    synchronized int newElement() { return elements++; }
+
+    /**
+     * Writes a record for the given state of an element.
+     * @param previousRecord position of the record of the state on which the
+     * state is based, if it is a delta, or NONE if that state has no record;
+     * in the latter case, or if the state is a checkpoint, all its
+     * attributes are written
+     * @return the position of the record
+     */
+    synchronized long append(int element, GraphElementState elementState,
+                             long previousRecord) throws IOException {
+        if ( finished ) return NONE;
+        boolean delta = ! elementState.isCheckpoint() && previousRecord != NONE;
+        ArrayList<Attribute> attributes = delta
+            ? elementState.getChanges()
+            : elementState.getAttributes().getAttributes();
+        return appendRecord(delta ? DELTA : CHECKPOINT, element,
+                            elementState.getState(), previousRecord,
+                            attributes);
+    }
+
+    /**
+     * Writes the key records still missing and then the record of a state
+     * @param previousRecord ignored unless the record is a delta
+     */
+    private long appendRecord(byte kind, int element, int state,
+                              long previousRecord, List<Attribute> attributes)
+        throws IOException {
+        for ( Attribute attribute : attributes ) {
+            int keyIndex = attribute.getKeyIndex();
+            if ( ! keysWritten.get(keyIndex) ) {
+                scratch.clear();
+                scratch.put(KEY);
+                scratch.putInt(keyIndex);
+                putString(attribute.getKey());
+                write();
+                keysWritten.set(keyIndex);
+            }
+        }
+        scratch.clear();
+        scratch.put(kind);
+        scratch.putInt(element);
+        scratch.putInt(state);
+        if ( kind == DELTA ) scratch.putLong(previousRecord);
+        scratch.putInt(attributes.size());
+        for ( Attribute attribute : attributes ) {
+            putAttribute(attribute);
+        }
+        return write();
+    }
+
+    /**
+     * Reads the state whose record is at the given position, following
+     * deltas back to the nearest checkpoint.
+     */
+    GraphElementState read(long position) {
+        ArrayList<ByteBuffer> deltas = new ArrayList<ByteBuffer>();
+        ArrayList<Long> deltaPositions = new ArrayList<Long>();
+        ByteBuffer record = recordAt(position);
+        int state = -1;
+        while ( true ) {
+            byte kind = record.get();
+            record.getInt();    // element
+            int recordState = record.getInt();
+            if ( state < 0 ) state = recordState;
+            if ( kind == CHECKPOINT ) break;
+            long previous = record.getLong();
+            deltas.add(record);
+            deltaPositions.add(position);
+            position = previous;
+            record = recordAt(position);
+        }
+        AttributeList attributes = new AttributeList();
+        int count = record.getInt();
+        for ( int i = 0; i < count; i++ ) {
+            attributes.set(getAttribute(record, position));
+        }
+        for ( int i = deltas.size() - 1; i >= 0; i-- ) {
+            ByteBuffer delta = deltas.get(i);
+            position = deltaPositions.get(i);
+            count = delta.getInt();
+            for ( int j = 0; j < count; j++ ) {
+                Attribute change = getAttribute(delta, position);
+                if ( GraphElementState.isRemoval(change) )
+                    attributes.remove(change.getKey());
+                else
+                    attributes.set(change);
+            }
+        }
+        return new GraphElementState(dispatch, state, attributes);
+    }
+
+    /**
+     * Completes a kept log at the end of the animation, as described in the
+     * class comment; nothing is recorded afterwards. Does nothing if the log
+     * is temporary.
+     * @param nodes all nodes of the graph, including deleted ones and those
+     * added by the algorithm, and likewise edges
+     * @param algorithmState the state the algorithm reached, which may be
+     * later than the last state recorded if nothing changed at the end
+     */
+    synchronized void finish(Graph graph, Node [] nodes, Edge [] edges,
+                             MessageBanner banner,
+                             StateHistory<GraphState> graphStates,
+                             int algorithmState)
+        throws IOException {
+        if ( ! kept || finished ) return;
+        LoggedStateHistory [] nodeHistories
+            = new LoggedStateHistory[nodes.length];
+        for ( int i = 0; i < nodes.length; i++ ) {
+            nodeHistories[i] = completeHistory(nodes[i]);
+        }
+        LoggedStateHistory [] edgeHistories
+            = new LoggedStateHistory[edges.length];
+        for ( int i = 0; i < edges.length; i++ ) {
+            edgeHistories[i] = completeHistory(edges[i]);
+        }
+        LoggedStateHistory bannerHistory = completeHistory(banner);
+        int graphElement = newElement();
+        int graphStateCount = graphStates.size();
+        long [] graphRecords = new long[graphStateCount];
+        for ( int i = 0; i < graphStateCount; i++ ) {
+            List<Attribute> attributes
+                = graphStates.get(i).getAttributes().getAttributes();
+            graphRecords[i] = appendRecord(CHECKPOINT, graphElement,
+                                           graphStates.getStateNumber(i),
+                                           NONE, attributes);
+        }
+        finished = true;
+
+        lastState = Math.max(algorithmState, lastStateOf(graphStates));
+        for ( LoggedStateHistory history : nodeHistories )
+            lastState = Math.max(lastState, lastStateOf(history));
+        for ( LoggedStateHistory history : edgeHistories )
+            lastState = Math.max(lastState, lastStateOf(history));
+        lastState = Math.max(lastState, lastStateOf(bannerHistory));
+
+        // the directory goes right after the last record, through the
+        // channel rather than the mapping, so that it has no gaps
+        long directoryStart = end;
+        channel.position(directoryStart);
+        DataOutputStream out = new DataOutputStream
+            (new BufferedOutputStream(Channels.newOutputStream(channel)));
+        writeString(out, graph.getName());
+        writeString(out, graph.getComment());
+        out.writeBoolean(graph.isDirected());
+        out.writeBoolean(graph.isLayered());
+        out.writeInt(lastState);
+        out.writeInt(keysWritten.cardinality());
+        for ( int key = keysWritten.nextSetBit(0); key >= 0;
+              key = keysWritten.nextSetBit(key + 1) ) {
+            out.writeInt(key);
+            out.writeUTF(AttributeKeys.getKey(key));
+        }
+        out.writeInt(segmentStarts.length);
+        for ( long start : segmentStarts ) out.writeLong(start);
+        out.writeInt(nodes.length);
+        for ( int i = 0; i < nodes.length; i++ ) {
+            out.writeInt(nodes[i].getId());
+            out.writeInt(nodes[i].getFixedX());
+            out.writeInt(nodes[i].getFixedY());
+            writeIndex(out, nodeHistories[i]);
+        }
+        out.writeInt(edges.length);
+        for ( int i = 0; i < edges.length; i++ ) {
+            Integer id = edges[i].getId();
+            out.writeInt(id == null ? -1 : id);
+            out.writeBoolean(edges[i].hasExplicitId());
+            out.writeInt(edges[i].getSourceNode().getId());
+            out.writeInt(edges[i].getTargetNode().getId());
+            writeIndex(out, edgeHistories[i]);
+        }
+        writeIndex(out, bannerHistory);
+        out.writeInt(graphStateCount);
+        for ( int i = 0; i < graphStateCount; i++ ) {
+            out.writeInt(graphStates.getStateNumber(i));
+            out.writeLong(graphRecords[i]);
+        }
+        out.flush();
+        long directoryEnd = channel.position();
+
+        ByteBuffer header = segments[0].duplicate();
+        header.putLong(MAGIC.length + 4, directoryStart);
+        header.putLong(MAGIC.length + 12, directoryEnd);
+        for ( MappedByteBuffer segment : segments ) segment.force();
+        fileEnd = directoryEnd;
+    }
+
+    /**
+     * Opens a log kept by an earlier animation and adds the nodes and edges
+     * it recorded, including those added by the algorithm, to the given
+     * graph, which is new; they then read their states from the log. States
+     * recorded while the animation is replayed, e.g., if an element is
+     * changed, are dropped when the log is closed.
+     */
+    static HistoryLog open(File file, Graph graph)
+        throws IOException, GalantException {
+        HistoryLog log = new HistoryLog(file, graph.getDispatch());
+        try {
+            log.readDirectory(graph);
+        }
+        catch ( IOException | GalantException | RuntimeException e ) {
+            log.close();
+            throw e;
+        }
+        return log;
+    }
+
+    /**
+     * Unmaps (as far as Java allows) and closes the file, deleting it if it
+     * is temporary; a kept file is cut off after its directory, to get rid
+     * of the unused end of the last segment and of records appended after
+     * it was opened. The log cannot be used afterwards.
+     */
+    synchronized void close() {
+        segments = new MappedByteBuffer[0];
+        segmentStarts = new long[0];
+        try {
+            // may fail, e.g., on systems that do not allow a mapped file to
+            // change in size; the directory says where the records end
+            if ( fileEnd > 0 ) channel.truncate(fileEnd);
+        }
+        catch ( IOException e ) {
+        }
+        try {
+            channel.close();
+            randomAccessFile.close();
+        }
+        catch ( IOException e ) { // nothing more to write anyhow
+        }
+        if ( temporary ) file.delete();
+    }
+
+    /**
+     * @return the history of the element in this log, created if the
+     * element keeps its states elsewhere, with all states written
+     */
+    private LoggedStateHistory completeHistory(GraphElement element) {
+        StateHistory<GraphElementState> states = element.states;
+        LoggedStateHistory history
+            = states instanceof LoggedStateHistory
+            && ((LoggedStateHistory) states).getLog() == this
+            ? (LoggedStateHistory) states
+            : new LoggedStateHistory(this, states);
+        history.writeLatest();
+        return history;
+    }
+
+    private static int lastStateOf(StateHistory<?> history) {
+        if ( history.isEmpty() ) return 0;
+        return history.getStateNumber(history.size() - 1);
+    }
+
+    private static void writeIndex(DataOutputStream out,
+                                   LoggedStateHistory history)
+        throws IOException {
+        int size = history.size();
+        out.writeInt(size);
+        for ( int i = 0; i < size; i++ ) {
+            out.writeInt(history.getStateNumber(i));
+            out.writeLong(history.getRecord(i));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value)
+        throws IOException {
+        out.writeBoolean(value != null);
+        if ( value != null ) out.writeUTF(value);
+    }
+
+    /**
+     * Reads the header and the directory, see open()
+     */
+    private void readDirectory(Graph graph)
+        throws IOException, GalantException {
+        byte [] magic = new byte[MAGIC.length];
+        randomAccessFile.readFully(magic);
+        int version = randomAccessFile.readInt();
+        long directoryStart = randomAccessFile.readLong();
+        long directoryEnd = randomAccessFile.readLong();
+        if ( ! Arrays.equals(magic, MAGIC) )
+            throw new IOException(file + " is not a recorded animation");
+        if ( version != VERSION )
+            throw new IOException("Unknown version " + version
+                                  + " of recorded animation " + file);
+        if ( directoryStart < HEADER_SIZE || directoryEnd < directoryStart
+             || directoryEnd > randomAccessFile.length() )
+            throw new IOException("Incomplete recorded animation " + file);
+        recordsEnd = directoryStart;
+        fileEnd = directoryEnd;
+
+        channel.position(directoryStart);
+        DataInputStream in = new DataInputStream
+            (new BufferedInputStream(Channels.newInputStream(channel)));
+        graph.setName(readString(in));
+        graph.setComment(readString(in));
+        graph.setDirected(in.readBoolean());
+        graph.setLayered(in.readBoolean());
+        lastState = in.readInt();
+        int keyCount = in.readInt();
+        for ( int i = 0; i < keyCount; i++ ) {
+            int keyIndex = in.readInt();
+            String key = in.readUTF();
+            if ( keyIndex < 0 )
+                throw new IOException("Bad key index " + keyIndex
+                                      + " in " + file);
+            if ( keyIndex >= fileKeyIndexes.length ) {
+                int length = fileKeyIndexes.length;
+                fileKeyIndexes = Arrays.copyOf(fileKeyIndexes, keyIndex + 1);
+                Arrays.fill(fileKeyIndexes, length, keyIndex + 1, -1);
+            }
+            fileKeyIndexes[keyIndex] = AttributeKeys.intern(key);
+        }
+
+        // each segment is mapped up to the next, the last one up to the
+        // directory, so that every record lies within one segment
+        int segmentCount = in.readInt();
+        long [] starts = new long[segmentCount];
+        MappedByteBuffer [] mapped = new MappedByteBuffer[segmentCount];
+        for ( int i = 0; i < segmentCount; i++ ) starts[i] = in.readLong();
+        for ( int i = 0; i < segmentCount; i++ ) {
+            long limit = i + 1 < segmentCount ? starts[i + 1] : directoryStart;
+            if ( starts[i] < 0 || limit < starts[i]
+                 || limit - starts[i] > Integer.MAX_VALUE )
+                throw new IOException("Bad segment at " + starts[i]
+                                      + " in " + file);
+            mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                    starts[i], limit - starts[i]);
+        }
+        segmentStarts = starts;
+        segments = mapped;
+        // anything appended goes after the directory, in a new segment
+        end = mappedEnd = directoryEnd;
+
+        // by id, including nodes that are deleted in the end
+        HashMap<Integer, Node> nodesById = new HashMap<Integer, Node>();
+        int nodeCount = in.readInt();
+        for ( int i = 0; i < nodeCount; i++ ) {
+            int id = in.readInt();
+            int x = in.readInt();
+            int y = in.readInt();
+            Node node = new Node(graph, id, x, y);
+            node.states = readIndex(in);
+            graph.addNode(node);
+            nodesById.put(id, node);
+        }
+        int edgeCount = in.readInt();
+        for ( int i = 0; i < edgeCount; i++ ) {
+            int id = in.readInt();
+            boolean explicitId = in.readBoolean();
+            Node source = nodesById.get(in.readInt());
+            Node target = nodesById.get(in.readInt());
+            if ( source == null || target == null )
+                throw new IOException("Edge with a missing end point in "
+                                      + file);
+            Edge edge = new Edge(graph, source, target);
+            if ( id >= 0 ) edge.setId(id);
+            edge.hasExplicitId = explicitId;
+            edge.states = readIndex(in);
+            graph.addEdge(edge);
+        }
+        graph.getBanner().states = readIndex(in);
+        int graphStateCount = in.readInt();
+        StateHistory<GraphState> graphStates = new StateHistory<GraphState>();
+        for ( int i = 0; i < graphStateCount; i++ ) {
+            int stateNumber = in.readInt();
+            GraphElementState state = read(checkRecord(in.readLong()));
+            graphStates.add(stateNumber,
+                            new GraphState(dispatch, stateNumber,
+                                           state.getAttributes()));
+        }
+        graph.states = graphStates;
+    }
+
+    /**
+     * @return the history of an element as given by its list of states and
+     * records in the directory
+     */
+    private LoggedStateHistory readIndex(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if ( size <= 0 )
+            throw new IOException("Bad number of states " + size
+                                  + " in " + file);
+        int [] stateNumbers = new int[size];
+        long [] records = new long[size];
+        for ( int i = 0; i < size; i++ ) {
+            stateNumbers[i] = in.readInt();
+            records[i] = checkRecord(in.readLong());
+        }
+        return new LoggedStateHistory(this, stateNumbers, records);
+    }
+
+    private long checkRecord(long position) throws IOException {
+        if ( position < HEADER_SIZE || position >= recordsEnd )
+            throw new IOException("Bad record position " + position
+                                  + " in " + file);
+        return position;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private void putAttribute(Attribute attribute) {
+        ensureScratch(16);
+        scratch.putInt(attribute.getKeyIndex());
+        if ( GraphElementState.isRemoval(attribute) ) {
+            scratch.put(REMOVED);
+        }
+        else if ( attribute instanceof IntegerAttribute ) {
+            scratch.put(INTEGER);
+            scratch.putInt(((IntegerAttribute) attribute).intValue());
+        }
+        else if ( attribute instanceof DoubleAttribute ) {
+            scratch.put(DOUBLE);
+            scratch.putDouble(((DoubleAttribute) attribute).doubleValue());
+        }
+        else if ( attribute instanceof BooleanAttribute ) {
+            scratch.put(BOOLEAN);
+            scratch.put((byte) (((BooleanAttribute) attribute).booleanValue() ? 1 : 0));
+        }
+        else {
+            scratch.put(STRING);
+            putString(attribute.getStringValue());
+        }
+    }
+
+    /**
+     * @param position the position of the record, which tells whether it
+     * was read from a file, with key indexes of its own
+     */
+    private Attribute getAttribute(ByteBuffer record, long position) {
+        int keyIndex = record.getInt();
+        if ( position < recordsEnd ) {
+            keyIndex = keyIndex < fileKeyIndexes.length
+                ? fileKeyIndexes[keyIndex] : -1;
+            if ( keyIndex < 0 )
+                throw new IllegalStateException("Unknown key in " + file);
+        }
+        String key = AttributeKeys.getKey(keyIndex);
+        byte type = record.get();
+        switch ( type ) {
+        case REMOVED:
+            return GraphElementState.removal(key);
+        case INTEGER:
+            return new IntegerAttribute(key, record.getInt());
+        case DOUBLE:
+            return new DoubleAttribute(key, record.getDouble());
+        case BOOLEAN:
+            return new BooleanAttribute(key, record.get() != 0);
+        case STRING:
+            byte [] bytes = new byte[record.getInt()];
+            record.get(bytes);
+            return new StringAttribute(key, new String(bytes, StandardCharsets.UTF_8));
+        default:
+            throw new IllegalStateException("Bad attribute type " + type
+                                            + " in " + file);
+        }
+    }
+
+    private void putString(String value) {
+        byte [] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureScratch(4 + bytes.length);
+        scratch.putInt(bytes.length);
+        scratch.put(bytes);
+    }
+
+    private void ensureScratch(int room) {
+        if ( scratch.remaining() < room ) {
+            ByteBuffer larger
+                = ByteBuffer.allocate(Math.max(2 * scratch.capacity(),
+                                               scratch.position() + room));
+            scratch.flip();
+            larger.put(scratch);
+            scratch = larger;
+        }
+    }
+
+    /**
+     * Copies the record in the scratch buffer to the end of the file
+     * @return its position
+     */
+    private long write() throws IOException {
+        scratch.flip();
+        int length = scratch.remaining();
+        if ( end + length > mappedEnd ) {
+            mapSegment(Math.max(SEGMENT_SIZE, length));
+        }
+        MappedByteBuffer [] segments = this.segments;
+        ByteBuffer segment = segments[segments.length - 1].duplicate();
+        long position = end;
+        segment.position((int) (position - mappedEnd + segment.capacity()));
+        segment.put(scratch);
+        end += length;
+        return position;
+    }
+
+    /**
+     * Maps a new segment of the given size at the end of the file; the rest
+     * of the current segment, if any, is left unused
+     */
+    private void mapSegment(int size) throws IOException {
+        long start = end;
+        MappedByteBuffer segment
+            = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+        MappedByteBuffer [] newSegments
+            = Arrays.copyOf(segments, segments.length + 1);
+        long [] newStarts = Arrays.copyOf(segmentStarts, segmentStarts.length + 1);
+        newSegments[newSegments.length - 1] = segment;
+        newStarts[newStarts.length - 1] = start;
+        segmentStarts = newStarts;
+        segments = newSegments;
+        mappedEnd = start + size;
+    }
+
+    /**
+     * @return a view of the file positioned at the record at the given
+     * position
+     */
+    private ByteBuffer recordAt(long position) {
+        MappedByteBuffer [] segments = this.segments;
+        long [] starts = this.segmentStarts;
+        int index = Arrays.binarySearch(starts, 0, segments.length, position);
+        if ( index < 0 ) index = -(index + 1) - 1;
+        ByteBuffer record = segments[index].duplicate();
+        record.position((int) (position - starts[index]));
+        return record;
+    }
+}
+
+//  [Last modified: 2026 10 19 at 13:05:47 GMT]
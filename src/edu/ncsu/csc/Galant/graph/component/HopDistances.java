@@ -0,0 +1,160 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The number of hops (edges on a shortest path) between pairs of nodes of
+ * a layout, ignoring direction; used by GraphLayout for repulsion factors.
+ * The nodes are given by their indexes in the layout and the graph by
+ * adjacency arrays as in GraphLayout.
+ *
+ * Distances are computed by a breadth-first search from each node, the
+ * searches running in parallel. Up to EXACT_LIMIT nodes they are kept in a
+ * matrix of bytes, a distance of MAX_HOPS or more (including none at all)
+ * being recorded as MAX_HOPS. For larger graphs that matrix would be too
+ * big; instead a search is done only from PIVOTS nodes, chosen to be far
+ * apart, and the distance between two nodes is estimated as the largest
+ * difference of their distances to a pivot, a lower bound that is exact
+ * whenever one of the nodes is a pivot or lies on a shortest path from
+ * one to the other.
+ */
+class HopDistances {
+
+    /** largest number of nodes for which all distances are kept */
+    static final int EXACT_LIMIT = 8192;
+
+    /** number of breadth-first searches for larger graphs */
+    static final int PIVOTS = 64;
+
+    /** distances are capped at this */
+    static final int MAX_HOPS = 255;
+
+    private final int n;
+
+    /** distances between all pairs, row by row, unsigned; or null */
+    private final byte [] matrix;
+
+    /** distances from each pivot to all nodes; or null */
+    private final short [][] pivotDistances;
+
+    HopDistances(int [] adjacencyStart, int [] adjacency) {
+        n = adjacencyStart.length - 1;
+        if ( n <= EXACT_LIMIT ) {
+            matrix = new byte[n * n];
+            pivotDistances = null;
+            IntStream.range(0, n).parallel().forEach(source -> {
+                short [] distance = new short[n];
+                int [] queue = new int[n];
+                search(adjacencyStart, adjacency, source, distance, queue);
+                int row = source * n;
+                for ( int i = 0; i < n; i++ ) {
+                    matrix[row + i] = (byte) Math.min(distance[i], MAX_HOPS);
+                }
+            });
+        }
+        else {
+            matrix = null;
+            pivotDistances = choosePivots(adjacencyStart, adjacency);
+        }
+    }
+
+    /**
+     * @return the number of hops between nodes i and j, at most MAX_HOPS
+     */
+    int get(int i, int j) {
+        if ( i == j ) return 0;
+        if ( matrix != null ) return matrix[i * n + j] & 0xFF;
+        int hops = 1;
+        for ( short [] distance : pivotDistances ) {
+            hops = Math.max(hops, Math.abs(distance[i] - distance[j]));
+        }
+        return Math.min(hops, MAX_HOPS);
+    }
+
+    /**
+     * Picks pivots one after the other, each being a node farthest from
+     * the ones picked so far; the searches from a batch of pivots run in
+     * parallel, so there are no distances yet from the pivots of the
+     * current batch. For those the estimates of get() are used instead,
+     * which keeps a batch from being one cluster of far away nodes. The
+     * first batch is node 0 alone, since before any search all nodes are
+     * equally far.
+     * @return the distances from each pivot
+     */
+    private static short [][] choosePivots(int [] adjacencyStart,
+                                           int [] adjacency) {
+        int n = adjacencyStart.length - 1;
+        int batch = Math.max(1, Runtime.getRuntime().availableProcessors());
+        short [][] distances = new short[PIVOTS][];
+        // distance from each node to the nearest pivot so far
+        int [] nearest = new int[n];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+        int [] pivots = new int[PIVOTS];
+        int chosen = 0;
+        while ( chosen < PIVOTS ) {
+            int count = chosen == 0 ? 1 : Math.min(batch, PIVOTS - chosen);
+            int [] estimate = nearest.clone();
+            for ( int b = 0; b < count; b++ ) {
+                int farthest = 0;
+                for ( int i = 1; i < n; i++ ) {
+                    if ( estimate[i] > estimate[farthest] ) farthest = i;
+                }
+                pivots[chosen + b] = farthest;
+                for ( int i = 0; i < n; i++ ) {
+                    int bound = 0;
+                    for ( int p = 0; p < chosen; p++ ) {
+                        bound = Math.max(bound, Math.abs(distances[p][i]
+                                                         - distances[p][farthest]));
+                    }
+                    estimate[i] = Math.min(estimate[i], bound);
+                }
+            }
+            final int first = chosen;
+            IntStream.range(first, first + count).parallel().forEach(p -> {
+                distances[p] = new short[n];
+                search(adjacencyStart, adjacency, pivots[p],
+                       distances[p], new int[n]);
+            });
+            for ( int p = first; p < first + count; p++ ) {
+                for ( int i = 0; i < n; i++ ) {
+                    nearest[i] = Math.min(nearest[i], distances[p][i]);
+                }
+            }
+            chosen += count;
+        }
+        return distances;
+    }
+
+    /**
+     * Breadth-first search from source; nodes that cannot be reached, and
+     * those farther than Short.MAX_VALUE hops, get distance Short.MAX_VALUE
+     * @param queue space for the queue, at least n entries
+     */
+    private static void search(int [] adjacencyStart, int [] adjacency,
+                               int source, short [] distance, int [] queue) {
+        // -1 until a node is reached
+        Arrays.fill(distance, (short) -1);
+        distance[source] = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        while ( head < tail ) {
+            int current = queue[head++];
+            short next = (short) Math.min(distance[current] + 1, Short.MAX_VALUE);
+            for ( int k = adjacencyStart[current];
+                  k < adjacencyStart[current + 1]; k++ ) {
+                int neighbor = adjacency[k];
+                if ( distance[neighbor] < 0 ) {
+                    distance[neighbor] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        for ( int i = 0; i < distance.length; i++ ) {
+            if ( distance[i] < 0 ) distance[i] = Short.MAX_VALUE;
+        }
+    }
+}
+
+//  [Last modified: 2026 10 19 at 10:21:14 GMT]
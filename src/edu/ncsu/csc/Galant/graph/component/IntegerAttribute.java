@@ -1,17 +1,32 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
+
 public class IntegerAttribute extends Attribute implements Cloneable {
-    private Integer value;
+    private final int value;
+    /** boxed value, created at most once, when first asked for */
+    private Integer boxedValue;
+    public IntegerAttribute(String key, int value) {
+        super(key);
+        this.value = value;
+    }
     public IntegerAttribute(String key, Integer value) {
         super(key);
         this.value = value;
+        this.boxedValue = value;
+    }
+    public int intValue() { return value; }
+    public Integer getIntegerValue() {
+        if ( boxedValue == null ) boxedValue = value;
+        return boxedValue;
     }
-    public Integer getIntegerValue() { return value; }
-    public void set(Integer value) { this.value = value; }
     public Attribute clone() { return new IntegerAttribute(key, value); }
     public String toString() {
         return key + "=\"" + value + "\"";
     }
+    public void appendTo(Appendable out) throws IOException {
+        out.append(key).append("=\"").append(Integer.toString(value)).append('"');
+    }
 }
 
-//  [Last modified: 2015 07 27 at 15:56:47 GMT]
+//  [Last modified: 2026 10 18 at 15:37:30 GMT]
@@ -0,0 +1,298 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * A StateHistory of a graph element that keeps only the initial and the
+ * latest state on the heap; all others are written to a HistoryLog as soon
+ * as they are superseded and read back (decoded) when the display steps
+ * back to them. An entry costs an int and a long on the heap instead of a
+ * GraphElementState, so that animations with millions of steps on large
+ * graphs do not run out of memory.
+ *
+ * As with StateHistory, only the algorithm thread adds states; the display
+ * may read at the same time. An entry is complete before it can be seen,
+ * i.e., before the (volatile) latest entry or size changes.
+ */
+class LoggedStateHistory extends StateHistory<GraphElementState> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** a state together with its index in the history */
+    private static final class Entry {
+        final int index;
+        final GraphElementState state;
+        Entry(int index, GraphElementState state) {
+            this.index = index;
+            this.state = state;
+        }
+    }
+
+    /** a state decoded from the log together with the position of its record */
+    private static final class Decoded {
+        final long record;
+        final GraphElementState state;
+        Decoded(long record, GraphElementState state) {
+            this.record = record;
+            this.state = state;
+        }
+    }
+
+    private final HistoryLog log;
+    /** identifies the element in the records of the log */
+    private final int element;
+
+    /**
+     * stateNumbers[i] is the algorithm state of the i-th entry, records[i]
+     * the position of its record in the log, or HistoryLog.NONE if it has
+     * none (yet); both are valid up to size
+     */
+    private int [] stateNumbers = new int[INITIAL_CAPACITY];
+    private long [] records = new long[INITIAL_CAPACITY];
+    private volatile int size = 0;
+
+    private volatile GraphElementState initial;
+    private volatile Entry latest;
+
+    /**
+     * the state most recently written to the log and its record; the next
+     * state is written as a delta if it is based on this one
+     */
+    private GraphElementState lastWritten;
+    private long lastWrittenRecord = HistoryLog.NONE;
+
+    /** the state most recently decoded; the display often asks again */
+    private volatile Decoded cached;
+
+    /**
+     * Creates a history with the same entries as the given one
+     */
+    LoggedStateHistory(HistoryLog log, StateHistory<GraphElementState> history) {
+        super(0);
+        this.log = log;
+        this.element = log.newElement();
+        for ( int i = 0; i < history.size(); i++ ) {
+            add(history.getStateNumber(i), history.get(i));
+        }
+    }
+
+    /**
+     * Creates a history of an element recorded in a log that has been
+     * opened, given the algorithm state and the record of each entry
+     */
+    LoggedStateHistory(HistoryLog log, int [] stateNumbers, long [] records) {
+        super(0);
+        this.log = log;
+        this.element = log.newElement();
+        this.stateNumbers = stateNumbers;
+        this.records = records;
+        int size = stateNumbers.length;
+        this.initial = log.read(records[0]);
+        this.latest = new Entry(size - 1, size == 1
+                                ? initial : log.read(records[size - 1]));
+        this.size = size;
+    }
+
+    HistoryLog getLog() { return log; }
+
+    /**
+     * @return the position in the log of the record of the i-th state, or
+     * HistoryLog.NONE if it has none (yet)
+     */
+    long getRecord(int i) { return records[i]; }
+
+    /**
+     * Writes the record of the latest state, which otherwise has none until
+     * it is superseded, e.g., when a kept log is finished
+     */
+    void writeLatest() {
+        Entry latest = this.latest;
+        if ( latest != null ) writeRecord(latest.index, latest.state);
+    }
+
+    /**
+     * @return an in-memory history with the same entries, e.g., once the
+     * log is about to be closed
+     */
+    StateHistory<GraphElementState> toStateHistory() {
+        StateHistory<GraphElementState> history
+            = new StateHistory<GraphElementState>();
+        int size = this.size;
+        for ( int i = 0; i < size; i++ ) {
+            history.add(stateNumbers[i], get(i));
+        }
+        return history;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    @Override
+    public GraphElementState get(int i) {
+        int size = this.size;
+        if ( i < 0 || i >= size )
+            throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        return stateAt(i);
+    }
+
+    @Override
+    public int getStateNumber(int i) {
+        int size = this.size;
+        if ( i < 0 || i >= size )
+            throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        return stateNumbers[i];
+    }
+
+    @Override
+    public GraphElementState latest() {
+        Entry latest = this.latest;
+        return latest == null ? null : latest.state;
+    }
+
+    @Override
+    public boolean add(int stateNumber, GraphElementState state) {
+        int size = this.size;
+        if ( size > 0 && stateNumbers[size - 1] == stateNumber ) {
+            // the usual replacement of the latest state
+            records[size - 1] = HistoryLog.NONE;
+            if ( size == 1 ) initial = state;
+            latest = new Entry(size - 1, state);
+            return false;
+        }
+        if ( size > 0 && stateNumbers[size - 1] > stateNumber ) {
+            return addEarlier(stateNumber, state);
+        }
+        if ( size > 0 ) writeRecord(size - 1, latest.state);
+        ensureCapacity(size + 1);
+        stateNumbers[size] = stateNumber;
+        records[size] = HistoryLog.NONE;
+        if ( size == 0 ) initial = state;
+        latest = new Entry(size, state);
+        this.size = size + 1;
+        return true;
+    }
+
+    /**
+     * Adds or replaces a state before the latest one; rare, so the state is
+     * simply written in full and the later entries are shifted.
+     */
+    private boolean addEarlier(int stateNumber, GraphElementState state) {
+        int size = this.size;
+        long record = append(state, HistoryLog.NONE);
+        int position = Arrays.binarySearch(stateNumbers, 0, size, stateNumber);
+        if ( position >= 0 ) {
+            records[position] = record;
+            if ( position == 0 ) initial = state;
+            return false;
+        }
+        position = -(position + 1);
+        ensureCapacity(size + 1);
+        System.arraycopy(stateNumbers, position,
+                         stateNumbers, position + 1, size - position);
+        System.arraycopy(records, position, records, position + 1, size - position);
+        stateNumbers[position] = stateNumber;
+        records[position] = record;
+        if ( position == 0 ) initial = state;
+        latest = new Entry(size, latest.state);
+        this.size = size + 1;
+        return true;
+    }
+
+    @Override
+    public GraphElementState getLatestValid(int stateNumber) {
+        int size = this.size;
+        if ( size == 0 || stateNumbers[0] > stateNumber ) return null;
+        Entry latest = this.latest;
+        if ( stateNumbers[latest.index] <= stateNumber ) return latest.state;
+        int position = Arrays.binarySearch(stateNumbers, 0, size, stateNumber);
+        if ( position < 0 ) position = -(position + 1) - 1;
+        return stateAt(position);
+    }
+
+    @Override
+    public int getLatestValidStateNumber(int stateNumber) {
+        int size = this.size;
+        if ( size == 0 || stateNumbers[0] > stateNumber ) return -1;
+        int position = Arrays.binarySearch(stateNumbers, 0, size, stateNumber);
+        if ( position < 0 ) position = -(position + 1) - 1;
+        return stateNumbers[position];
+    }
+
+    @Override
+    public void truncateAfter(int stateNumber) {
+        int size = this.size;
+        int position = Arrays.binarySearch(stateNumbers, 0, size, stateNumber);
+        int newSize = position >= 0 ? position + 1 : -(position + 1);
+        if ( newSize == size ) return;
+        if ( newSize == 0 ) {
+            initial = null;
+            latest = null;
+        }
+        else {
+            latest = new Entry(newSize - 1, stateAt(newSize - 1));
+        }
+        cached = null;
+        this.size = newSize;
+    }
+
+    /**
+     * @return the i-th state, decoding it from the log unless it is the
+     * initial or the latest one
+     */
+    private GraphElementState stateAt(int i) {
+        Entry latest = this.latest;
+        if ( latest != null && i == latest.index ) return latest.state;
+        if ( i == 0 ) return initial;
+        long record = records[i];
+        Decoded cached = this.cached;
+        if ( cached != null && cached.record == record ) return cached.state;
+        GraphElementState state = log.read(record);
+        this.cached = new Decoded(record, state);
+        return state;
+    }
+
+    /**
+     * Writes the record of the i-th state, the one being superseded, unless
+     * it already has one
+     */
+    private void writeRecord(int i, GraphElementState state) {
+        if ( records[i] != HistoryLog.NONE ) return;
+        GraphElementState previous = state.getPrevious();
+        long previousRecord = previous != null && previous == lastWritten
+            ? lastWrittenRecord : HistoryLog.NONE;
+        long record = append(state, previousRecord);
+        records[i] = record;
+        lastWritten = state;
+        lastWrittenRecord = record;
+    }
+
+    private long append(GraphElementState state, long previousRecord) {
+        try {
+            return log.append(element, state, previousRecord);
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException("unable to record history in "
+                                           + log.getFile(), e);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if ( capacity > stateNumbers.length ) {
+            int newCapacity = Math.max(capacity, 2 * stateNumbers.length);
+            stateNumbers = Arrays.copyOf(stateNumbers, newCapacity);
+            records = Arrays.copyOf(records, newCapacity);
+        }
+    }
+
+    public String toString() {
+        return "[ " + size + " states, initial " + initial
+            + ", latest " + latest() + " ]";
+    }
+}
+
+//  [Last modified: 2026 10 19 at 13:07:12 GMT]
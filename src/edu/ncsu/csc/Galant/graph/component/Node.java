@@ -1,7 +1,9 @@
 package edu.ncsu.csc.Galant.graph.component;
 
 import java.awt.Point;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +38,18 @@ public class Node extends GraphElement {
     private int yCoordinate;
 	private EdgeList incidentEdges;
 
+    /**
+     * The incident, outgoing and incoming edges that are in scope in the
+     * latest state; null if they need to be recomputed. As with the lists
+     * of nodes and edges kept by Graph, a list is replaced, never modified,
+     * and all three are invalidated whenever an incident edge is added,
+     * removed, deleted or undeleted. The outgoing and incoming lists are
+     * used only if the graph is directed.
+     */
+    private volatile List<Edge> liveIncident;
+    private volatile List<Edge> liveOutgoing;
+    private volatile List<Edge> liveIncoming;
+
     /**
      * When a node is created during parsing and id is not known.
      */
@@ -67,7 +81,7 @@ public class Node extends GraphElement {
         this.xCoordinate = x;
         this.yCoordinate = y;
         // set starting position based on the initial one
-        if ( GraphDispatch.getInstance().algorithmMovesNodes() ) {
+        if ( dispatch.algorithmMovesNodes() ) {
             GraphElementState startingState = latestState();
             startingState.set("x", x);
             startingState.set("y", y);
@@ -81,6 +95,7 @@ public class Node extends GraphElement {
 
     public void setIncidentEdges(Collection<Edge> edges) {
       this.incidentEdges = new EdgeList(edges);
+      adjacencyChanged();
     }
 
     /**
@@ -88,22 +103,22 @@ public class Node extends GraphElement {
      * during algorithm execution.
      */
     public Integer getX() {
-        Integer x = super.getInteger("x");
+        Integer x = integerValue(getAttribute(AttributeKeys.X));
         if ( x == null ) x = this.xCoordinate;
         return x;
     }
     public Integer getY() {
-        Integer y = super.getInteger("y");
+        Integer y = integerValue(getAttribute(AttributeKeys.Y));
         if ( y == null ) y = this.yCoordinate;
         return y;
     }
     public Integer getX(int state) {
-        Integer x = super.getInteger(state, "x");
+        Integer x = integerValue(getAttribute(state, AttributeKeys.X));
         if ( x == null ) x = this.xCoordinate;
         return x;
     }
     public Integer getY(int state) {
-        Integer y = super.getInteger(state, "y");
+        Integer y = integerValue(getAttribute(state, AttributeKeys.Y));
         if ( y == null ) y = this.yCoordinate;
         return y;
     }
@@ -146,16 +161,16 @@ public class Node extends GraphElement {
     }
 
     public Integer getLayer() {
-        return super.getInteger("layer");
+        return integerValue(getAttribute(AttributeKeys.LAYER));
     }
     public Integer getPositionInLayer() {
-        return super.getInteger("positionInLayer");
+        return integerValue(getAttribute(AttributeKeys.POSITION_IN_LAYER));
     }
     public Integer getLayer(int state) {
-        return super.getInteger(state, "layer");
+        return integerValue(getAttribute(state, AttributeKeys.LAYER));
     }
     public Integer getPositionInLayer(int state) {
-        return super.getInteger(state, "positionInLayer");
+        return integerValue(getAttribute(state, AttributeKeys.POSITION_IN_LAYER));
     }
     public void setLayer(Integer layer) throws Terminate {
         super.set("layer", layer);
@@ -227,10 +242,10 @@ public class Node extends GraphElement {
                 if ( xString == null || yString == null ) {
                     Random r = new Random();
                     if ( xString == null ) {
-                        x = r.nextInt(GraphDispatch.getInstance().getWindowWidth());
+                        x = r.nextInt(dispatch.getWindowWidth());
                     }
                     if ( yString == null ) {
-                        y = r.nextInt(GraphDispatch.getInstance().getWindowHeight());
+                        y = r.nextInt(dispatch.getWindowHeight());
                     }
                 }
                 else {
@@ -270,10 +285,10 @@ public class Node extends GraphElement {
 
     /**************** marking *******************/
 	public Boolean isVisited() {
-		return super.getBoolean(MARKED);
+		return isTrue(getAttribute(AttributeKeys.MARKED));
 	}
 	public Boolean isVisited(int state) {
-		return super.getBoolean(state, MARKED);
+		return isTrue(getAttribute(state, AttributeKeys.MARKED));
 	}
 
 	public boolean isMarked() {
@@ -305,23 +320,95 @@ public class Node extends GraphElement {
 
     public void addEdge(Edge edge) {
 		incidentEdges.add(edge);
+        adjacencyChanged();
 	}
 
+    /**
+     * Removes the edge from the incident edges altogether, as opposed to
+     * deleting it
+     */
+    public void removeEdge(Edge edge) {
+        incidentEdges.remove(edge);
+        adjacencyChanged();
+    }
+
+    /**
+     * Called when an incident edge may have come into or gone out of scope
+     */
+    void adjacencyChanged() {
+        liveIncident = null;
+        liveOutgoing = null;
+        liveIncoming = null;
+    }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        adjacencyChanged();
+    }
+
+    /**
+     * @return a read-only list of the edges incident on this node that are
+     * in scope; unlike getIncidentEdges(), which returns a copy the caller
+     * may modify, this takes time proportional to the degree only after the
+     * edges have changed and does not allocate otherwise.
+     */
+    public List<Edge> incidentView() {
+        List<Edge> live = liveIncident;
+        if ( live == null ) {
+            EdgeList inScope = new EdgeList();
+            for ( int i = 0; i < incidentEdges.size(); i++ ) {
+                Edge e = incidentEdges.get(i);
+                if ( e.inScope() ) inScope.add(e);
+            }
+            live = Collections.unmodifiableList(inScope);
+            liveIncident = live;
+        }
+        return live;
+    }
+
+    /**
+     * @return a read-only list of the outgoing edges in scope, i.e., the
+     * incident ones if the graph is undirected; see incidentView()
+     */
+    public List<Edge> outgoingView() {
+        if ( ! graph.isDirected() ) return incidentView();
+        List<Edge> live = liveOutgoing;
+        if ( live == null ) {
+            EdgeList outgoing = new EdgeList();
+            for ( Edge e : incidentView() ) {
+                if ( this.equals( e.getSourceNode() ) ) outgoing.add(e);
+            }
+            live = Collections.unmodifiableList(outgoing);
+            liveOutgoing = live;
+        }
+        return live;
+    }
+
+    /**
+     * @return a read-only list of the incoming edges in scope, i.e., the
+     * incident ones if the graph is undirected; see incidentView()
+     */
+    public List<Edge> incomingView() {
+        if ( ! graph.isDirected() ) return incidentView();
+        List<Edge> live = liveIncoming;
+        if ( live == null ) {
+            EdgeList incoming = new EdgeList();
+            for ( Edge e : incidentView() ) {
+                if ( this.equals( e.getTargetNode() ) ) incoming.add(e);
+            }
+            live = Collections.unmodifiableList(incoming);
+            liveIncoming = live;
+        }
+        return live;
+    }
+
 	/**
 	 * @return the node's outgoing edges, based on source and target
 	 * specs; if the graph is undirected, all incident edges are returned
 	 */
 	public EdgeList getOutgoingEdges() {
-		EdgeList currentEdges = new EdgeList();
-		for ( Edge e : incidentEdges ) {
-			if ( e.inScope() ) {
-				if ( this.equals( e.getSourceNode() )
-                    || ! graph.isDirected() ) {
-					currentEdges.add(e);
-				}
-			}
-		}
-		return currentEdges;
+		return new EdgeList(outgoingView());
 	}
 
 	/**
@@ -329,16 +416,7 @@ public class Node extends GraphElement {
 	 * specs; if the graph is undirected, all edges are incoming
 	 */
 	public EdgeList getIncomingEdges() {
-		EdgeList currentEdges = new EdgeList();
-		for ( Edge e : incidentEdges ) {
-			if ( e.inScope() ) {
-				if ( this.equals( e.getTargetNode() )
-                     || ! graph.isDirected() ) {
-					currentEdges.add( e );
-				}
-			}
-		}
-		return currentEdges;
+		return new EdgeList(incomingView());
 	}
 
     /**
@@ -346,14 +424,7 @@ public class Node extends GraphElement {
      * they are incoming or outgoing.
      */
     public EdgeList getIncidentEdges() {
- 		EdgeList currentEdges = new EdgeList();
-
-		for ( Edge e : incidentEdges ) {
-			if ( e.inScope() ) {
-                currentEdges.add(e);
-            }
-        }
-		return currentEdges;
+		return new EdgeList(incidentView());
     }
 
     /**
@@ -367,7 +438,7 @@ public class Node extends GraphElement {
      * @return the nodes adjacent to this node (as a templated list)
      */
     public NodeList getAdjacentNodes() {
-        EdgeList edges = getIncidentEdges();
+        List<Edge> edges = incidentView();
         NodeList nodes = new NodeList();
         for ( Edge e: edges ) {
             nodes.add(travel(e));
@@ -438,11 +509,11 @@ public class Node extends GraphElement {
 	}
 
     /**
-     * The following methods use the edge list getters to return degrees
+     * The following methods use the edge list views to return degrees
      */
-    public int getOutdegree() { return getOutgoingEdges().size(); }
-    public int getIndegree() { return getIncomingEdges().size(); }
-    public int getDegree() { return getIncidentEdges().size(); }
+    public int getOutdegree() { return outgoingView().size(); }
+    public int getIndegree() { return incomingView().size(); }
+    public int getDegree() { return incidentView().size(); }
 
     /**
      * when hiding a node, you also have to hide its incident edges
@@ -595,6 +666,8 @@ public class Node extends GraphElement {
 	public void setFixedPosition(int x, int y) {
         xCoordinate = x;
         yCoordinate = y;
+        if ( graph != null ) graph.fixedPositionChanged();
+        dispatch.elementChanged(GraphDispatch.NODE_POSITION, this);
 	}
 
     public static Point genRandomPosition() {
@@ -615,30 +688,64 @@ public class Node extends GraphElement {
      */
 	public String xmlString()
     {
-        String s = "<node" + " id=\"" + this.getId() + "\"";
-        s += " x=\"" + this.getFixedX() + "\"";
-        s += " y=\"" + this.getFixedY() + "\" ";
-        s += super.attributesWithoutPosition();
-        s += " />";
-		return s;
+        StringBuilder s = new StringBuilder();
+        try {
+            writeXml(s);
+        }
+        catch ( IOException e ) { // a StringBuilder does not throw these
+            throw new IllegalStateException(e);
+        }
+		return s.toString();
 	}
 
+    /**
+     * Writes the GraphML element for this node, same as xmlString(), to
+     * out
+     */
+    public void writeXml(Appendable out) throws IOException {
+        out.append("<node id=\"").append(String.valueOf(this.getId()));
+        out.append("\" x=\"").append(String.valueOf(this.getFixedX()));
+        out.append("\" y=\"").append(String.valueOf(this.getFixedY()));
+        out.append("\" ");
+        latestState().writeAttributes(out, AttributeKeys.X, AttributeKeys.Y);
+        out.append(" />");
+    }
+
     /**
      * This version is called when the current state of the animation is
      * exported.
      */
 	public String xmlString(int state) {
+        StringBuilder s = new StringBuilder();
+        try {
+            writeXml(s, state);
+        }
+        catch ( IOException e ) { // a StringBuilder does not throw these
+            throw new IllegalStateException(e);
+        }
+		return s.toString();
+	}
+
+    /**
+     * Writes the GraphML element for this node as of the given state, same
+     * as xmlString(state), to out; writes nothing if the node is not in
+     * scope at that state
+     */
+    public void writeXml(Appendable out, int state) throws IOException {
         if ( ! inScope(state) ) {
-            return "";
+            return;
         }
-        String s = "<node" + " id=\"" + this.getId() + "\"";
+        out.append("<node id=\"").append(String.valueOf(this.getId()));
         // if algorithm doesn't move nodes, only the fixed position is set
-        s += " x=\"" + this.getX(state) + "\"";
-        s += " y=\"" + this.getY(state) + "\" ";
-        s += super.attributesWithoutPosition(state);
-        s += "/>";
-		return s;
-	}
+        out.append("\" x=\"").append(String.valueOf(this.getX(state)));
+        out.append("\" y=\"").append(String.valueOf(this.getY(state)));
+        out.append("\" ");
+        GraphElementState elementState = getLatestValidState(state);
+        if ( elementState != null ) {
+            elementState.writeAttributes(out, AttributeKeys.X, AttributeKeys.Y);
+        }
+        out.append("/>");
+    }
 
     /**
      * For debugging only
@@ -655,4 +762,4 @@ public class Node extends GraphElement {
 	}
 }
 
-//  [Last modified: 2017 01 19 at 15:08:14 GMT]
+//  [Last modified: 2026 10 19 at 00:31:15 GMT]
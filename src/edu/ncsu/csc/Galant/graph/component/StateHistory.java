@@ -0,0 +1,181 @@
+package edu.ncsu.csc.Galant.graph.component;
+
+import java.util.Arrays;
+
+/**
+ * The sequence of states that a GraphElement (or the Graph itself) has been
+ * in, sorted by algorithm state. The algorithm state (time stamp) of each
+ * entry is kept in a separate array of ints so that looking up the state
+ * that was valid at a given time stamp is a binary search instead of a
+ * backward scan of the whole history. This matters when stepping back and
+ * forth through animations with tens of thousands of steps.
+ *
+ * The history is written only by the thread running the algorithm but may
+ * be read by the display while the algorithm runs ahead (see
+ * AlgorithmSynchronizer). A new entry is therefore stored before the
+ * (volatile) size is increased, and readers read the size first.
+ *
+ * @param <S> the kind of state being recorded: GraphElementState or
+ * GraphState
+ */
+public class StateHistory<S> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * stateNumbers[i] is the algorithm state in which states[i] was
+     * created; both arrays are valid up to (but not including) size
+     *
+     * @invariant stateNumbers is strictly increasing
+     */
+    private int[] stateNumbers;
+    private Object[] states;
+    private volatile int size;
+
+    public StateHistory() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity the number of entries there is room for at
+     * first; 0 for subclasses that keep their entries elsewhere, such as
+     * LoggedStateHistory
+     */
+    protected StateHistory(int initialCapacity) {
+        stateNumbers = new int[initialCapacity];
+        states = new Object[initialCapacity];
+        size = 0;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * @return the i-th state in the history, the oldest being at position 0
+     */
+    @SuppressWarnings("unchecked")
+    public S get(int i) {
+        int size = this.size;
+        if ( i < 0 || i >= size )
+            throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        return (S) states[i];
+    }
+
+    /**
+     * @return the algorithm state of the i-th state in the history
+     */
+    public int getStateNumber(int i) {
+        int size = this.size;
+        if ( i < 0 || i >= size )
+            throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        return stateNumbers[i];
+    }
+
+    /**
+     * @return the most recent state or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public S latest() {
+        int size = this.size;
+        if ( size == 0 ) return null;
+        return (S) states[size - 1];
+    }
+
+    /**
+     * Records a state with the given time stamp. If there is already a state
+     * with the same time stamp it is replaced. The usual case, a time stamp
+     * at or beyond the latest one, takes constant (amortized) time.
+     *
+     * @return true if a new entry was added, false if an existing one was
+     * replaced
+     */
+    public boolean add(int stateNumber, S state) {
+        if ( size > 0 && stateNumbers[size - 1] >= stateNumber ) {
+            int position = search(stateNumber, size);
+            if ( position >= 0 ) {
+                states[position] = state;
+                return false;
+            }
+            insert(-(position + 1), stateNumber, state);
+            return true;
+        }
+        insert(size, stateNumber, state);
+        return true;
+    }
+
+    /**
+     * @return the latest state whose time stamp is at most stateNumber, or
+     * null if all states were created after stateNumber
+     */
+    @SuppressWarnings("unchecked")
+    public S getLatestValid(int stateNumber) {
+        int size = this.size;
+        if ( size == 0 || stateNumbers[0] > stateNumber ) return null;
+        if ( stateNumbers[size - 1] <= stateNumber )
+            return (S) states[size - 1];
+        int position = search(stateNumber, size);
+        if ( position < 0 ) position = -(position + 1) - 1;
+        return (S) states[position];
+    }
+
+    /**
+     * @return the time stamp of the latest state valid at stateNumber, i.e.,
+     * the latest one that is at most stateNumber, or -1 if there is none
+     */
+    public int getLatestValidStateNumber(int stateNumber) {
+        int size = this.size;
+        if ( size == 0 || stateNumbers[0] > stateNumber ) return -1;
+        if ( stateNumbers[size - 1] <= stateNumber )
+            return stateNumbers[size - 1];
+        int position = search(stateNumber, size);
+        if ( position < 0 ) position = -(position + 1) - 1;
+        return stateNumbers[position];
+    }
+
+    /**
+     * Discards all states whose time stamp is greater than stateNumber; used
+     * to restore the initial states at the end of an animation.
+     */
+    public void truncateAfter(int stateNumber) {
+        int position = search(stateNumber, size);
+        int newSize = position >= 0 ? position + 1 : -(position + 1);
+        Arrays.fill(states, newSize, size, null);
+        size = newSize;
+    }
+
+    /**
+     * @return the index of stateNumber if present; otherwise
+     * -(insertion point) - 1, as in Arrays.binarySearch()
+     */
+    private int search(int stateNumber, int size) {
+        return Arrays.binarySearch(stateNumbers, 0, size, stateNumber);
+    }
+
+    private void insert(int position, int stateNumber, S state) {
+        if ( size == stateNumbers.length ) {
+            int newCapacity = Math.max(INITIAL_CAPACITY, 2 * stateNumbers.length);
+            stateNumbers = Arrays.copyOf(stateNumbers, newCapacity);
+            states = Arrays.copyOf(states, newCapacity);
+        }
+        if ( position < size ) {
+            System.arraycopy(stateNumbers, position,
+                             stateNumbers, position + 1, size - position);
+            System.arraycopy(states, position, states, position + 1, size - position);
+        }
+        stateNumbers[position] = stateNumber;
+        states[position] = state;
+        size++;
+    }
+
+    public String toString() {
+        StringBuilder s = new StringBuilder("[");
+        int size = this.size;
+        for ( int i = 0; i < size; i++ ) {
+            s.append(" ").append(states[i]);
+        }
+        s.append(" ]");
+        return s.toString();
+    }
+}
+
+//  [Last modified: 2026 10 18 at 23:18:02 GMT]
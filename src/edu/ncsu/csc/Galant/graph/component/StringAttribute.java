@@ -1,17 +1,21 @@
 package edu.ncsu.csc.Galant.graph.component;
 
+import java.io.IOException;
+
 public class StringAttribute extends Attribute implements Cloneable {
-    private String value;
+    private final String value;
     public StringAttribute(String key, String value) {
         super(key);
         this.value = value;
     }
     public String getStringValue() { return value; }
-    public void set(String value) { this.value = value; }
     public Attribute clone() { return new StringAttribute(key, value); }
     public String toString() {
         return key + "=\"" + value + "\"";
     }
+    public void appendTo(Appendable out) throws IOException {
+        out.append(key).append("=\"").append(value).append('"');
+    }
 }
 
-//  [Last modified: 2015 07 27 at 15:55:04 GMT]
+//  [Last modified: 2026 10 18 at 15:37:30 GMT]
@@ -0,0 +1,216 @@
+/**
+ * A binary heap that knows where each of its items is, so that the
+ * position of an item can be changed, or the item removed, in logarithmic
+ * time instead of by searching the whole heap. This is the basis of the
+ * node and edge priority queues, whose changeKey() and decreaseKey() are
+ * used heavily by algorithms such as Dijkstra's and Prim's.
+ *
+ * An item is in the queue at most once: adding an item that is already
+ * there only moves it to the position its current key calls for. Items are
+ * identified by identity, which is also what equals() means for graph
+ * elements.
+ */
+
+package edu.ncsu.csc.Galant.graph.datastructure;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+public class AddressablePriorityQueue<E> extends AbstractQueue<E> {
+
+  /** the heap, smallest item (according to the comparator) first */
+  private ArrayList<E> heap = new ArrayList<E>();
+
+  /** the position of each item in the heap */
+  private IdentityHashMap<E,Integer> position = new IdentityHashMap<E,Integer>();
+
+  /** null if the items are to be compared by their natural order */
+  private Comparator<? super E> comparator;
+
+  public AddressablePriorityQueue() {
+    this.comparator = null;
+  }
+
+  public AddressablePriorityQueue(Comparator<? super E> comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * creates a heap, using the natural order, from the items in collection
+   * C; duplicates are ignored
+   */
+  public AddressablePriorityQueue(Collection<? extends E> C) {
+    this.comparator = null;
+    for ( E item : C ) {
+      if ( ! position.containsKey(item) ) {
+        position.put(item, heap.size());
+        heap.add(item);
+      }
+    }
+    for ( int i = heap.size() / 2 - 1; i >= 0; i-- ) {
+      siftDown(i);
+    }
+  }
+
+  public Comparator<? super E> comparator() { return comparator; }
+
+  @Override
+  public int size() { return heap.size(); }
+
+  @Override
+  public boolean contains(Object item) { return position.containsKey(item); }
+
+  @Override
+  public void clear() {
+    heap.clear();
+    position.clear();
+  }
+
+  /**
+   * adds the item or, if it is already in the queue, moves it to reflect
+   * its current key
+   * @return true if the item was not already in the queue
+   */
+  @Override
+  public boolean offer(E item) {
+    if ( item == null ) throw new NullPointerException();
+    if ( position.containsKey(item) ) {
+      update(item);
+      return false;
+    }
+    heap.add(item);
+    siftUp(heap.size() - 1, item);
+    return true;
+  }
+
+  /**
+   * Same as offer(); unlike other queues, this does not throw an exception
+   * if the item is already there
+   */
+  @Override
+  public boolean add(E item) { return offer(item); }
+
+  @Override
+  public E peek() {
+    if ( heap.isEmpty() ) return null;
+    return heap.get(0);
+  }
+
+  @Override
+  public E poll() {
+    if ( heap.isEmpty() ) return null;
+    E best = heap.get(0);
+    removeAt(0);
+    return best;
+  }
+
+  @Override
+  public boolean remove(Object item) {
+    Integer index = position.get(item);
+    if ( index == null ) return false;
+    removeAt(index);
+    return true;
+  }
+
+  /**
+   * Moves the item to the position that its current key calls for, after
+   * the key has changed in either direction; adds it if it is not in the
+   * queue.
+   */
+  public void update(E item) {
+    Integer index = position.get(item);
+    if ( index == null ) {
+      offer(item);
+      return;
+    }
+    int i = index;
+    siftUp(i, item);
+    if ( heap.get(i) == item ) siftDown(i);
+  }
+
+  /**
+   * @return an iterator over the items in no particular order; removing an
+   * item through the iterator removes it from the queue
+   */
+  @Override
+  public Iterator<E> iterator() {
+    final Iterator<E> items = new ArrayList<E>(heap).iterator();
+    return new Iterator<E>() {
+      E last = null;
+      public boolean hasNext() { return items.hasNext(); }
+      public E next() {
+        last = items.next();
+        return last;
+      }
+      public void remove() {
+        if ( last == null ) throw new IllegalStateException();
+        AddressablePriorityQueue.this.remove(last);
+        last = null;
+      }
+    };
+  }
+
+  private void removeAt(int i) {
+    E removed = heap.get(i);
+    position.remove(removed);
+    int lastIndex = heap.size() - 1;
+    E last = heap.remove(lastIndex);
+    if ( i == lastIndex ) return;
+    siftUp(i, last);
+    if ( heap.get(i) == last ) siftDown(i);
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(E one, E other) {
+    if ( comparator != null ) return comparator.compare(one, other);
+    return ((Comparable<? super E>) one).compareTo(other);
+  }
+
+  /**
+   * Puts item at position i, or higher up if it is smaller than its
+   * ancestors
+   */
+  private void siftUp(int i, E item) {
+    while ( i > 0 ) {
+      int parent = (i - 1) / 2;
+      E parentItem = heap.get(parent);
+      if ( compare(item, parentItem) >= 0 ) break;
+      place(i, parentItem);
+      i = parent;
+    }
+    place(i, item);
+  }
+
+  /**
+   * Moves the item at position i down as long as it is larger than one of
+   * its children
+   */
+  private void siftDown(int i) {
+    E item = heap.get(i);
+    int half = heap.size() / 2;
+    while ( i < half ) {
+      int child = 2 * i + 1;
+      E childItem = heap.get(child);
+      int right = child + 1;
+      if ( right < heap.size() && compare(heap.get(right), childItem) < 0 ) {
+        child = right;
+        childItem = heap.get(child);
+      }
+      if ( compare(item, childItem) <= 0 ) break;
+      place(i, childItem);
+      i = child;
+    }
+    place(i, item);
+  }
+
+  private void place(int i, E item) {
+    heap.set(i, item);
+    position.put(item, i);
+  }
+}
+
+//  [Last modified: 2026 10 18 at 18:06:41 GMT]
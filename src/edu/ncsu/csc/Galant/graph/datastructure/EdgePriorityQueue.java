@@ -3,11 +3,13 @@
  * flexibility. When creating the queue, user can decide whether to have it
  * be a max heap or a min heap (the latter is the default) and whether to use
  * a different attribute instead of the default - weight.
+ *
+ * The queue is addressable: changing the key of an item that is in the
+ * queue, or removing it, takes logarithmic time.
  */
 
 package edu.ncsu.csc.Galant.graph.datastructure;
 
-import java.util.PriorityQueue;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -17,10 +19,7 @@ import edu.ncsu.csc.Galant.graph.component.GraphElement;
 import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.algorithm.Terminate;
 
-public class EdgePriorityQueue extends PriorityQueue<Edge> {
-  // used only because a priority queue with a specific comparator needs this parameter
-  static final int INITIAL_SIZE = 16;
-
+public class EdgePriorityQueue extends AddressablePriorityQueue<Edge> {
   /**
    * The attribute used for sorting
    */
@@ -51,7 +50,7 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * @param isMax true if this will be a max-heap
    */
   public EdgePriorityQueue(boolean isMax) {
-    super(INITIAL_SIZE, Collections.reverseOrder());
+    super(Collections.<Edge>reverseOrder());
     this.isMaxHeap = true;
   }
 
@@ -60,7 +59,7 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * objects have embedded information about attributes and reversal.
    */
   public EdgePriorityQueue(GraphElementComparator C) {
-    super(INITIAL_SIZE, C);
+    super(C);
     this.attribute = C.attribute;
     this.isMaxHeap = C.reverse;
   }
@@ -128,7 +127,8 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
   /**
    * adds an item, assumes it has a value for the desired attribute, throws
    * an exception if not
-   * @return true if e was not already in the queue
+   * @return true if e was not already in the queue; if it was, it is only
+   * moved to reflect its current key
    */
   public boolean insert(Edge e) throws GalantException {
     if ( e == null )
@@ -139,7 +139,8 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
   /**
    * adds an item and gives it a key for the attribute (works only for
    * numerical attributes
-   * @return true if e was not already in the queue
+   * @return true if e was not already in the queue; if it was, it is only
+   * moved to reflect its current key
    */
   public boolean insert(Edge e, double key) throws GalantException, Terminate {
     if ( e == null )
@@ -150,11 +151,13 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
 
   /**
    * Changes the position of e in the queue to reflect a change in value of
-   * the attribute (the latter is done externally)
+   * the attribute (the latter is done externally); takes logarithmic time
+   * and inserts e if it is not in the queue
    */
   public void changeKey(Edge e) throws GalantException {
-    this.remove(e);
-    this.insert(e);
+    if ( e == null )
+      throw new GalantException("attempt to change key of null edge in priority queue");
+    update(e);
   }
 
   /**
@@ -162,9 +165,8 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * and the position of edge in the queue to reflect the change
    */
   public void changeKey(Edge edge, Double key) throws GalantException, Terminate {
-    this.remove(edge);
     edge.set(attribute, key);
-    this.insert(edge);
+    update(edge);
   }
 
   /**
@@ -172,9 +174,8 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * and the position of edge in the queue to reflect the change
    */
   public void changeDoubleKey(Edge edge, Double key) throws GalantException, Terminate {
-    this.remove(edge);
     edge.set(attribute, key);
-    this.insert(edge);
+    update(edge);
   }
 
   /**
@@ -182,9 +183,8 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * attributes) and the position of edge in the queue to reflect the change
    */
   public void changeStringKey(Edge edge, String key) throws GalantException, Terminate {
-    this.remove(edge);
     edge.set(attribute, key);
-    this.insert(edge);
+    update(edge);
   }
 
   /**
@@ -192,9 +192,8 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
    * attributes) and the position of edge in the queue to reflect the change
    */
   public void changeIntegerKey(Edge edge, Integer key) throws GalantException, Terminate {
-    this.remove(edge);
     edge.set(attribute, key);
-    this.insert(edge);
+    update(edge);
   }
 
   public void decreaseKey(Edge e, double key) throws GalantException, Terminate {
@@ -212,4 +211,4 @@ public class EdgePriorityQueue extends PriorityQueue<Edge> {
   }
 }
 
-//  [Last modified: 2017 01 20 at 02:13:33 GMT]
+//  [Last modified: 2026 10 18 at 18:09:27 GMT]
@@ -1,78 +1,60 @@
 /**
  * A set of edges.
  *
- * @todo Tried to use TreeSet so that order would be preserved for lists, but
- * that gave the wrong answer for contains() method. Odd.
+ * The set is a bit set indexed by edge id (see GraphElementSet), so that
+ * membership tests and the set operations below take time proportional to
+ * the number of id's divided by 64 rather than to the number of elements
+ * hashed; iteration is in order of id.
  */
 
 package edu.ncsu.csc.Galant.graph.datastructure;
 
-import java.util.Set;
-import java.util.HashSet;
 import java.util.Collection;
-import java.util.Iterator;
 
 import edu.ncsu.csc.Galant.graph.component.Edge;
 
-public class EdgeSet extends HashSet<Edge> {
+public class EdgeSet extends GraphElementSet<Edge> {
   public EdgeSet() { super(); }
   public EdgeSet(Collection<Edge> C) {
-    super(C);
+    super();
+    if ( C instanceof EdgeSet ) copy((EdgeSet) C);
+    else addAll(C);
+  }
+
+  @Override
+  protected Integer idOf(Object element) {
+    return element instanceof Edge ? ((Edge) element).getId() : null;
   }
 
   public EdgeSet union(EdgeSet other) {
-    EdgeSet theUnion = new EdgeSet(this);
-    for ( Edge edge : other ) {
-      theUnion.add(edge);
-    }
+    EdgeSet theUnion = new EdgeSet();
+    theUnion.union(this, other);
     return theUnion;
   }
 
   public EdgeSet intersection(EdgeSet other) {
     EdgeSet theIntersection = new EdgeSet();
-    for ( Edge edge : other ) {
-      if ( this.contains(edge) ) {
-        theIntersection.add(edge);
-      }
-    }
+    theIntersection.intersection(this, other);
     return theIntersection;
   }
 
   public EdgeSet difference(EdgeSet other) {
     EdgeSet theDifference = new EdgeSet();
-    for ( Edge edge : this ) {
-      if ( ! other.contains(edge) ) {
-        theDifference.add(edge);
-      }
-    }
+    theDifference.difference(this, other);
     return theDifference;
   }
   
   public EdgeSet symmetricDifference(EdgeSet other) {
     EdgeSet theDifference = new EdgeSet();
-    for ( Edge edge : this ) {
-      if ( ! other.contains(edge) ) {
-        theDifference.add(edge);
-      }
-    }
-    for ( Edge edge : other ) {
-      if ( ! this.contains(edge) ) {
-        theDifference.add(edge);
-      }
-    }
+    theDifference.symmetricDifference(this, other);
     return theDifference;
   }
-  
+
   /**
    * @return true if this set is a subset of other
    */
   public Boolean subset(EdgeSet other) {
-    for ( Edge edge : this ) {
-      if ( ! other.contains(edge) ) {
-        return false;
-      }
-    }
-    return true;
+    return isSubsetOf(other);
   }
   
   @Override
@@ -86,4 +68,4 @@ public class EdgeSet extends HashSet<Edge> {
   }
 }
 
-//  [Last modified: 2017 01 20 at 20:36:18 GMT]
+//  [Last modified: 2026 10 18 at 18:52:31 GMT]
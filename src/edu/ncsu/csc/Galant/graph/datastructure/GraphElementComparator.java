@@ -2,29 +2,116 @@
  * Makes it possible to define comparators with embedded information about
  * attributes and direction of comparison. Convenient for priority queues
  * that use attributes other than weight
+ *
+ * The attribute key is resolved to its index (see AttributeKeys) once, when
+ * the comparator is created, so that a comparison reads the attribute
+ * straight from its slot in the latest state of each element, without
+ * looking up the key or boxing the values. The nested Integer, Double and
+ * String comparators are the typed versions; this class itself compares
+ * numerical (Double) values.
  */
 
 package edu.ncsu.csc.Galant.graph.datastructure;
 
 import java.util.Comparator;
 
+import edu.ncsu.csc.Galant.graph.component.Attribute;
+import edu.ncsu.csc.Galant.graph.component.AttributeKeys;
+import edu.ncsu.csc.Galant.graph.component.DoubleAttribute;
 import edu.ncsu.csc.Galant.graph.component.GraphElement;
+import edu.ncsu.csc.Galant.graph.component.IntegerAttribute;
 
 public class GraphElementComparator implements Comparator<GraphElement> {
-  public String attribute = "weight";
+  public final String attribute;
   // true if sorting is descending or heap is max-heap
-  public boolean reverse = false;
+  public final boolean reverse;
+  /** index of the attribute key */
+  protected final int keyIndex;
+
   public GraphElementComparator(String attribute, boolean reverse) {
     this.attribute = attribute;
     this.reverse = reverse;
+    this.keyIndex = AttributeKeys.intern(attribute);
   }
+
   public int compare(GraphElement ge1, GraphElement ge2) {
-    Double value_1 = ge1.getWeight();
-    Double value_2 = ge2.getWeight();
-    if ( value_1 > value_2 ) return 1;
-    else if ( value_2 > value_1 ) return -1;
-    else return 0;
+    double value_1 = doubleValue(ge1);
+    double value_2 = doubleValue(ge2);
+    int result = value_1 > value_2 ? 1 : value_2 > value_1 ? -1 : 0;
+    return reverse ? -result : result;
+  }
+
+  /**
+   * @return the attribute of the element that is compared, in its latest
+   * state; null if there is none
+   */
+  protected Attribute attributeOf(GraphElement element) {
+    return element.getAttribute(keyIndex);
+  }
+
+  /**
+   * The value getters fail, with a NullPointerException, if the element
+   * has no value of the right type for the attribute, just like unboxing
+   * the result of getDouble(), etc., would.
+   */
+  protected double doubleValue(GraphElement element) {
+    Attribute value = attributeOf(element);
+    if ( value instanceof DoubleAttribute )
+      return ((DoubleAttribute) value).doubleValue();
+    return value.getDoubleValue();
+  }
+
+  protected int integerValue(GraphElement element) {
+    Attribute value = attributeOf(element);
+    if ( value instanceof IntegerAttribute )
+      return ((IntegerAttribute) value).intValue();
+    return value.getIntegerValue();
+  }
+
+  protected String stringValue(GraphElement element) {
+    return attributeOf(element).getStringValue();
+  }
+
+  /**
+   * Compares elements by an attribute with a Double value
+   */
+  public static class DoubleComparator extends GraphElementComparator {
+    public DoubleComparator(String attribute, boolean reverse) {
+      super(attribute, reverse);
+    }
+  }
+
+  /**
+   * Compares elements by an attribute with an Integer value
+   */
+  public static class IntegerComparator extends GraphElementComparator {
+    public IntegerComparator(String attribute, boolean reverse) {
+      super(attribute, reverse);
+    }
+    @Override
+    public int compare(GraphElement ge1, GraphElement ge2) {
+      int value_1 = integerValue(ge1);
+      int value_2 = integerValue(ge2);
+      int result = value_1 > value_2 ? 1 : value_2 > value_1 ? -1 : 0;
+      return reverse ? -result : result;
+    }
+  }
+
+  /**
+   * Compares elements by an attribute with a String value, in
+   * lexicographic order
+   */
+  public static class StringComparator extends GraphElementComparator {
+    public StringComparator(String attribute, boolean reverse) {
+      super(attribute, reverse);
+    }
+    @Override
+    public int compare(GraphElement ge1, GraphElement ge2) {
+      String value_1 = stringValue(ge1);
+      String value_2 = stringValue(ge2);
+      return reverse ? value_2.compareTo(value_1) : value_1.compareTo(value_2);
+    }
   }
 }
 
-//  [Last modified: 2017 01 14 at 22:38:18 GMT]
+//  [Last modified: 2026 10 18 at 18:21:37 GMT]
@@ -0,0 +1,315 @@
+/**
+ * A set of graph elements kept as a bit set indexed by element id. Node and
+ * edge id's are small, dense integers, so membership is a bit probe and
+ * the set operations of NodeSet and EdgeSet work a word (64 elements) at a
+ * time instead of hashing element by element. The elements themselves are
+ * kept in an array indexed by id, so that iteration, in order of id, can
+ * return them.
+ *
+ * The bit set only holds elements of one graph, i.e., the graph of the
+ * first element added, since id's are unique only within a graph. Elements
+ * of other graphs, edges that have no id (those added by an algorithm),
+ * and elements with very large id's are kept in an ordinary set instead,
+ * so that any element can be a member, just as with a HashSet. Equality of
+ * elements is identity, as it is for graph elements in general.
+ */
+
+package edu.ncsu.csc.Galant.graph.datastructure;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.GraphElement;
+
+public abstract class GraphElementSet<E extends GraphElement>
+  extends AbstractSet<E> {
+
+  /**
+   * elements with id's at or above this are not kept in the bit set, so
+   * that a stray large id does not cost a huge array
+   */
+  private static final int MAX_INDEXED_ID = 1 << 22;
+
+  private static final Object [] NO_ELEMENTS = new Object[0];
+
+  /** the graph of the elements in the bit set; null until there is one */
+  private Graph graph;
+  /** the id's of the elements in the bit set */
+  private BitSet members = new BitSet();
+  /**
+   * elements[i] is the element with id i if i is in members; other
+   * entries are either null or stale
+   */
+  private Object [] elements = NO_ELEMENTS;
+  /** number of elements in the bit set */
+  private int indexedSize;
+  /** the elements that are not in the bit set; null if there are none */
+  private HashSet<E> others;
+
+  /**
+   * @return the id of the element if it is of the type kept in this set,
+   * null otherwise
+   */
+  protected abstract Integer idOf(Object element);
+
+  /**
+   * @return the position of the element in the bit set, regardless of
+   * whether it is a member, or -1 if it cannot be kept there
+   */
+  private int indexOf(Object element) {
+    Integer id = idOf(element);
+    if ( id == null || id < 0 || id >= MAX_INDEXED_ID ) return -1;
+    Graph elementGraph = ((GraphElement) element).getGraph();
+    if ( graph != null && elementGraph != graph ) return -1;
+    return id;
+  }
+
+  @Override
+  public int size() {
+    return indexedSize + (others == null ? 0 : others.size());
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    int index = indexOf(element);
+    if ( index >= 0 )
+      return members.get(index) && elements[index] == element;
+    return others != null && others.contains(element);
+  }
+
+  @Override
+  public boolean add(E element) {
+    int index = indexOf(element);
+    if ( index < 0 ) {
+      if ( others == null ) others = new HashSet<E>();
+      return others.add(element);
+    }
+    if ( members.get(index) ) return false;
+    if ( graph == null ) graph = element.getGraph();
+    ensureCapacity(index + 1);
+    elements[index] = element;
+    members.set(index);
+    indexedSize++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object element) {
+    int index = indexOf(element);
+    if ( index < 0 )
+      return others != null && others.remove(element);
+    if ( ! members.get(index) || elements[index] != element ) return false;
+    members.clear(index);
+    elements[index] = null;
+    indexedSize--;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    graph = null;
+    members.clear();
+    elements = NO_ELEMENTS;
+    indexedSize = 0;
+    others = null;
+  }
+
+  /**
+   * @return an iterator that visits the elements in the bit set in order
+   * of id, followed by the others
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      int next = members.nextSetBit(0);
+      Iterator<E> remaining = null;
+      E last = null;
+
+      public boolean hasNext() {
+        if ( next >= 0 ) return true;
+        if ( remaining == null ) {
+          if ( others == null ) return false;
+          // a snapshot, so that elements can be removed while iterating
+          remaining = new ArrayList<E>(others).iterator();
+        }
+        return remaining.hasNext();
+      }
+
+      @SuppressWarnings("unchecked")
+      public E next() {
+        if ( ! hasNext() ) throw new NoSuchElementException();
+        if ( next >= 0 ) {
+          last = (E) elements[next];
+          next = members.nextSetBit(next + 1);
+        }
+        else {
+          last = remaining.next();
+        }
+        return last;
+      }
+
+      public void remove() {
+        if ( last == null ) throw new IllegalStateException();
+        GraphElementSet.this.remove(last);
+        last = null;
+      }
+    };
+  }
+
+  private void ensureCapacity(int capacity) {
+    if ( elements.length < capacity ) {
+      elements = Arrays.copyOf(elements,
+                               Math.max(capacity, 2 * elements.length));
+    }
+  }
+
+  /**
+   * @return true if the bit sets of the two sets refer to the same graph,
+   * so that the set operations can combine them bit by bit
+   */
+  private boolean compatible(GraphElementSet<E> other) {
+    return graph == null || other.graph == null || graph == other.graph;
+  }
+
+  /**
+   * Makes this (empty) set hold the elements in the bit set whose id's
+   * are in ids, taking each element from the first of the given sets that
+   * has it
+   */
+  private void takeIndexed(BitSet ids, GraphElementSet<E> first,
+                           GraphElementSet<E> second) {
+    members = ids;
+    graph = first.graph != null ? first.graph : second.graph;
+    int length = ids.length();
+    elements = length == 0 ? NO_ELEMENTS : new Object[length];
+    for ( int i = ids.nextSetBit(0); i >= 0; i = ids.nextSetBit(i + 1) ) {
+      elements[i] = first.members.get(i)
+        ? first.elements[i] : second.elements[i];
+    }
+    indexedSize = ids.cardinality();
+  }
+
+  /**
+   * Makes this (empty) set a copy of the given one
+   */
+  protected void copy(GraphElementSet<E> other) {
+    graph = other.graph;
+    members = (BitSet) other.members.clone();
+    elements = other.elements.clone();
+    indexedSize = other.indexedSize;
+    if ( other.others != null ) others = new HashSet<E>(other.others);
+  }
+
+  /**
+   * Makes this (empty) set the union of the two sets
+   */
+  protected void union(GraphElementSet<E> one, GraphElementSet<E> other) {
+    if ( ! one.compatible(other) ) {
+      copy(one);
+      addAll(other);
+      return;
+    }
+    BitSet ids = (BitSet) one.members.clone();
+    ids.or(other.members);
+    takeIndexed(ids, one, other);
+    if ( one.others != null || other.others != null ) {
+      others = new HashSet<E>();
+      if ( one.others != null ) others.addAll(one.others);
+      if ( other.others != null ) others.addAll(other.others);
+    }
+  }
+
+  /**
+   * Makes this (empty) set the intersection of the two sets
+   */
+  protected void intersection(GraphElementSet<E> one,
+                              GraphElementSet<E> other) {
+    if ( ! one.compatible(other) ) {
+      for ( E element : one ) {
+        if ( other.contains(element) ) add(element);
+      }
+      return;
+    }
+    BitSet ids = (BitSet) one.members.clone();
+    ids.and(other.members);
+    takeIndexed(ids, one, other);
+    if ( one.others != null && other.others != null ) {
+      for ( E element : one.others ) {
+        if ( other.others.contains(element) ) add(element);
+      }
+    }
+  }
+
+  /**
+   * Makes this (empty) set hold the elements of one that are not in
+   * other
+   */
+  protected void difference(GraphElementSet<E> one,
+                            GraphElementSet<E> other) {
+    if ( ! one.compatible(other) ) {
+      for ( E element : one ) {
+        if ( ! other.contains(element) ) add(element);
+      }
+      return;
+    }
+    BitSet ids = (BitSet) one.members.clone();
+    ids.andNot(other.members);
+    takeIndexed(ids, one, other);
+    if ( one.others != null ) {
+      for ( E element : one.others ) {
+        if ( other.others == null || ! other.others.contains(element) )
+          add(element);
+      }
+    }
+  }
+
+  /**
+   * Makes this (empty) set hold the elements that are in exactly one of
+   * the two sets
+   */
+  protected void symmetricDifference(GraphElementSet<E> one,
+                                     GraphElementSet<E> other) {
+    if ( ! one.compatible(other) ) {
+      difference(one, other);
+      for ( E element : other ) {
+        if ( ! one.contains(element) ) add(element);
+      }
+      return;
+    }
+    BitSet ids = (BitSet) one.members.clone();
+    ids.xor(other.members);
+    takeIndexed(ids, one, other);
+    if ( one.others != null ) {
+      for ( E element : one.others ) {
+        if ( other.others == null || ! other.others.contains(element) )
+          add(element);
+      }
+    }
+    if ( other.others != null ) {
+      for ( E element : other.others ) {
+        if ( one.others == null || ! one.others.contains(element) )
+          add(element);
+      }
+    }
+  }
+
+  /**
+   * @return true if every element of this set is in other
+   */
+  protected boolean isSubsetOf(GraphElementSet<E> other) {
+    if ( size() > other.size() ) return false;
+    if ( ! compatible(other) ) return other.containsAll(this);
+    BitSet outside = (BitSet) members.clone();
+    outside.andNot(other.members);
+    if ( ! outside.isEmpty() ) return false;
+    return others == null || other.containsAll(others);
+  }
+}
+
+//  [Last modified: 2026 10 18 at 18:47:15 GMT]
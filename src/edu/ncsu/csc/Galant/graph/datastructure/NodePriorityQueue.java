@@ -3,11 +3,13 @@
  * flexibility. When creating the queue, user can decide whether to have it
  * be a max heap or a min heap (the latter is the default) and whether to use
  * a different attribute instead of the default - weight.
+ *
+ * The queue is addressable: changing the key of an item that is in the
+ * queue, or removing it, takes logarithmic time.
  */
 
 package edu.ncsu.csc.Galant.graph.datastructure;
 
-import java.util.PriorityQueue;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -18,10 +20,7 @@ import edu.ncsu.csc.Galant.graph.component.GraphElement;
 import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.algorithm.Terminate;
 
-public class NodePriorityQueue extends PriorityQueue<Node> {
-  // used only because a priority queue with a specific comparator needs this parameter
-  static final int INITIAL_SIZE = 16;
-
+public class NodePriorityQueue extends AddressablePriorityQueue<Node> {
   /**
    * The attribute used for sorting
    */
@@ -52,7 +51,7 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * @param isMax true if this will be a max-heap
    */
   public NodePriorityQueue(boolean isMax) {
-    super(INITIAL_SIZE, Collections.reverseOrder());
+    super(Collections.<Node>reverseOrder());
     this.isMaxHeap = true;
   }
 
@@ -61,7 +60,7 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * objects have embedded information about attributes and reversal.
    */
   public NodePriorityQueue(GraphElementComparator C) {
-    super(INITIAL_SIZE, C);
+    super(C);
     this.attribute = C.attribute;
     this.isMaxHeap = C.reverse;
   }
@@ -132,7 +131,8 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
   /**
    * adds an item, assumes it has a value for the desired attribute, throws
    * an exception if not
-   * @return true if v was not already in the queue
+   * @return true if v was not already in the queue; if it was, it is only
+   * moved to reflect its current key
    */
   public boolean insert(Node v) throws GalantException {
     if ( v == null )
@@ -142,7 +142,8 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
 
   /**
    * adds an item and gives it a key for the attribute
-   * @return true if v was not already in the queue
+   * @return true if v was not already in the queue; if it was, it is only
+   * moved to reflect its current key
    */
   public boolean insert(Node v, double key) throws GalantException, Terminate {
     if ( v == null )
@@ -153,11 +154,13 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
 
   /**
    * Changes the position of v in the queue to reflect a change in value of
-   * the attribute (the latter is done externally)
+   * the attribute (the latter is done externally); takes logarithmic time
+   * and inserts v if it is not in the queue
    */
   public void changeKey(Node v) throws GalantException {
-    this.remove(v);
-    this.insert(v);
+    if ( v == null )
+      throw new GalantException("Attempt to change key of null node in priority queue");
+    update(v);
   }
 
   /**
@@ -165,9 +168,8 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * and the position of v in the queue to reflect the change
    */
   public void changeKey(Node v, Double key) throws GalantException, Terminate {
-    this.remove(v);
     v.set(attribute, key);
-    this.insert(v);
+    update(v);
   }
 
   /**
@@ -175,9 +177,8 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * and the position of v in the queue to reflect the change
    */
   public void changeDoubleKey(Node v, Double key) throws GalantException, Terminate {
-    this.remove(v);
     v.set(attribute, key);
-    this.insert(v);
+    update(v);
   }
 
   /**
@@ -185,9 +186,8 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * and the position of e in the queue to reflect the change
    */
   public void changeStringKey(Node v, String key) throws GalantException, Terminate {
-    this.remove(v);
     v.set(attribute, key);
-    this.insert(v);
+    update(v);
   }
 
   /**
@@ -195,9 +195,8 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
    * and the position of e in the queue to reflect the change
    */
   public void changeIntegerKey(Node v, Integer key) throws GalantException, Terminate {
-    this.remove(v);
     v.set(attribute, key);
-    this.insert(v);
+    update(v);
   }
 
   public void decreaseKey(Node v, double key) throws GalantException, Terminate {
@@ -214,4 +213,4 @@ public class NodePriorityQueue extends PriorityQueue<Node> {
   }
 }
 
-//  [Last modified: 2017 01 20 at 02:11:10 GMT]
+//  [Last modified: 2026 10 18 at 18:09:12 GMT]
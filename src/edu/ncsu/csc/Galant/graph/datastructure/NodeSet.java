@@ -1,65 +1,52 @@
 /**
  * A set of nodes.
  *
- * @todo Tried to use TreeSet so that order would be preserved for lists, but
- * that gave the wrong answer for contains() method. Odd.
+ * The set is a bit set indexed by node id (see GraphElementSet), so that
+ * membership tests and the set operations below take time proportional to
+ * the number of id's divided by 64 rather than to the number of elements
+ * hashed; iteration is in order of id.
  */
 
 package edu.ncsu.csc.Galant.graph.datastructure;
 
-import java.util.Set;
-import java.util.HashSet;
 import java.util.Collection;
-import java.util.Iterator;
 
 import edu.ncsu.csc.Galant.graph.component.Node;
 
-public class NodeSet extends HashSet<Node> {
+public class NodeSet extends GraphElementSet<Node> {
   public NodeSet() { super(); }
   public NodeSet(Collection<Node> C) {
-    super(C);
+    super();
+    if ( C instanceof NodeSet ) copy((NodeSet) C);
+    else addAll(C);
+  }
+
+  @Override
+  protected Integer idOf(Object element) {
+    return element instanceof Node ? ((Node) element).getId() : null;
   }
 
   public NodeSet union(NodeSet other) {
-    NodeSet theUnion = new NodeSet(this);
-    for ( Node node : other ) {
-      theUnion.add(node);
-    }
+    NodeSet theUnion = new NodeSet();
+    theUnion.union(this, other);
     return theUnion;
   }
 
   public NodeSet intersection(NodeSet other) {
     NodeSet theIntersection = new NodeSet();
-    for ( Node node : other ) {
-      if ( this.contains(node) ) {
-        theIntersection.add(node);
-      }
-    }
+    theIntersection.intersection(this, other);
     return theIntersection;
   }
 
   public NodeSet difference(NodeSet other) {
     NodeSet theDifference = new NodeSet();
-    for ( Node node : this ) {
-      if ( ! other.contains(node) ) {
-        theDifference.add(node);
-      }
-    }
+    theDifference.difference(this, other);
     return theDifference;
   }
   
   public NodeSet symmetricDifference(NodeSet other) {
     NodeSet theDifference = new NodeSet();
-    for ( Node node : this ) {
-      if ( ! other.contains(node) ) {
-        theDifference.add(node);
-      }
-    }
-    for ( Node node : other ) {
-      if ( ! this.contains(node) ) {
-        theDifference.add(node);
-      }
-    }
+    theDifference.symmetricDifference(this, other);
     return theDifference;
   }
 
@@ -67,12 +54,7 @@ public class NodeSet extends HashSet<Node> {
    * @return true if this set is a subset of other
    */
   public Boolean subset(NodeSet other) {
-    for ( Node node : this ) {
-      if ( ! other.contains(node) ) {
-        return false;
-      }
-    }
-    return true;
+    return isSubsetOf(other);
   }
   
   @Override
@@ -86,4 +68,4 @@ public class NodeSet extends HashSet<Node> {
   }
 }
 
-//  [Last modified: 2017 01 20 at 20:35:25 GMT]
+//  [Last modified: 2026 10 18 at 18:52:08 GMT]
@@ -0,0 +1,76 @@
+/**
+ * @file BinaryGraphFormat.java
+ * @brief constants and primitive encodings shared by the reader and writer
+ * of the compact binary graph format
+ */
+
+package edu.ncsu.csc.Galant.graph.parser;
+
+import java.io.File;
+
+/**
+ * A compact binary alternative to GraphML, for large graphs that take too
+ * long to read or write as text. A file consists of
+ *
+ *   - the magic bytes "GALB" and a version byte
+ *   - a flag byte (directed, layered, explicit edge ids)
+ *   - the graph name and comment (strings that may be null)
+ *   - the attribute key table: a count followed by the keys; attributes
+ *     refer to keys by their position in the table
+ *   - the number of nodes, the node ids (each as the difference from the
+ *     previous one), then the x and y columns, or, for a layered graph,
+ *     the layer and positionInLayer columns
+ *   - for each node, the number of its other attributes followed by the
+ *     attributes
+ *   - the number of edges, the edge ids (as differences, only if the graph
+ *     has explicit edge ids), the source and target columns
+ *   - for each edge, its attributes as for the nodes
+ *
+ * Integers are zigzag encoded varints, i.e., 7 bits per byte with the high
+ * bit set on all but the last byte, so that ids, coordinates and small
+ * differences take one or two bytes. An attribute is a key index, a type
+ * tag and the value: a varint, an 8-byte double, a byte, or a string.
+ * Strings are UTF-8, preceded by their length + 1 (0 stands for null).
+ *
+ * Graphs are read by BinaryGraphParser and written by BinaryGraphWriter.
+ */
+public final class BinaryGraphFormat {
+
+  /** file name extension for graphs in this format */
+  public static final String EXTENSION = "gbin";
+
+  static final byte [] MAGIC = { 'G', 'A', 'L', 'B' };
+  static final int VERSION = 1;
+
+  static final int DIRECTED = 0x01;
+  static final int LAYERED = 0x02;
+  static final int EXPLICIT_EDGE_IDS = 0x04;
+
+  static final int INTEGER = 'I';
+  static final int DOUBLE = 'D';
+  static final int BOOLEAN = 'B';
+  static final int STRING = 'S';
+
+  private BinaryGraphFormat() {}
+
+  /**
+   * @return true if the file name has the extension of the binary format
+   */
+  public static boolean isBinaryGraphFile(String fileName) {
+    return fileName.endsWith("." + EXTENSION);
+  }
+
+  public static boolean isBinaryGraphFile(File file) {
+    return isBinaryGraphFile(file.getName());
+  }
+
+  static int zigzag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  static int unzigzag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
+
+//  [Last modified: 2026 10 18 at 19:40:12 GMT]
@@ -0,0 +1,259 @@
+/**
+ * @file BinaryGraphParser.java
+ * @brief code for creating a graph from a file in the compact binary format
+ */
+
+package edu.ncsu.csc.Galant.graph.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.graph.component.*;
+import edu.ncsu.csc.Galant.logging.LogHelper;
+import edu.ncsu.csc.Galant.Timer;
+
+/**
+ * Creates a <code>Graph</code> from the binary format described in
+ * BinaryGraphFormat. The graph is put together the same way as by
+ * GraphMLParser: each node and edge is given its attributes, is
+ * initialized after parsing, and is added to the graph, and the graph is
+ * initialized at the end. The id, the position and the end points are
+ * given to the elements as strings, which is what initializeAfterParsing()
+ * expects; all other attributes keep the type they had when written.
+ *
+ * The whole file is read into memory and decoded from there.
+ */
+public class BinaryGraphParser {
+
+  Graph graph;
+
+  private byte [] bytes;
+  private int position;
+  private String [] keys;
+
+  public BinaryGraphParser(File file) throws GalantException {
+    Timer.parsingTime.start();
+    try {
+      this.bytes = Files.readAllBytes(file.toPath());
+    }
+    catch ( IOException e ) {
+      throw new GalantException( e.getMessage()
+                                 + "\n - in BinaryGraphParser(File)", e );
+    }
+    this.graph = generateGraph();
+    Timer.parsingTime.stop();
+  }
+
+  public BinaryGraphParser(byte [] bytes) throws GalantException {
+    Timer.parsingTime.start();
+    this.bytes = bytes;
+    this.graph = generateGraph();
+    Timer.parsingTime.stop();
+  }
+
+  private Graph generateGraph() throws GalantException {
+    LogHelper.disable();
+    LogHelper.enterMethod( getClass(), "generateGraph" );
+    Graph newGraph = null;
+    try {
+      newGraph = buildGraph();
+    }
+    catch ( ArrayIndexOutOfBoundsException e ) {
+      throw new GalantException( "Binary graph input is truncated"
+                                 + "\n - in generateGraph", e );
+    }
+    finally {
+      bytes = null;
+    }
+    LogHelper.exitMethod( getClass(), "generateGraph" );
+    LogHelper.restoreState();
+    return newGraph;
+  }
+
+  private Graph buildGraph() throws GalantException {
+    if ( bytes.length < BinaryGraphFormat.MAGIC.length
+         || ! Arrays.equals(Arrays.copyOf(bytes, BinaryGraphFormat.MAGIC.length),
+                            BinaryGraphFormat.MAGIC) ) {
+      throw new GalantException( "Not a binary graph file"
+                                 + "\n - in buildGraph" );
+    }
+    position = BinaryGraphFormat.MAGIC.length;
+    int version = readByte();
+    if ( version != BinaryGraphFormat.VERSION ) {
+      throw new GalantException( "Unknown binary graph version " + version
+                                 + "\n - in buildGraph" );
+    }
+
+    Graph graphUnderConstruction = new Graph();
+    int flags = readByte();
+    boolean layered = (flags & BinaryGraphFormat.LAYERED) != 0;
+    graphUnderConstruction.setDirected((flags & BinaryGraphFormat.DIRECTED) != 0);
+    graphUnderConstruction.setLayered(layered);
+    graphUnderConstruction.setName(readString());
+    graphUnderConstruction.setComment(readString());
+    keys = new String[readCount()];
+    for ( int i = 0; i < keys.length; i++ ) {
+      keys[i] = readString();
+    }
+
+    int numberOfNodes = readCount();
+    int [] nodeIds = readColumn(numberOfNodes, true);
+    int [] firstCoordinates = readColumn(numberOfNodes, false);
+    int [] secondCoordinates = readColumn(numberOfNodes, false);
+    String firstKey = layered ? "layer" : "x";
+    String secondKey = layered ? "positionInLayer" : "y";
+    for ( int i = 0; i < numberOfNodes; i++ ) {
+      Node node = new Node(graphUnderConstruction);
+      // the node is brand new, so its initial state can be filled in
+      // directly rather than through a new state per attribute
+      GraphElementState nodeState = node.latestState();
+      nodeState.set(GraphElement.ID, Integer.toString(nodeIds[i]));
+      nodeState.set(firstKey, Integer.toString(firstCoordinates[i]));
+      nodeState.set(secondKey, Integer.toString(secondCoordinates[i]));
+      readAttributes(nodeState);
+      node.initializeAfterParsing();
+      graphUnderConstruction.addNode(node);
+    }
+
+    int numberOfEdges = readCount();
+    int [] edgeIds = null;
+    if ( (flags & BinaryGraphFormat.EXPLICIT_EDGE_IDS) != 0 ) {
+      edgeIds = readColumn(numberOfEdges, true);
+    }
+    int [] sources = readColumn(numberOfEdges, false);
+    int [] targets = readColumn(numberOfEdges, false);
+    for ( int i = 0; i < numberOfEdges; i++ ) {
+      Edge edge = new Edge(graphUnderConstruction);
+      GraphElementState edgeState = edge.latestState();
+      if ( edgeIds != null ) {
+        edgeState.set(GraphElement.ID, Integer.toString(edgeIds[i]));
+      }
+      edgeState.set("source", Integer.toString(sources[i]));
+      edgeState.set("target", Integer.toString(targets[i]));
+      readAttributes(edgeState);
+      edge.initializeAfterParsing();
+      graphUnderConstruction.addEdge(edge);
+    }
+    if ( position != bytes.length ) {
+      throw new GalantException( "Unexpected data after the last edge"
+                                 + "\n - in buildGraph" );
+    }
+    LogHelper.logDebug( " number of nodes = " + numberOfNodes );
+    LogHelper.logDebug( " number of edges = " + numberOfEdges );
+
+    graphUnderConstruction.initializeAfterParsing();
+    return graphUnderConstruction;
+  }
+
+  /**
+   * Reads the attributes of one element into its state
+   */
+  private void readAttributes(GraphElementState elementState)
+    throws GalantException {
+    int count = readCount();
+    for ( int i = 0; i < count; i++ ) {
+      int keyPosition = readVarint();
+      if ( keyPosition < 0 || keyPosition >= keys.length ) {
+        throw new GalantException( "Bad attribute key " + keyPosition
+                                   + "\n - in readAttributes" );
+      }
+      String key = keys[keyPosition];
+      int type = readByte();
+      switch ( type ) {
+      case BinaryGraphFormat.INTEGER:
+        elementState.set(key, Integer.valueOf(readVarint()));
+        break;
+      case BinaryGraphFormat.DOUBLE:
+        elementState.set(key, Double.valueOf(readDouble()));
+        break;
+      case BinaryGraphFormat.BOOLEAN:
+        elementState.set(key, Boolean.valueOf(readByte() != 0));
+        break;
+      case BinaryGraphFormat.STRING:
+        elementState.set(key, readString());
+        break;
+      default:
+        throw new GalantException( "Bad type " + type + " for attribute " + key
+                                   + "\n - in readAttributes" );
+      }
+    }
+  }
+
+  /**
+   * @return a column of n integers; if the column holds differences, as
+   * the id columns do, the running sums
+   */
+  private int [] readColumn(int n, boolean differences) {
+    int [] column = new int[n];
+    int previous = 0;
+    for ( int i = 0; i < n; i++ ) {
+      int value = readVarint();
+      if ( differences ) {
+        value += previous;
+        previous = value;
+      }
+      column[i] = value;
+    }
+    return column;
+  }
+
+  private int readByte() {
+    return bytes[position++] & 0xFF;
+  }
+
+  private int readVarint() {
+    int value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = bytes[position++];
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ( b < 0 && shift < 35 );
+    return BinaryGraphFormat.unzigzag(value);
+  }
+
+  private int readCount() throws GalantException {
+    int count = readVarint();
+    if ( count < 0 || count > bytes.length - position ) {
+      throw new GalantException( "Bad count " + count
+                                 + "\n - in readCount" );
+    }
+    return count;
+  }
+
+  private double readDouble() {
+    long bits = 0;
+    for ( int i = 0; i < 8; i++ ) {
+      bits = (bits << 8) | (bytes[position++] & 0xFF);
+    }
+    return Double.longBitsToDouble(bits);
+  }
+
+  /**
+   * A string is stored as its length plus one, 0 standing for null, so it
+   * is the length itself that has to fit in what is left of the input
+   */
+  private String readString() throws GalantException {
+    int length = readVarint() - 1;
+    if ( length == -1 ) return null;
+    if ( length < 0 || length > bytes.length - position ) {
+      throw new GalantException( "Bad string length " + length
+                                 + "\n - in readString" );
+    }
+    String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return value;
+  }
+
+  public Graph getGraph() {
+    return this.graph;
+  }
+
+}
+
+//  [Last modified: 2026 10 19 at 09:12:37 GMT]
@@ -0,0 +1,249 @@
+/**
+ * @file BinaryGraphWriter.java
+ * @brief code for saving a graph in the compact binary format
+ */
+
+package edu.ncsu.csc.Galant.graph.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.ncsu.csc.Galant.graph.component.*;
+import edu.ncsu.csc.Galant.graph.datastructure.EdgeList;
+import edu.ncsu.csc.Galant.graph.datastructure.NodeList;
+
+/**
+ * Writes a graph in the binary format described in BinaryGraphFormat; the
+ * counterpart of Graph.writeXml() for that format. Only the nodes and
+ * edges in scope are written, each with the attributes of its latest
+ * state, so that a graph read back with BinaryGraphParser is the same as
+ * one parsed from the GraphML text of the original.
+ *
+ * The body is encoded into memory first, while the keys of the attributes
+ * are gathered, so that the key table can precede it in the file.
+ */
+public class BinaryGraphWriter {
+
+  private final Graph graph;
+  private final Buffer body = new Buffer();
+  /** positions of the attribute keys in the table, by key index */
+  private final HashMap<Integer, Integer> keyPositions
+    = new HashMap<Integer, Integer>();
+  private final List<String> keys = new ArrayList<String>();
+
+  private BinaryGraphWriter(Graph graph) {
+    this.graph = graph;
+  }
+
+  /**
+   * Writes the graph to the file, replacing its contents
+   */
+  public static void write(Graph graph, File file) throws IOException {
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+    try {
+      write(graph, out);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Writes the graph to out, which is neither flushed nor closed
+   */
+  public static void write(Graph graph, OutputStream out) throws IOException {
+    new BinaryGraphWriter(graph).writeTo(out);
+  }
+
+  private void writeTo(OutputStream out) throws IOException {
+    boolean layered = graph.isLayered();
+    NodeList nodes = graph.getNodes();
+    EdgeList edges = graph.getEdges();
+
+    body.writeVarint(nodes.size());
+    int previousId = 0;
+    for ( Node node : nodes ) {
+      body.writeVarint(node.getId() - previousId);
+      previousId = node.getId();
+    }
+    if ( layered ) {
+      for ( Node node : nodes ) body.writeVarint(valueOf(node.getLayer()));
+      for ( Node node : nodes )
+        body.writeVarint(valueOf(node.getPositionInLayer()));
+    }
+    else {
+      for ( Node node : nodes ) body.writeVarint(valueOf(node.getFixedX()));
+      for ( Node node : nodes ) body.writeVarint(valueOf(node.getFixedY()));
+    }
+    for ( Node node : nodes ) {
+      if ( layered )
+        writeAttributes(node, AttributeKeys.LAYER,
+                        AttributeKeys.POSITION_IN_LAYER);
+      else
+        writeAttributes(node, AttributeKeys.X, AttributeKeys.Y);
+    }
+
+    boolean explicitEdgeIds = graph.hasExplicitEdgeIds();
+    body.writeVarint(edges.size());
+    if ( explicitEdgeIds ) {
+      previousId = 0;
+      for ( Edge edge : edges ) {
+        Integer edgeId = edge.getId();
+        if ( edgeId == null ) edgeId = graph.nextEdgeId();
+        body.writeVarint(edgeId - previousId);
+        previousId = edgeId;
+      }
+    }
+    for ( Edge edge : edges ) body.writeVarint(edge.getSourceNode().getId());
+    for ( Edge edge : edges ) body.writeVarint(edge.getTargetNode().getId());
+    for ( Edge edge : edges ) {
+      writeAttributes(edge, AttributeKeys.SOURCE, AttributeKeys.TARGET);
+    }
+
+    Buffer header = new Buffer();
+    header.write(BinaryGraphFormat.MAGIC);
+    header.writeByte(BinaryGraphFormat.VERSION);
+    int flags = 0;
+    if ( graph.isDirected() ) flags |= BinaryGraphFormat.DIRECTED;
+    if ( layered ) flags |= BinaryGraphFormat.LAYERED;
+    if ( explicitEdgeIds ) flags |= BinaryGraphFormat.EXPLICIT_EDGE_IDS;
+    header.writeByte(flags);
+    header.writeString(graph.getName());
+    header.writeString(graph.getComment());
+    header.writeVarint(keys.size());
+    for ( String key : keys ) header.writeString(key);
+
+    header.writeTo(out);
+    body.writeTo(out);
+  }
+
+  /**
+   * A missing coordinate or layer is written as 0, as there is no sensible
+   * value to write
+   */
+  private static int valueOf(Integer value) {
+    return value == null ? 0 : value;
+  }
+
+  /**
+   * Writes the attributes of the latest state of the element except for
+   * its id and the ones with the given key indexes, which are in columns
+   * of their own
+   */
+  private void writeAttributes(GraphElement element,
+                               int omitted, int alsoOmitted) {
+    List<Attribute> attributes
+      = element.latestState().getAttributes().getAttributes();
+    int count = 0;
+    for ( Attribute attribute : attributes ) {
+      if ( written(attribute, omitted, alsoOmitted) ) count++;
+    }
+    body.writeVarint(count);
+    for ( Attribute attribute : attributes ) {
+      if ( ! written(attribute, omitted, alsoOmitted) ) continue;
+      body.writeVarint(keyPosition(attribute));
+      if ( attribute instanceof IntegerAttribute ) {
+        body.writeByte(BinaryGraphFormat.INTEGER);
+        body.writeVarint(((IntegerAttribute) attribute).intValue());
+      }
+      else if ( attribute instanceof DoubleAttribute ) {
+        body.writeByte(BinaryGraphFormat.DOUBLE);
+        body.writeDouble(((DoubleAttribute) attribute).doubleValue());
+      }
+      else if ( attribute instanceof BooleanAttribute ) {
+        body.writeByte(BinaryGraphFormat.BOOLEAN);
+        body.writeByte(((BooleanAttribute) attribute).booleanValue() ? 1 : 0);
+      }
+      else {
+        body.writeByte(BinaryGraphFormat.STRING);
+        body.writeString(attribute.getStringValue());
+      }
+    }
+  }
+
+  private static boolean written(Attribute attribute,
+                                 int omitted, int alsoOmitted) {
+    int keyIndex = attribute.getKeyIndex();
+    return keyIndex != AttributeKeys.ID
+      && keyIndex != omitted && keyIndex != alsoOmitted;
+  }
+
+  /**
+   * @return the position of the key of the attribute in the key table,
+   * adding the key if it is new
+   */
+  private int keyPosition(Attribute attribute) {
+    Integer position = keyPositions.get(attribute.getKeyIndex());
+    if ( position == null ) {
+      position = keys.size();
+      keys.add(attribute.getKey());
+      keyPositions.put(attribute.getKeyIndex(), position);
+    }
+    return position;
+  }
+
+  /**
+   * A growable byte array with the primitive encodings of the format
+   */
+  private static class Buffer {
+    private byte [] bytes = new byte[4096];
+    private int length = 0;
+
+    private void ensureRoom(int count) {
+      if ( length + count > bytes.length )
+        bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + count));
+    }
+
+    void writeByte(int value) {
+      ensureRoom(1);
+      bytes[length++] = (byte) value;
+    }
+
+    void write(byte [] values) {
+      ensureRoom(values.length);
+      System.arraycopy(values, 0, bytes, length, values.length);
+      length += values.length;
+    }
+
+    void writeVarint(int value) {
+      ensureRoom(5);
+      int remaining = BinaryGraphFormat.zigzag(value);
+      while ( (remaining & ~0x7F) != 0 ) {
+        bytes[length++] = (byte) ((remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+      bytes[length++] = (byte) remaining;
+    }
+
+    void writeDouble(double value) {
+      ensureRoom(8);
+      long bits = Double.doubleToLongBits(value);
+      for ( int shift = 56; shift >= 0; shift -= 8 )
+        bytes[length++] = (byte) (bits >>> shift);
+    }
+
+    void writeString(String value) {
+      if ( value == null ) {
+        writeVarint(0);
+        return;
+      }
+      byte [] encoded = value.getBytes(StandardCharsets.UTF_8);
+      writeVarint(encoded.length + 1);
+      write(encoded);
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+      out.write(bytes, 0, length);
+    }
+  }
+}
+
+//  [Last modified: 2026 10 18 at 19:40:12 GMT]
@@ -11,21 +11,24 @@
 
 package edu.ncsu.csc.Galant.graph.parser;
 
-import java.awt.Point;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import edu.ncsu.csc.Galant.GalantException;
-import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.graph.component.*;
 import edu.ncsu.csc.Galant.algorithm.Terminate;
 import edu.ncsu.csc.Galant.logging.LogHelper;
@@ -34,13 +37,18 @@ import edu.ncsu.csc.Galant.Timer;
 /**
  * Parses a text file and creates a <code>Graph</code> from it. Allows for
  * graph-to-editor and editor-to-graph manipulation.
+ *
+ * The input is read as a stream (StAX), so that nodes and edges are built
+ * as their elements go by and the document as a whole is never held in
+ * memory. An edge may come before the nodes it connects; such an edge, and
+ * every edge after it, is set aside until the end of the input, so that
+ * edges are still added in the order in which they appear.
+ *
  * @author Ty Devries
  */
 public class GraphMLParser {
 
   Graph graph;
-  File graphMLFile;
-  Document document;
 
   public GraphMLParser(File graphMLFile) throws GalantException {
     Timer.parsingTime.start();
@@ -57,62 +65,30 @@ public class GraphMLParser {
     Timer.parsingTime.stop();
   }
 
-  public DocumentBuilder getDocumentBuilder( DocumentBuilderFactory dbf )
-    throws GalantException
-  {
-    DocumentBuilder db = null;
-
-    try {
-      db = dbf.newDocumentBuilder();
-    } catch (ParserConfigurationException e) {
-      throw new GalantException( e.getMessage()
-                                 + "\n - in getDocumentBuilder",
-                                 e );
-    }
-
-    return db;
-  }
-
   /**
-   * @todo Not clear the this is ever called
+   * @return a factory for stream readers; a new one each time, since
+   * factories need not be thread safe and graphs may be parsed by several
+   * threads at once (see BatchRunner)
    */
-  public void setDocument( DocumentBuilder db, File file )
-    throws GalantException {
-    try {
-      this.document = db.parse(file);
-    }
-    catch ( Exception e ) {
-      throw new GalantException( e.getMessage()
-                                 + "\n - in setDocument(DocumentBuilder, File)",
-                                 e );
-    }
-  }
-
-  public void setDocument( DocumentBuilder db, String xml )
-    throws GalantException
-  {
-    InputSource is = new InputSource(new StringReader(xml));
-    try {
-      this.document = db.parse(is);
-    }
-    catch (Exception e) {
-      throw new GalantException( e.getMessage()
-                                 + "\n - in setDocument(DocumentBuilder,String)",
-                                 e );
-    }
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                        Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    return factory;
   }
 
   /**
-   * Sets the value stored in the xml node. Parsing is left to the
+   * Sets the value stored in the xml attribute. Parsing is left to the
    * graphElement via initializeAfterParsing().
    * @see edu.ncsu.csc.Galant.graph.component.GraphElement
    * @see edu.ncsu.csc.Galant.graph.component.Edge
    * @see edu.ncsu.csc.Galant.graph.component.Node
    */
-  private void processAttribute(GraphElement graphElement, org.w3c.dom.Node xmlNode) {
+  private void processAttribute(GraphElement graphElement,
+                                String attributeName,
+                                String attributeValueString) {
     LogHelper.logDebug("-> processAttribute for " + graphElement);
-    String attributeName = xmlNode.getNodeName();
-    String attributeValueString = xmlNode.getTextContent();
     try {
       graphElement.set(attributeName, attributeValueString);
     }
@@ -122,136 +98,169 @@ public class GraphMLParser {
     LogHelper.logDebug("<- processAttribute for " + graphElement);
   }
 
-  public Graph buildGraphFromInput( DocumentBuilder db )
-    throws GalantException
-  {
-    LogHelper.disable();
-    LogHelper.enterMethod( getClass(), "buildGraphFromInput" );
-    GraphDispatch dispatch = GraphDispatch.getInstance();
-
-    Graph graphUnderConstruction = new Graph();
-    NodeList nodes;
-    NodeList edges;
-    NodeList graph;
-    nodes = getNodes();
-    edges = getEdges();
-    graph = getGraphNode();
+  /**
+   * Sets all attributes of the current element of the reader, in
+   * alphabetical order of their names, as the DOM parser that was used
+   * before did
+   */
+  private void processAttributes(GraphElement graphElement,
+                                 XMLStreamReader reader) {
+    int count = reader.getAttributeCount();
+    final String [] names = new String[count];
+    Integer [] order = new Integer[count];
+    for ( int i = 0; i < count; i++ ) {
+      names[i] = qualifiedName(reader.getAttributeName(i));
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+        public int compare(Integer one, Integer other) {
+          return names[one].compareTo(names[other]);
+        }
+      });
+    for ( int i : order ) {
+      String value = reader.getAttributeValue(i);
+      processAttribute(graphElement, names[i], value);
+      LogHelper.logDebug("attribute " + names[i] + ", value = " + value);
+    }
+  }
 
-    //only one graph => hardcode 0th index
-    NamedNodeMap attributes = graph.item(0).getAttributes();
+  private static String qualifiedName(QName name) {
+    String prefix = name.getPrefix();
+    if ( prefix == null || prefix.equals("") ) return name.getLocalPart();
+    return prefix + ":" + name.getLocalPart();
+  }
 
-    // the awkward ?: construction is needed because org.w3c.dom.Node
-    // conflicts with Galant Node
-    String directed = ((attributes.getNamedItem("edgedefault") != null)
-                       ? attributes.getNamedItem("edgedefault").getNodeValue()
-                       : "undirected");
+  /**
+   * Sets the properties of the graph from the attributes of the graph
+   * element
+   */
+  private void processGraphAttributes(Graph graphUnderConstruction,
+                                      XMLStreamReader reader) {
+    String directed = reader.getAttributeValue(null, "edgedefault");
+    if ( directed == null ) directed = "undirected";
     graphUnderConstruction.setDirected(directed.equalsIgnoreCase("directed"));
-
-    String name = (attributes.getNamedItem( "name" ) != null )
-      ? attributes.getNamedItem("name").getNodeValue()
-      : null;
-    graphUnderConstruction.setName( name );
-    String comment = ( attributes.getNamedItem( "comment" ) != null )
-      ? attributes.getNamedItem("comment").getNodeValue()
-      : null;
-    graphUnderConstruction.setComment( comment );
-    String type = ( attributes.getNamedItem( "type" ) != null )
-      ? attributes.getNamedItem("type").getNodeValue()
-      : null;
-    String typename = ( attributes.getNamedItem( "type" ) != null )
-      ? attributes.getNamedItem("type").getNodeValue()
-      : null;
+    graphUnderConstruction.setName(reader.getAttributeValue(null, "name"));
+    graphUnderConstruction.setComment(reader.getAttributeValue(null, "comment"));
+    String typename = reader.getAttributeValue(null, "type");
     if ( typename != null && typename.equalsIgnoreCase( "layered" ) ) {
       graphUnderConstruction.setLayered( true );
     }
     else {
       graphUnderConstruction.setLayered( false );
     }
-
     LogHelper.logDebug( "Created new graph:\n" + graphUnderConstruction );
-    LogHelper.logDebug( " number of nodes = " + nodes.getLength() );
-    LogHelper.logDebug( " number of edges = " + edges.getLength() );
+  }
 
-    LogHelper.disable();
-    LogHelper.beginIndent();
-    for ( int nodeIndex = 0; nodeIndex < nodes.getLength(); nodeIndex++ ) {
-      LogHelper.logDebug( " processing " + nodeIndex + "th node." );
-      org.w3c.dom.Node xmlNode = nodes.item(nodeIndex);
-      Node graphNode = new Node(graphUnderConstruction);
-      NamedNodeMap nodeAttributes = xmlNode.getAttributes();
-      if ( attributes != null ) {
-        for ( int i = 0; i < nodeAttributes.getLength(); i++ ) {
-          org.w3c.dom.Node attribute = nodeAttributes.item(i);
-          processAttribute(graphNode, attribute);
-          LogHelper.logDebug("Node attribute " + attribute.getNodeName()
-                             + ", value = " + attribute.getTextContent());
-        }
-      }
-      graphNode.initializeAfterParsing();
-      LogHelper.logDebug( "adding node " + graphNode );
-      graphUnderConstruction.addNode(graphNode);
+  /**
+   * @return true if the nodes that the edge connects are already in the
+   * graph; if not, or if the source or target is bad, the edge has to wait
+   * (any error is reported when it is finally added)
+   */
+  private static boolean endpointsKnown(Edge edge,
+                                        Graph graphUnderConstruction) {
+    try {
+      return graphUnderConstruction.nodeIdExists(Integer.parseInt(edge.getString("source")))
+        && graphUnderConstruction.nodeIdExists(Integer.parseInt(edge.getString("target")));
     }
-    LogHelper.endIndent();
+    catch ( NumberFormatException e ) {
+      return false;
+    }
+  }
 
+  private static void addParsedEdge(Edge graphEdge,
+                                    Graph graphUnderConstruction)
+    throws GalantException
+  {
+    graphEdge.initializeAfterParsing();
+    LogHelper.logDebug( "adding edge " + graphEdge );
+    graphUnderConstruction.addEdge(graphEdge);
+  }
+
+  /**
+   * Builds the graph from the elements of the document, as they come
+   */
+  private Graph buildGraph(XMLStreamReader reader) throws GalantException {
     LogHelper.disable();
+    LogHelper.enterMethod( getClass(), "buildGraph" );
+
+    Graph graphUnderConstruction = new Graph();
+    boolean graphFound = false;
+    int numberOfNodes = 0;
+    int numberOfEdges = 0;
+    List<Edge> waitingEdges = new ArrayList<Edge>();
+
     LogHelper.beginIndent();
-    for ( int nodeIndex = 0; nodeIndex < edges.getLength(); nodeIndex++ ) {
-      LogHelper.logDebug( " processing " + nodeIndex + "th edge." );
-      org.w3c.dom.Node xmlNode = edges.item(nodeIndex);
-      Edge graphEdge = new Edge(graphUnderConstruction);
-      NamedNodeMap edgeAttributes = xmlNode.getAttributes();
-      if ( attributes != null ) {
-        for ( int i = 0; i < edgeAttributes.getLength(); i++ ) {
-          org.w3c.dom.Node attribute = edgeAttributes.item(i);
-          processAttribute(graphEdge, attribute);
-          LogHelper.logDebug("Edge attribute " + attribute.getNodeName()
-                             + ", value = " + attribute.getTextContent());
+    try {
+      while ( reader.hasNext() ) {
+        if ( reader.next() != XMLStreamConstants.START_ELEMENT ) continue;
+        String tag = qualifiedName(reader.getName());
+        if ( tag.equals("graph") && ! graphFound ) {
+          //only one graph => the first one
+          graphFound = true;
+          processGraphAttributes(graphUnderConstruction, reader);
+        }
+        else if ( tag.equals("node") ) {
+          LogHelper.logDebug( " processing " + numberOfNodes++ + "th node." );
+          Node graphNode = new Node(graphUnderConstruction);
+          processAttributes(graphNode, reader);
+          graphNode.initializeAfterParsing();
+          LogHelper.logDebug( "adding node " + graphNode );
+          graphUnderConstruction.addNode(graphNode);
         }
+        else if ( tag.equals("edge") ) {
+          LogHelper.logDebug( " processing " + numberOfEdges++ + "th edge." );
+          Edge graphEdge = new Edge(graphUnderConstruction);
+          processAttributes(graphEdge, reader);
+          if ( waitingEdges.isEmpty()
+               && endpointsKnown(graphEdge, graphUnderConstruction) ) {
+            addParsedEdge(graphEdge, graphUnderConstruction);
+          }
+          else {
+            waitingEdges.add(graphEdge);
+          }
+        }
+      }
+    }
+    catch ( XMLStreamException e ) {
+      throw new GalantException( e.getMessage()
+                                 + "\n - in buildGraph", e );
+    }
+    finally {
+      try {
+        reader.close();
+      }
+      catch ( XMLStreamException e ) { // nothing more to read anyhow
       }
-      graphEdge.initializeAfterParsing();
-      LogHelper.logDebug( "adding edge " + graphEdge );
-      graphUnderConstruction.addEdge(graphEdge);
+    }
+    if ( ! graphFound ) {
+      throw new GalantException( "No graph element in GraphML input"
+                                 + "\n - in buildGraph" );
+    }
+    for ( Edge graphEdge : waitingEdges ) {
+      addParsedEdge(graphEdge, graphUnderConstruction);
     }
     LogHelper.endIndent();
-    LogHelper.restoreState();
+    LogHelper.logDebug( " number of nodes = " + numberOfNodes );
+    LogHelper.logDebug( " number of edges = " + numberOfEdges );
+
     graphUnderConstruction.initializeAfterParsing();
-    LogHelper.exitMethod( getClass(), "buildGraphFromInput:\n" + graphUnderConstruction );
+    LogHelper.exitMethod( getClass(), "buildGraph:\n" + graphUnderConstruction );
     LogHelper.restoreState();
     return graphUnderConstruction;
-  } // buildGraphFromInput
+  } // buildGraph
 
-    /**
-     * @todo the exception handling here needs to go at least one level up
-     */
   public Graph generateGraph(String xml) throws GalantException {
     LogHelper.disable();
     LogHelper.enterMethod( getClass(), "generateGraph( String )" );
-    DocumentBuilderFactory dbf = null;
-    DocumentBuilder db = null;
     Graph newGraph = null;
-
-    dbf = DocumentBuilderFactory.newInstance();
-    db = getDocumentBuilder(dbf);
-    setDocument(db, xml);
-    newGraph = buildGraphFromInput(db);
-
-    // /**
-    //  * @todo these exceptions should really be caught by the editor
-    //  */
-    // catch ( Exception exception ) {
-    //     if ( exception instanceof GalantException ) {
-    //         GalantException ge = (GalantException) exception;
-    //         ge.report( "" );
-    //         try {
-    //             ge.display();
-    //         }
-    //         catch ( Terminate t ) { // should not happen
-    //             t.printStackTrace();
-    //         }
-    //     }
-    //     else exception.printStackTrace( System.out );
-    // }
-
+    try {
+      newGraph
+        = buildGraph(createInputFactory().createXMLStreamReader(new StringReader(xml)));
+    }
+    catch ( XMLStreamException e ) {
+      throw new GalantException( e.getMessage()
+                                 + "\n - in generateGraph(String)", e );
+    }
     LogHelper.exitMethod( getClass(), "generateGraph( String )" );
     LogHelper.restoreState();
     return newGraph;
@@ -259,48 +268,37 @@ public class GraphMLParser {
 
   public Graph generateGraph(File file) throws GalantException {
     LogHelper.enterMethod( getClass(), "generateGraph( File )" );
-    DocumentBuilderFactory dbf = null;
-    DocumentBuilder db = null;
     Graph newGraph = null;
-
-    dbf = DocumentBuilderFactory.newInstance();
-    db = getDocumentBuilder(dbf);
-    setDocument(db, file);
-    newGraph = buildGraphFromInput(db);
-
-    // catch ( Exception exception ) {
-    //     GalantException topLevelException
-    //         = new GalantException( exception.getMessage()
-    //                                + "\n - in generateGraph(File)" );
-    //     topLevelException.report( "" );
-    //     try {
-    //         topLevelException.display();
-    //     }
-    //     catch ( Terminate t ) {
-    //         // ignore - probably not relevant
-    //     }
-    // }
-
+    InputStream in = null;
+    try {
+      in = new BufferedInputStream(new FileInputStream(file));
+      newGraph = buildGraph(createInputFactory().createXMLStreamReader(in));
+    }
+    catch ( IOException e ) {
+      throw new GalantException( e.getMessage()
+                                 + "\n - in generateGraph(File)", e );
+    }
+    catch ( XMLStreamException e ) {
+      throw new GalantException( e.getMessage()
+                                 + "\n - in generateGraph(File)", e );
+    }
+    finally {
+      if ( in != null ) {
+        try {
+          in.close();
+        }
+        catch ( IOException e ) { // already read
+        }
+      }
+    }
     LogHelper.exitMethod( getClass(), "generateGraph( File )" );
     return newGraph;
   }
 
-  public NodeList getGraphNode() {
-    return this.document.getElementsByTagName("graph");
-  }
-
-  public NodeList getNodes() {
-    return this.document.getElementsByTagName("node");
-  }
-
-  public NodeList getEdges() {
-    return this.document.getElementsByTagName("edge");
-  }
-
   public Graph getGraph() {
     return this.graph;
   }
 
 }
 
-//  [Last modified: 2017 07 25 at 19:42:32 GMT]
+//  [Last modified: 2026 10 18 at 19:08:44 GMT]
@@ -6,12 +6,17 @@ import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
+import java.io.File;
+import java.io.IOException;
 
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.tools.Diagnostic;
 import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.GalantPreferences;
 import edu.ncsu.csc.Galant.algorithm.Algorithm;
 import edu.ncsu.csc.Galant.algorithm.code.CodeIntegrator;
 import edu.ncsu.csc.Galant.algorithm.code.CompilationException;
@@ -141,8 +146,19 @@ public class GAlgorithmEditorPanel extends GEditorPanel {
     Algorithm algorithm = getCompiledAlgorithm();
     Graph theGraph = dispatch.getWorkingGraph();
     algorithm.setGraph(theGraph);
+    if ( GalantPreferences.HISTORY_ON_DISK.get() ) {
+      try {
+        theGraph.startHistoryLog(GalantPreferences.KEEP_HISTORY.get()
+                                 ? chooseHistoryFile() : null);
+      }
+      catch ( IOException e ) {
+        ExceptionDialog.displayExceptionInDialog(e, "Unable to record history on disk; keeping it in memory");
+      }
+    }
 
     AlgorithmSynchronizer algorithmSynchronizer = new AlgorithmSynchronizer();
+    algorithmSynchronizer
+      .setRunAheadLimit(GalantPreferences.RUN_AHEAD_STEPS.get());
     AlgorithmExecutor algorithmExecutor
       = new AlgorithmExecutor(algorithm, algorithmSynchronizer);
     dispatch.setAlgorithmSynchronizer(algorithmSynchronizer);
@@ -152,6 +168,24 @@ public class GAlgorithmEditorPanel extends GEditorPanel {
     dispatch.getGraphWindow().updateStatusLabel();
   }
 
+  /**
+   * @return the file chosen by the user to keep the recorded history in,
+   * or null if the user would rather not keep it
+   */
+  private File chooseHistoryFile() {
+    JFileChooser chooser
+      = new JFileChooser(GalantPreferences.DEFAULT_DIRECTORY.get());
+    chooser.setDialogTitle("Keep the recorded animation in");
+    chooser.setFileFilter(new FileNameExtensionFilter("Recorded animation",
+                                                      Graph.HISTORY_LOG_EXTENSION));
+    if ( chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION )
+      return null;
+    File file = chooser.getSelectedFile();
+    if ( ! Graph.isHistoryLogFile(file.getName()) )
+      file = new File(file.getPath() + "." + Graph.HISTORY_LOG_EXTENSION);
+    return file;
+  }
+
   /**
    * Invokes compile, and if an executable is produced, invokes run.
    */
@@ -213,4 +247,4 @@ public class GAlgorithmEditorPanel extends GEditorPanel {
 
 }
 
-// [Last modified: 2017 03 07 at 17:42:02 GMT]
+// [Last modified: 2026 10 19 at 13:33:50 GMT]
@@ -7,8 +7,8 @@ import java.awt.Dimension;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -20,6 +20,7 @@ import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.GalantPreferences;
 import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.parser.BinaryGraphWriter;
 import edu.ncsu.csc.Galant.graph.parser.GraphMLParser;
 import edu.ncsu.csc.Galant.gui.editor.GTabbedPane.AlgorithmOrGraph;
 import edu.ncsu.csc.Galant.gui.util.ExceptionDialog;
@@ -83,12 +84,14 @@ public class GEditorFrame extends JFrame implements WindowListener {
     add(new GEditorMenuBar(this), BorderLayout.NORTH);
 
     jfc.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+    // recorded animations can be opened, too, but not saved
+    List<String> openExtensions
+      = new ArrayList<String>(AlgorithmOrGraph.getAllFileExtensions());
+    openExtensions.add(Graph.HISTORY_LOG_EXTENSION);
     jfc.setFileFilter( new FileNameExtensionFilter( "",
-                                                    AlgorithmOrGraph.getAllFileExtensions()
+                                                    openExtensions
                                                     .toArray(
-                                                      new String[AlgorithmOrGraph.
-                                                                 getAllFileExtensions().
-                                                                 size()]) ) );
+                                                      new String[openExtensions.size()]) ) );
 
     setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
     addWindowListener(this);
@@ -105,16 +108,15 @@ public class GEditorFrame extends JFrame implements WindowListener {
       File file = jfc.getSelectedFile();
       GTabbedPane.AlgorithmOrGraph type =
         AlgorithmOrGraph.typeForFileName( file.getName() );
-      if ( type != null ) {
-        Scanner scanner = null;
+      if ( Graph.isHistoryLogFile( file.getName() ) ) {
         try {
-          scanner = new Scanner(file);
-          scanner.useDelimiter("\\A");
-          tabbedPane.addEditorTab(file.getName(), file.getPath(),
-                                  scanner.hasNext() ? scanner.next() : "", type);
-
+          tabbedPane.addHistoryTab(file);
+        } catch ( Exception e ) { ExceptionDialog.displayExceptionInDialog(e); }
+      }
+      else if ( type != null ) {
+        try {
+          tabbedPane.addFileTab(file, type);
         } catch ( Exception e ) { ExceptionDialog.displayExceptionInDialog(e); }
-        finally { if ( scanner != null ) scanner.close(); }
       } else JOptionPane.showMessageDialog(this, FILENAME_EXTENSION_MESSAGE);
     }
   }
@@ -190,8 +192,15 @@ public class GEditorFrame extends JFrame implements WindowListener {
     if ( file != null && AlgorithmOrGraph.typeForFileName( file.getName() ) != null ) {
       FileWriter outfile = null;
       try {
-        outfile = new FileWriter(file);
-        outfile.write( gaep.getText() );
+        if ( GGraphEditorPanel.class.isInstance(gaep)
+             && AlgorithmOrGraph.isBinaryFileName( file.getName() ) ) {
+          GraphMLParser parser = new GraphMLParser( gaep.getText() );
+          BinaryGraphWriter.write( parser.getGraph(), file );
+        }
+        else {
+          outfile = new FileWriter(file);
+          outfile.write( gaep.getText() );
+        }
         gaep.setDirty(false);
         gaep.setFileName( file.getName() );
         gaep.setFilePath( file.getPath() );
@@ -256,4 +265,4 @@ public class GEditorFrame extends JFrame implements WindowListener {
   public void windowOpened(WindowEvent e) { }
 }
 
-// [Last modified: 2017 07 25 at 19:31:20 GMT]
+// [Last modified: 2026 10 19 at 13:39:27 GMT]
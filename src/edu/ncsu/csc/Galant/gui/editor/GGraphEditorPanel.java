@@ -5,6 +5,8 @@ import java.util.UUID;
 
 import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor;
+import edu.ncsu.csc.Galant.algorithm.AlgorithmSynchronizer;
 import edu.ncsu.csc.Galant.gui.util.ExceptionDialog;
 import edu.ncsu.csc.Galant.graph.component.Graph;
 import edu.ncsu.csc.Galant.graph.parser.GraphMLParser;
@@ -32,6 +34,23 @@ public class GGraphEditorPanel extends GEditorPanel {
    *either the result of reading in the file, or the empty string.
    */
   public GGraphEditorPanel(GTabbedPane gTabbedPane, String filename, String content) {
+    this(gTabbedPane, filename, content, null);
+  }
+
+  /**
+   * Create a new edit session of a graph that has already been read, e.g.,
+   * from a file in the binary format; the panel shows its GraphML text.
+   */
+  public GGraphEditorPanel(GTabbedPane gTabbedPane, String filename, Graph graph) {
+    this(gTabbedPane, filename, graph.xmlString(), graph);
+  }
+
+  /**
+   * @param graph the graph given by the content, or null if the content
+   * still has to be parsed
+   */
+  public GGraphEditorPanel(GTabbedPane gTabbedPane, String filename,
+                           String content, Graph graph) {
     super(gTabbedPane, filename, content);
     GraphDispatch dispatch = GraphDispatch.getInstance();
     LogHelper.disable();
@@ -39,7 +58,9 @@ public class GGraphEditorPanel extends GEditorPanel {
     dispatch.addChangeListener(this);
 
     try {
-      if ( ! content.equals("") ) {
+      if ( graph != null ) {
+        dispatch.setWorkingGraph(graph, uuid);
+      } else if ( ! content.equals("") ) {
         GraphMLParser parser = new GraphMLParser(content);
         dispatch.setWorkingGraph(parser.getGraph(), uuid);
       } else {
@@ -121,6 +142,25 @@ public class GGraphEditorPanel extends GEditorPanel {
     return uuid;
   }
 
+  /**
+   * Replays the animation recorded in the graph of this panel, which was
+   * opened with Graph.openHistoryLog(), as if its algorithm had just been
+   * started; compare GAlgorithmEditorPanel.run().
+   */
+  public void replay() {
+    GraphDispatch dispatch = GraphDispatch.getInstance();
+    Graph graph = dispatch.getWorkingGraph();
+    AlgorithmSynchronizer algorithmSynchronizer = new AlgorithmSynchronizer();
+    AlgorithmExecutor algorithmExecutor
+      = new AlgorithmExecutor(graph.getRecordedState(), algorithmSynchronizer);
+    dispatch.setAlgorithmSynchronizer(algorithmSynchronizer);
+    dispatch.setAlgorithmExecutor(algorithmExecutor);
+    dispatch.setAnimationMode(true);
+    dispatch.getGraphWindow().updateStatusLabel();
+    algorithmExecutor.startAlgorithm();
+    dispatch.getGraphWindow().updateStatusLabel();
+  }
+
 }
 
-// [Last modified: 2017 03 13 at 19:48:34 GMT]
+// [Last modified: 2026 10 19 at 13:36:44 GMT]
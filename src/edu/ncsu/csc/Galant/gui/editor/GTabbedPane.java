@@ -21,6 +21,8 @@ import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.parser.BinaryGraphFormat;
+import edu.ncsu.csc.Galant.graph.parser.BinaryGraphParser;
 import edu.ncsu.csc.Galant.graph.parser.GraphMLParser;
 import edu.ncsu.csc.Galant.gui.util.ExceptionDialog;
 import edu.ncsu.csc.Galant.prefs.Accessors;
@@ -91,7 +93,8 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
   public static final String NO = "No";
 
   public static enum AlgorithmOrGraph {
-    CompiledAlgorithm("class"), Algorithm("alg"), Graph("graphml");
+    CompiledAlgorithm("class"), Algorithm("alg"),
+      Graph("graphml", BinaryGraphFormat.EXTENSION);
 
     private static final List<String> ALL_FILE_EXTS = new ArrayList<String>();
     static
@@ -111,6 +114,15 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
             return type;
       return null;
     }
+    /**
+     * @return true if the file holds a graph in the binary format rather
+     * than as text; the editor shows such a graph as GraphML and converts
+     * it back when saving
+     */
+    public static boolean isBinaryFileName(String filename)
+    {
+      return BinaryGraphFormat.isBinaryGraphFile(filename);
+    }
 
     private List<String> fileExtensions;
     private AlgorithmOrGraph(String ... fileExtensions)
@@ -195,7 +207,6 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
    */
   public GEditorPanel addEditorTab(String filename, String filepath, String content,
                                    AlgorithmOrGraph type) {
-    String fullyQualifiedName = (filepath != null) ? filepath + "/" + filename : null;
     GEditorPanel panel;
     GraphDispatch dispatch = GraphDispatch.getInstance();
     if ( type == AlgorithmOrGraph.Graph )
@@ -206,6 +217,59 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
 // panel = new GCompiledAlgorithmEditorPanel(this, filename, content);
     else return null;
 
+    return addEditorPanel(filename, filepath, panel, type);
+  }
+
+  /**
+   * Adds a new editor tab for the given file and returns its panel; a
+   * graph in the binary format is read directly, so that it does not have
+   * to be parsed again from its GraphML text, which is what the panel
+   * shows.
+   */
+  public GEditorPanel addFileTab(File file, AlgorithmOrGraph type)
+    throws Exception {
+    if ( type == AlgorithmOrGraph.Graph
+         && AlgorithmOrGraph.isBinaryFileName(file.getName()) ) {
+      Graph graph = new BinaryGraphParser(file).getGraph();
+      GEditorPanel panel = new GGraphEditorPanel(this, file.getName(), graph);
+      return addEditorPanel(file.getName(), file.getPath(), panel, type);
+    }
+    Scanner scanner = null;
+    try {
+      scanner = new Scanner(file);
+      scanner.useDelimiter("\\A");
+      return addEditorTab(file.getName(), file.getPath(),
+                          scanner.hasNext() ? scanner.next() : "", type);
+    }
+    finally { if ( scanner != null ) scanner.close(); }
+  }
+
+  /**
+   * Opens an animation recorded earlier, see Graph.openHistoryLog(), in a
+   * new tab that shows the graph as it was at the start, and replays it.
+   * The tab is not tied to the file, so that saving the graph does not
+   * overwrite the recording.
+   */
+  public GEditorPanel addHistoryTab(File file) throws Exception {
+    Graph graph = Graph.openHistoryLog(file);
+    String name = file.getName();
+    name = name.substring(0, name.length()
+                          - Graph.HISTORY_LOG_EXTENSION.length())
+      + "graphml";
+    GGraphEditorPanel panel
+      = new GGraphEditorPanel(this, name, graph.xmlString(0), graph);
+    addEditorPanel(name, null, panel, AlgorithmOrGraph.Graph);
+    panel.replay();
+    return panel;
+  }
+
+  /**
+   * Adds the tab for a panel that has already been created
+   */
+  private GEditorPanel addEditorPanel(String filename, String filepath,
+                                      GEditorPanel panel,
+                                      AlgorithmOrGraph type) {
+    String fullyQualifiedName = (filepath != null) ? filepath + "/" + filename : null;
     if ( filepath != null ) panel.setFilePath(filepath);
     TabRenderer tbr = new TabRenderer(filename, panel);
     insertTab( filename, null, panel, fullyQualifiedName,
@@ -438,23 +502,17 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
    * the file menu.
    */
   private void open(File file) {
+    GTabbedPane.AlgorithmOrGraph type = null;
     if ( file.getName().endsWith(".alg")
-         || file.getName().endsWith(".txt")
-         || file.getName().endsWith(".graphml") ) {
-      Scanner scanner = null;
+         || file.getName().endsWith(".txt") )
+      type = GTabbedPane.AlgorithmOrGraph.Algorithm;
+    else if ( AlgorithmOrGraph.typeForFileName(file.getName())
+              == GTabbedPane.AlgorithmOrGraph.Graph )
+      type = GTabbedPane.AlgorithmOrGraph.Graph;
+    if ( type != null ) {
       try {
-        GTabbedPane.AlgorithmOrGraph type;
-        if ( file.getName().endsWith(".alg")
-             || file.getName().endsWith(".txt") )
-          type = GTabbedPane.AlgorithmOrGraph.Algorithm;
-        else type = GTabbedPane.AlgorithmOrGraph.Graph;
-
-        scanner = new Scanner(file);
-        scanner.useDelimiter("\\A");
-        addEditorTab(file.getName(), file.getPath(), scanner.next(), type);
-
+        addFileTab(file, type);
       } catch ( Exception e ) { ExceptionDialog.displayExceptionInDialog(e); }
-      finally { if ( scanner != null ) scanner.close(); }
     }
   }
 
@@ -476,4 +534,4 @@ public class GTabbedPane extends JTabbedPane implements ChangeListener {
   }
 }
 
-// [Last modified: 2017 03 07 at 21:42:40 GMT]
+// [Last modified: 2026 10 19 at 13:38:02 GMT]
@@ -3,6 +3,7 @@ package edu.ncsu.csc.Galant.gui.util;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.GraphicsEnvironment;
 import java.awt.Point;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -95,6 +96,14 @@ public class ExceptionDialog {
         LogHelper.logDebug("-> displayExceptionInDialog(e, interpretation, onClose)");
         if ( e == null )
             return;
+        // no dialogs when running without a display, e.g., in batch mode
+        if ( GraphicsEnvironment.isHeadless() ) {
+            System.err.println(interpretation == null
+                               ? e.toString() : interpretation);
+            if ( onClose != null )
+                onClose.run();
+            return;
+        }
 
         final JPanel infoDisp = new JPanel(new BorderLayout());
         final JComponent info =
@@ -218,4 +227,4 @@ public class ExceptionDialog {
     }
 }
 
-//  [Last modified: 2017 07 25 at 19:30:55 GMT]
+//  [Last modified: 2026 10 19 at 14:16:02 GMT]
@@ -9,9 +9,11 @@ import java.awt.event.ComponentEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.prefs.Preferences;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -78,14 +80,14 @@ public class WindowUtil
 				if(returnVal == JFileChooser.APPROVE_OPTION) {
 					file = jfc.getSelectedFile();
 					if(file != null) {
-						FileWriter outfile = null;
+						Writer outfile = null;
 						try {
 							if (!file.getPath().endsWith(".graphml")) {
 								file = new File(file.getPath() + ".graphml");
 							}
 							int state = gd.getAlgorithmExecutor().getDisplayState();
-							outfile = new FileWriter(file);
-							outfile.write(g.xmlString(state));
+							outfile = new BufferedWriter(new FileWriter(file));
+							g.writeXml(outfile, state);
 						} catch (Exception ex) {
 							ExceptionDialog.displayExceptionInDialog(ex);
 						} finally {
@@ -220,4 +222,4 @@ public class WindowUtil
 			}
 	}
 
-//  [Last modified: 2016 12 15 at 01:47:00 GMT]
+//  [Last modified: 2026 10 18 at 15:37:30 GMT]
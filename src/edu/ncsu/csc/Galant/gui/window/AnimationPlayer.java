@@ -0,0 +1,180 @@
+package edu.ncsu.csc.Galant.gui.window;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import javax.swing.Timer;
+
+import edu.ncsu.csc.Galant.GalantPreferences;
+import edu.ncsu.csc.Galant.GraphDispatch;
+import edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor;
+import edu.ncsu.csc.Galant.gui.window.panels.GraphPanel;
+import edu.ncsu.csc.Galant.logging.LogHelper;
+
+/**
+ * Plays an animation continuously: a Swing timer fires once per frame, at
+ * the rate given by the preference PLAYBACK_FRAMES_PER_SECOND, and each
+ * time the display moves forward by as many steps as are due according to
+ * PLAYBACK_STEPS_PER_SECOND. If that is more than one, the steps in
+ * between are never drawn.
+ *
+ * Moving to a state the algorithm has already produced is cheap; otherwise
+ * (in lock step, or when the display catches up with a running-ahead
+ * algorithm) the algorithm has to be asked for the step and waited for.
+ * Only part of each frame is spent doing that, so that the window stays
+ * responsive; steps that could not be taken in time are given up rather
+ * than made up for later. Likewise, a frame is dropped, i.e., no repaint
+ * is requested, while the previous one has not been painted yet; the state
+ * shown is then simply the latest when the panel gets to it.
+ *
+ * The rates achieved, in steps and frames per second, are measured over
+ * intervals of about half a second and shown in the status bar.
+ */
+class AnimationPlayer implements ActionListener {
+
+    /** the part of a frame that may be spent stepping the algorithm */
+    private static final double STEP_TIME_FRACTION = 0.5;
+
+    /** time between updates of the measured rates, in milliseconds */
+    private static final long RATE_INTERVAL = 500;
+
+    private final GraphDispatch dispatch;
+    private final GraphWindow window;
+    private final GraphPanel panel;
+    private final Timer timer;
+
+    /**
+     * when playing started (System.nanoTime()) and the number of steps due
+     * since then that have been taken or given up
+     */
+    private long startTime;
+    private long stepsScheduled;
+
+    /**
+     * whether a repaint has been requested and, if so, the paint count of
+     * the panel at that time
+     */
+    private boolean repaintRequested;
+    private int requestedPaintCount;
+
+    /**
+     * start of the current measuring interval, the steps taken and the
+     * paint count of the panel at that time, and the rates measured over
+     * the previous interval
+     */
+    private long rateTime;
+    private long rateSteps;
+    private int ratePaintCount;
+    private long stepsTaken;
+    private double stepsPerSecond;
+    private double framesPerSecond;
+
+    AnimationPlayer(GraphDispatch dispatch, GraphWindow window,
+                    GraphPanel panel) {
+        this.dispatch = dispatch;
+        this.window = window;
+        this.panel = panel;
+        this.timer = new Timer(frameDelay(), this);
+        // a late timer event is merged with the next one instead of queued
+        timer.setCoalesce(true);
+    }
+
+    boolean isPlaying() {
+        return timer.isRunning();
+    }
+
+    void play() {
+        if ( isPlaying() ) return;
+        LogHelper.logDebug("start playback");
+        startTime = rateTime = System.nanoTime();
+        stepsScheduled = stepsTaken = rateSteps = 0;
+        repaintRequested = false;
+        ratePaintCount = panel.getPaintCount();
+        stepsPerSecond = framesPerSecond = 0;
+        timer.setDelay(frameDelay());
+        timer.setInitialDelay(0);
+        timer.start();
+        window.playbackChanged();
+    }
+
+    void pause() {
+        if ( ! isPlaying() ) return;
+        LogHelper.logDebug("stop playback");
+        timer.stop();
+        window.playbackChanged();
+    }
+
+    /**
+     * @return a description of the rates achieved, for the status bar
+     */
+    String getRates() {
+        return String.format("playing at %.1f steps/sec, %.1f frames/sec",
+                             stepsPerSecond, framesPerSecond);
+    }
+
+    private static int frameDelay() {
+        int framesPerSecond
+            = Math.max(1, GalantPreferences.PLAYBACK_FRAMES_PER_SECOND.get());
+        return Math.max(1, 1000 / framesPerSecond);
+    }
+
+    /**
+     * One frame: takes the steps that are due and asks for a repaint
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
+        if ( ! dispatch.isAnimationMode() || executor == null
+             || ! executor.hasNextState() ) {
+            pause();
+            return;
+        }
+        long now = System.nanoTime();
+        int targetRate
+            = Math.max(1, GalantPreferences.PLAYBACK_STEPS_PER_SECOND.get());
+        long due = (long) ((now - startTime) / 1e9 * targetRate)
+            - stepsScheduled;
+        long deadline = now
+            + (long) (STEP_TIME_FRACTION * timer.getDelay() * 1000000);
+        int steps = 0;
+        while ( steps < due && executor.hasNextState()
+                && dispatch.isAnimationMode() ) {
+            int displayState = executor.getDisplayState();
+            executor.incrementDisplayState();
+            // no progress, e.g., the algorithm is waiting for a query
+            if ( executor.getDisplayState() == displayState ) break;
+            steps++;
+            if ( System.nanoTime() > deadline ) break;
+        }
+        stepsScheduled += due;
+        stepsTaken += steps;
+
+        if ( steps > 0 ) {
+            boolean painted = ! repaintRequested
+                || panel.getPaintCount() != requestedPaintCount;
+            if ( painted || ! panel.isShowing() ) {
+                repaintRequested = true;
+                requestedPaintCount = panel.getPaintCount();
+                panel.repaint();
+            }
+            // else the last frame has yet to be painted: drop this one
+        }
+
+        now = System.nanoTime();
+        if ( now - rateTime >= RATE_INTERVAL * 1000000 ) {
+            double seconds = (now - rateTime) / 1e9;
+            stepsPerSecond = (stepsTaken - rateSteps) / seconds;
+            framesPerSecond = (panel.getPaintCount() - ratePaintCount) / seconds;
+            rateTime = now;
+            rateSteps = stepsTaken;
+            ratePaintCount = panel.getPaintCount();
+        }
+        if ( ! dispatch.isAnimationMode() || ! executor.hasNextState() ) {
+            pause();
+        }
+        else if ( steps > 0 ) {
+            window.playbackChanged();
+        }
+    }
+}
+
+//  [Last modified: 2026 10 19 at 01:44:51 GMT]
@@ -105,6 +105,14 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
     return stepBack;
   }
   private final JButton done;
+
+  /** Starts and stops continuous playback of the animation */
+  private final JButton play;
+  private final ImageIcon playIcon
+    = new ImageIcon(GraphWindow.class.getResource("images/play_24.png"));
+  private final ImageIcon pauseIcon
+    = new ImageIcon(GraphWindow.class.getResource("images/pause_24.png"));
+  private final AnimationPlayer player;
 	
   private ButtonGroup modeGroup = new ButtonGroup();
   private JToggleButton select;
@@ -150,6 +158,8 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
       int displayState = executor.getDisplayState();
       String message = "algorithm state is "
         + algorithmState + ", display state is " + displayState;
+      if ( player != null && player.isPlaying() )
+        message += "; " + player.getRates();
       statusLabel.setText(message);
     }
   }
@@ -270,6 +280,7 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
 
     // Create the panel that renders the active Graph
     graphPanel = new GraphPanel(dispatch, this);
+    player = new AnimationPlayer(dispatch, this, graphPanel);
 
     // Add a listener to handle visual editing of the Graph
     graphPanel.addMouseMotionListener( new MouseMotionListener() {
@@ -278,10 +289,16 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
           // If you start dragging, set dragging mode so you don't
           // perform any other operations on the Node until after
           // releasing it
+          // The panel repaints the regions the node leaves and enters
+          // when told of its new position, so there is no need to repaint
+          // all of it
           Node sel = graphPanel.getSelectedNode();
           if ( sel != null ) {
             graphPanel.setDragging(true);
-            graphPanel.setEdgeTracker(null);
+            if ( graphPanel.getEdgeTracker() != null ) {
+              graphPanel.setEdgeTracker(null);
+              frame.repaint();
+            }
             if ( ! dispatch.isAnimationMode()
                  || ! dispatch.algorithmMovesNodes()) {
               try {
@@ -292,7 +309,6 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
               }
             }
           }
-          frame.repaint();
         }
 
         @Override
@@ -462,6 +478,8 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
     stepBack.setToolTipText("Step Backward\n[<-]");
     done = new JButton(new ImageIcon(GraphWindow.class.getResource("images/close_24.png")));
     done.setToolTipText("Exit Animation\n[Esc]");
+    play = new JButton(playIcon);
+    play.setToolTipText("Play\n[Space]");
     
     componentEditPanel = new ComponentEditPanel();
     componentEditPanel.setVisible(false);
@@ -562,6 +580,7 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
         componentEditPanel.setWorkingComponent(null);
         stepForward.setEnabled(true);
         stepBack.setEnabled(false);
+        play.setEnabled(true);
         animationButtons.setVisible(true);
         animationButtons.setFocusable(true);
         animationButtons.requestFocusInWindow();
@@ -575,6 +594,7 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
         repositionBtn.setVisible(false);
       }
       else {
+        player.pause();
         animationButtons.setVisible(false);
         directedBtn.setVisible(true);
         undirectedBtn.setVisible(true);
@@ -780,24 +800,29 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
   }
 
   private synchronized void performStepBack() {
+    player.pause();
     AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
     if ( ! executor.hasPreviousState() ) return;
     executor.decrementDisplayState();
     stepForward.setEnabled(executor.hasNextState());
     stepBack.setEnabled(executor.hasPreviousState());
+    play.setEnabled(executor.hasNextState());
     updateStatusLabel();
   }
 
   private synchronized void performStepForward() {
+    player.pause();
     AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
     if ( ! executor.hasNextState() ) return;
     executor.incrementDisplayState();
     stepForward.setEnabled(executor.hasNextState());
     stepBack.setEnabled(executor.hasPreviousState());
+    play.setEnabled(executor.hasNextState());
     updateStatusLabel();
   }
 
   public synchronized void performDone() {
+    player.pause();
     AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
     // does not appear to help in case of infinite loop
     //executor.algorithmThread.interrupt();
@@ -809,6 +834,32 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
     updateStatusLabel();
   }
 
+  /**
+   * Starts continuous playback of the animation or, if it is playing,
+   * stops it
+   */
+  private void performPlay() {
+    if ( player.isPlaying() ) player.pause();
+    else player.play();
+  }
+
+  /**
+   * Called by the player when it starts or stops or has moved the display
+   * forward: brings the buttons and the status bar up to date
+   */
+  void playbackChanged() {
+    AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
+    boolean playing = player.isPlaying();
+    play.setIcon(playing ? pauseIcon : playIcon);
+    play.setToolTipText(playing ? "Pause\n[Space]" : "Play\n[Space]");
+    if ( executor != null ) {
+      stepForward.setEnabled(executor.hasNextState());
+      stepBack.setEnabled(executor.hasPreviousState());
+      play.setEnabled(executor.hasNextState());
+    }
+    updateStatusLabel();
+  }
+
   /**
    * Initialize the animation panel controls
    * Steps through an Algorithm or exits the mode
@@ -836,6 +887,14 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
         }
       });
 		
+    // Play the animation continuously, or stop playing
+    play.addActionListener(new ActionListener() {
+        @Override
+        public void actionPerformed(ActionEvent arg0) {
+          performPlay();
+        }
+      });
+
     // Exit the animation and change back to Edit mode
     done.addActionListener(new ActionListener() {
         @Override
@@ -846,6 +905,7 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
     
     animationButtons.add(stepBack);
     animationButtons.add(stepForward);
+    animationButtons.add(play);
     animationButtons.add(done);
     animationButtons.setMaximumSize(new Dimension(DEFAULT_WIDTH, ANIMATION_BUTTON_SIZE));
     animationButtons.setMinimumSize(new Dimension(DEFAULT_WIDTH, ANIMATION_BUTTON_SIZE));
@@ -935,6 +995,14 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
             LogHelper.exitMethod(getClass(), "step forward");
             return true;
           }
+          // "Space" start or stop playback when in animation mode
+          if ( dispatch.isAnimationMode()
+               && e.getID() == KeyEvent.KEY_PRESSED
+               && e.getKeyCode() == KeyEvent.VK_SPACE ) {
+            performPlay();
+            LogHelper.exitMethod(getClass(), "play/pause");
+            return true;
+          }
           // "Esc" leave animation mode when in animation mode
           if ( dispatch.isAnimationMode()
                && e.getID() == KeyEvent.KEY_PRESSED
@@ -1144,4 +1212,4 @@ public class GraphWindow extends JPanel implements PropertyChangeListener, Compo
   }
 }
 
-//  [Last modified: 2017 03 13 at 19:31:25 GMT]
+//  [Last modified: 2026 10 19 at 10:42:31 GMT]
@@ -9,6 +9,7 @@
 
 package edu.ncsu.csc.Galant.gui.window.panels;
 
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
@@ -16,20 +17,34 @@ import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.RenderingHints;
 import java.awt.Stroke;
 import java.awt.BasicStroke;
 import java.awt.Dimension;
 import java.awt.font.TextLayout;
+import java.awt.image.BufferedImage;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import edu.ncsu.csc.Galant.GalantException;
 import edu.ncsu.csc.Galant.GalantPreferences;
@@ -37,12 +52,14 @@ import edu.ncsu.csc.Galant.GraphDispatch;
 import edu.ncsu.csc.Galant.graph.component.Edge;
 import edu.ncsu.csc.Galant.graph.component.Node;
 import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.GraphElement;
 import edu.ncsu.csc.Galant.graph.component.GraphElementState;
 import edu.ncsu.csc.Galant.gui.window.GraphWindow;
 import edu.ncsu.csc.Galant.gui.window.GraphWindow.GraphDisplays;
 import edu.ncsu.csc.Galant.logging.LogHelper;
 import edu.ncsu.csc.Galant.algorithm.Terminate;
 import edu.ncsu.csc.Galant.algorithm.AlgorithmExecutor;
+import edu.ncsu.csc.Galant.algorithm.AlgorithmSynchronizer;
 import edu.ncsu.csc.Galant.Timer;
 
 public class GraphPanel extends JPanel{
@@ -124,6 +141,19 @@ public class GraphPanel extends JPanel{
      */
     private static final int MINIMUM_ID_RADIUS = 10;
 
+    /**
+     * Minimum node radius that allows display of labels and weights, of
+     * arrowheads, respectively; below that the graph is too dense for them
+     * to be legible, and drawing them is most of the work
+     */
+    private static final int MINIMUM_TEXT_RADIUS = 3;
+    private static final int MINIMUM_ARROW_RADIUS = 3;
+
+    /**
+     * length and half width of an arrowhead
+     */
+    private final int ARROW_SIZE = 6;
+
     /**
      * diameter of a node for selection purposes
      */
@@ -177,12 +207,18 @@ public class GraphPanel extends JPanel{
      */
     private final int NODE_LABEL_DISTANCE = 2;
 
+    /**
+     * Distance from the center of a node to the start of its id, if the id
+     * has more than one digit
+     */
+    private static final int ID_OFFSET = 8;
+
 	/** Refers to the singleton GraphDispatch to push global information */
 	private final GraphDispatch dispatch;
 	
 	/**
-	 * Holds the width to draw edges and node boundaries. Pulled on each
-	 * repaint from the Galant Preferences 
+	 * Holds the width to draw edges and node boundaries. Copied from the
+	 * Galant Preferences whenever they change, see preferencesChanged()
 	 */
 	private int defaultThickness = DEFAULT_WIDTH;
 
@@ -193,8 +229,8 @@ public class GraphPanel extends JPanel{
     private int highlightThickness = DEFAULT_HIGHLIGHT_WIDTH;
 
 	/**
-	 * Holds the radius for drawing nodes. Pulled on each repaint
-	 * from the Galant Preferences
+	 * Holds the radius for drawing nodes. Copied from the Galant
+	 * Preferences whenever they change
 	 */
 	private int nodeRadius = DEFAULT_NODE_RADIUS;
 	
@@ -203,6 +239,24 @@ public class GraphPanel extends JPanel{
      */
     private boolean displayIds = false;
 
+    /**
+     * whether or not to display labels and weights, arrowheads,
+     * respectively
+     */
+    private boolean displayText = true;
+    private boolean displayArrows = true;
+
+    /**
+     * strokes for normal and highlighted lines, recreated when the widths
+     * change
+     */
+    private BasicStroke defaultStroke = new BasicStroke(DEFAULT_WIDTH);
+    private BasicStroke highlightStroke = new BasicStroke(DEFAULT_HIGHLIGHT_WIDTH);
+
+    /** reused for every node and arrowhead */
+    private final Ellipse2D.Double nodeCircle = new Ellipse2D.Double();
+    private final Path2D.Double arrowHead = new Path2D.Double();
+
 	private Node previousNode;
 	private Node selectedNode;
 	private Edge selectedEdge;
@@ -210,12 +264,97 @@ public class GraphPanel extends JPanel{
 
 	private static final String EMPTY_STRING = "";
 
+    /**
+     * Snapshots of recently displayed states of an animation, least
+     * recently used first; they belong to snapshotGraph and
+     * snapshotExecutor and, for a layered graph, a window of size
+     * snapshotWidth by snapshotHeight. At most snapshotCapacity are kept,
+     * fewer for large graphs.
+     */
+    private static final int MINIMUM_CACHED_SNAPSHOTS = 2;
+    private static final int MAXIMUM_CACHED_SNAPSHOTS = 64;
+    private static final int MAXIMUM_CACHED_ELEMENTS = 1000000;
+    private int snapshotCapacity = MAXIMUM_CACHED_SNAPSHOTS;
+    private final LinkedHashMap<Integer, RenderSnapshot> snapshots
+        = new LinkedHashMap<Integer, RenderSnapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, RenderSnapshot> eldest) {
+                return size() > snapshotCapacity;
+            }
+        };
+    private Graph snapshotGraph;
+    private AlgorithmExecutor snapshotExecutor;
+    private int snapshotPositionVersion;
+    private int snapshotWidth;
+    private int snapshotHeight;
+    /** incremented whenever the snapshots are discarded */
+    private int snapshotGeneration;
+
+    /**
+     * An off-screen drawing of the latest state shown during an animation,
+     * without the message banner: layerSnapshot is that state. Repainting
+     * the same state copies the image; moving to another state redraws
+     * only the parts that changed, see drawLayer(). The others record what
+     * else the drawing depends on: whether layerSnapshot was final (so
+     * that later changes to it cannot have been missed), the snapshots it
+     * belongs with, the scale of the image and the user's settings.
+     */
+    private BufferedImage layer;
+    private RenderSnapshot layerSnapshot;
+    private boolean layerFinal;
+    private int layerGeneration;
+    private double layerScaleX;
+    private double layerScaleY;
+    private String layerSettings;
+
+    /**
+     * The layer is redrawn entirely when more than this fraction of the
+     * elements changed, or the changed ones cover more than this many
+     * separate regions.
+     */
+    private static final double MAXIMUM_REPAIR_FRACTION = 0.25;
+    private static final int MAXIMUM_DAMAGE_REGIONS = 32;
+
+    /**
+     * Regions of the layer to redraw so that it shows layerRepairSnapshot
+     * instead of layerSnapshot, which has the same state but older node
+     * positions: nodes dragged by the user during an animation; valid only
+     * while the snapshots are those of layerRepairGeneration. The
+     * snapshots were last discarded only because nodes were moved if
+     * snapshotsMoved is true.
+     */
+    private List<Rectangle> layerRepairs;
+    private RenderSnapshot layerRepairSnapshot;
+    private int layerRepairGeneration;
+    private boolean snapshotsMoved;
+
+    /**
+     * While editing: the snapshot last drawn or, if the panel has asked
+     * for the regions of some changed elements to be repainted, the one
+     * those regions were computed from; editRepairArea then contains all
+     * of them, and a repaint within it can use the snapshot as it is.
+     */
+    private RenderSnapshot editSnapshot;
+    private Rectangle editRepairArea;
+
+    /**
+     * Nodes and edges that changed since the panel last asked for the
+     * regions they cover to be repainted, see elementChanged(); if there
+     * are more than MAXIMUM_CHANGED_ELEMENTS, the whole panel is repainted
+     * instead and repaintAll is set. Guarded by changedElements itself.
+     */
+    private static final int MAXIMUM_CHANGED_ELEMENTS = 10000;
+    private final Set<GraphElement> changedElements
+        = Collections.newSetFromMap(new IdentityHashMap<GraphElement, Boolean>());
+    private boolean repaintAll;
+    private boolean repaintScheduled;
+
     /**
      * @return a "nice" string version of a double: no decimal point if it's
      * an integer, 'inf' if it's infinity, and only two decimal places
      * otherwise
      */
-    private String doubleToString( double number ) {
+    String doubleToString( double number ) {
        if ( (int) number == number ) {
            // integer
            return String.format("%d", (int) number);
@@ -234,6 +373,16 @@ public class GraphPanel extends JPanel{
 		return isDragging;
 	}
 
+    /**
+     * The number of times the panel has been painted, so that a caller can
+     * tell whether a repaint it asked for has happened yet
+     */
+    private volatile int paintCount;
+
+    public int getPaintCount() {
+        return paintCount;
+    }
+
 	public void setDragging(boolean isDragging) {
 		this.isDragging = isDragging;
 	}
@@ -252,35 +401,222 @@ public class GraphPanel extends JPanel{
         //		this.setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
 		
         this.setBackground(Color.WHITE);
+
+        preferencesChanged();
+        PropertyChangeListener preferenceListener = new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                preferencesChanged();
+                repaint();
+            }
+        };
+        GalantPreferences.NORMAL_WIDTH.addChangeListener(preferenceListener);
+        GalantPreferences.HIGHLIGHT_WIDTH.addChangeListener(preferenceListener);
+        GalantPreferences.NODE_RADIUS.addChangeListener(preferenceListener);
+
+        dispatch.addElementListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                elementChanged(evt.getPropertyName(),
+                               (GraphElement) evt.getNewValue());
+            }
+        });
 		LogHelper.exitConstructor(getClass());
 	}
 
+    /**
+     * Copies the line widths and node radius from the preferences and
+     * updates what depends on them
+     */
+    private void preferencesChanged() {
+        this.defaultThickness = GalantPreferences.NORMAL_WIDTH.get();
+        this.highlightThickness = GalantPreferences.HIGHLIGHT_WIDTH.get();
+        this.nodeRadius = GalantPreferences.NODE_RADIUS.get();
+
+        // display id's only if radius is large enough
+        displayIds = ( nodeRadius >= MINIMUM_ID_RADIUS );
+        displayText = ( nodeRadius >= MINIMUM_TEXT_RADIUS );
+        displayArrows = ( nodeRadius >= MINIMUM_ARROW_RADIUS );
+
+        if ( defaultStroke.getLineWidth() != defaultThickness )
+            defaultStroke = new BasicStroke( defaultThickness );
+        if ( highlightStroke.getLineWidth() != highlightThickness )
+            highlightStroke = new BasicStroke( highlightThickness );
+    }
+
+    /**
+     * Records that a node or edge changed and, unless it has already been
+     * done, arranges for repaintChanges() to run on the event dispatch
+     * thread. Changes made by the algorithm during an animation are
+     * ignored, since the display catches up with them state by state; only
+     * nodes dragged by the user count then.
+     */
+    private void elementChanged(String property, GraphElement element) {
+        if ( dispatch.isAnimationMode()
+             && ! property.equals(GraphDispatch.NODE_POSITION) ) return;
+        Graph workingGraph = dispatch.getExistingWorkingGraph();
+        if ( workingGraph == null
+             || element.getGraph() != workingGraph ) return;
+        synchronized ( changedElements ) {
+            if ( ! repaintAll ) {
+                changedElements.add(element);
+                if ( changedElements.size() > MAXIMUM_CHANGED_ELEMENTS ) {
+                    changedElements.clear();
+                    repaintAll = true;
+                }
+            }
+            if ( repaintScheduled ) return;
+            repaintScheduled = true;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                repaintChanges();
+            }
+        });
+    }
+
+    /**
+     * Asks for the regions covered by the elements that changed, before
+     * and after the change, to be repainted, or the whole panel if that is
+     * simpler
+     */
+    private void repaintChanges() {
+        List<GraphElement> elements;
+        boolean all;
+        synchronized ( changedElements ) {
+            elements = new ArrayList<GraphElement>(changedElements);
+            all = repaintAll;
+            changedElements.clear();
+            repaintAll = false;
+            repaintScheduled = false;
+        }
+        try {
+            Graph graph = dispatch.getWorkingGraph();
+            List<Rectangle> regions = null;
+            if ( ! all ) {
+                regions = dispatch.isAnimationMode()
+                    ? repairLayer(graph, elements)
+                    : repairEdit(graph, elements);
+            }
+            if ( regions == null ) {
+                repaint();
+                return;
+            }
+            for ( Rectangle region : regions ) {
+                repaint(region);
+            }
+        }
+        catch (GalantException e) {
+            e.report( "error while redrawing" );
+        }
+    }
+
+    /**
+     * @return the regions to repaint for the given changes while editing,
+     * or null to repaint everything; the new snapshot becomes editSnapshot
+     */
+    private List<Rectangle> repairEdit(Graph graph, List<GraphElement> elements)
+        throws GalantException
+    {
+        RenderSnapshot from = editSnapshot;
+        if ( from == null ) return null;
+        RenderSnapshot to = new RenderSnapshot(this, graph,
+                                               dispatch.getDisplayState(),
+                                               false);
+        editSnapshot = to;
+        List<Rectangle> regions = changedRegions(from, to, elements);
+        if ( regions == null ) return null;
+        for ( Rectangle region : regions ) {
+            editRepairArea = editRepairArea == null
+                ? new Rectangle(region) : editRepairArea.union(region);
+        }
+        return regions;
+    }
+
+    /**
+     * @return the regions to repaint for nodes dragged during an
+     * animation, or null to repaint everything; these are also recorded as
+     * regions of the layer to redraw, see drawLayer()
+     */
+    private List<Rectangle> repairLayer(Graph graph, List<GraphElement> elements)
+        throws GalantException
+    {
+        int state = dispatch.getDisplayState();
+        int generation = snapshotGeneration;
+        boolean pending = layerRepairs != null
+            && layerRepairGeneration == generation;
+        if ( layer == null || layerSnapshot == null || ! layerFinal
+             || layerSnapshot.state != state
+             || ( layerGeneration != generation && ! pending ) ) return null;
+        RenderSnapshot snapshot = getSnapshot(graph, state);
+        if ( snapshotGeneration != generation && ! snapshotsMoved ) return null;
+        List<Rectangle> regions = changedRegions(layerSnapshot, snapshot,
+                                                 elements);
+        if ( regions == null ) return null;
+        List<Rectangle> repairs = pending
+            ? layerRepairs : new ArrayList<Rectangle>();
+        for ( Rectangle region : regions ) {
+            addRegion(repairs, region);
+        }
+        layerRepairs = repairs;
+        layerRepairSnapshot = snapshot;
+        layerRepairGeneration = snapshotGeneration;
+        return regions;
+    }
+
+    /**
+     * @return the regions covered by the given elements, and the edges of
+     * the given nodes, in either snapshot, merged as in addRegion(); or
+     * null if there are too many elements to bother
+     */
+    private List<Rectangle> changedRegions(RenderSnapshot from,
+                                           RenderSnapshot to,
+                                           List<GraphElement> elements)
+    {
+        int limit = (int) (MAXIMUM_REPAIR_FRACTION
+                           * Math.max(from.size(), to.size()));
+        if ( elements.size() > limit ) return null;
+        FontMetrics metrics = getFontMetrics(NODE_WEIGHT_FONT);
+        List<Rectangle> regions = new ArrayList<Rectangle>();
+        for ( GraphElement element : elements ) {
+            addBounds(regions, from, element, metrics);
+            addBounds(regions, to, element, metrics);
+            if ( element instanceof Node ) {
+                for ( Edge edge : ((Node) element).incidentView() ) {
+                    addBounds(regions, from, edge, metrics);
+                    addBounds(regions, to, edge, metrics);
+                }
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Adds the bounds of the element in the snapshot, if it is visible
+     * there, to the regions
+     */
+    private void addBounds(List<Rectangle> regions, RenderSnapshot snapshot,
+                           GraphElement element, FontMetrics metrics) {
+        int i = snapshot.indexOf(element);
+        if ( i < 0 ) return;
+        addRegion(regions, element instanceof Node
+                  ? nodeBounds(snapshot, i, metrics)
+                  : edgeBounds(snapshot, i, metrics));
+    }
+
   public void drawGraph(Graph graph, Graphics2D g2d, int state)
     throws GalantException
   {
     Timer.drawingTime.start();
-    List<Node> nodes = null;
-    List<Edge> edges = null;
+    editSnapshot = null;
+    editRepairArea = null;
+    RenderSnapshot snapshot = getSnapshot(graph, state);
     // If there is a message, draw it
-    String message = graph.getMessage(state);
-    if ( message != null ) {
-      drawMessageBanner(message, g2d);
-    }
-    nodes = graph.getNodes(state);
-    edges = graph.getEdges(state);
-		
-    // Draw edges first to put them behind nodes
-    for (Edge e : edges) {
-      if ( e.inScope(state) && ! e.isHidden(state)
-           && ! e.getSource().isHidden(state)
-           && ! e.getTarget().isHidden(state) )
-        drawEdge(graph, e, g2d);
-    }
-		
-    for (Node n : nodes) {
-      if ( n.inScope(state) && ! n.isHidden(state) )
-        drawNode(n, g2d);
+    if ( snapshot.message != null ) {
+      drawMessageBanner(snapshot.message, g2d);
     }
+    drawLayer(snapshot, g2d);
     Timer.drawingTime.stop();
   }
 
@@ -291,44 +627,409 @@ public class GraphPanel extends JPanel{
     throws GalantException
   {
     Timer.drawingTime.start();
-    List<Node> nodes = null;
-    List<Edge> edges = null;
-    nodes = graph.getNodes();
-    edges = graph.getEdges();
-
-    // Draw edges first to put them behind nodes
-    for (Edge e : edges) {
-      if ( e.inScope(0) && ! e.isHidden()
-           && ! e.getSource().isHidden()
-           && ! e.getTarget().isHidden() )
-        drawEdge(graph, e, g2d);
+    // the graph changes with every edit, so there is nothing to cache,
+    // except when repainting only the regions of changed elements, for
+    // which repairEdit() has made a snapshot already
+    layer = null;
+    layerSnapshot = null;
+    RenderSnapshot snapshot = editSnapshot;
+    Rectangle clip = g2d.getClipBounds();
+    boolean repair = snapshot != null && editRepairArea != null
+      && clip != null && editRepairArea.contains(clip)
+      && ( clip.width < getWidth() || clip.height < getHeight() )
+      && snapshot.directed == graph.isDirected();
+    if ( ! repair ) {
+      snapshot = new RenderSnapshot(this, graph,
+                                    dispatch.getDisplayState(), false);
+    }
+    editSnapshot = snapshot;
+    editRepairArea = null;
+    drawSnapshot(snapshot, g2d);
+    Timer.drawingTime.stop();
+  }
+
+  /**
+   * @return the snapshot of the given state of the graph during an
+   * animation, from the cache if possible; a new snapshot is cached only
+   * if the state is final, i.e., the algorithm can no longer change it
+   */
+  private RenderSnapshot getSnapshot(Graph graph, int state)
+    throws GalantException
+  {
+    AlgorithmExecutor executor = dispatch.getAlgorithmExecutor();
+    boolean layered = graph.isLayered();
+    int width = layered ? dispatch.getWindowWidth() : 0;
+    int height = layered ? dispatch.getWindowHeight() : 0;
+    int positionVersion = graph.getPositionVersion();
+    if ( graph != snapshotGraph || executor != snapshotExecutor
+         || positionVersion != snapshotPositionVersion
+         || width != snapshotWidth || height != snapshotHeight ) {
+      // another graph, another run of the algorithm or other node
+      // positions: nodes dragged by the user or, for a layered graph, a
+      // different window size
+      snapshotsMoved = graph == snapshotGraph && executor == snapshotExecutor
+        && width == snapshotWidth && height == snapshotHeight;
+      snapshots.clear();
+      snapshotGeneration++;
+      snapshotGraph = graph;
+      snapshotExecutor = executor;
+      snapshotPositionVersion = positionVersion;
+      snapshotWidth = width;
+      snapshotHeight = height;
     }
+    RenderSnapshot snapshot = snapshots.get(state);
+    if ( snapshot == null ) {
+      snapshot = new RenderSnapshot(this, graph, state, true);
+      if ( isFinal(state) ) {
+        snapshotCapacity
+          = Math.max(MINIMUM_CACHED_SNAPSHOTS,
+                     Math.min(MAXIMUM_CACHED_SNAPSHOTS,
+                              MAXIMUM_CACHED_ELEMENTS
+                              / Math.max(1, snapshot.size())));
+        snapshots.put(state, snapshot);
+      }
+    }
+    return snapshot;
+  }
+
+  /**
+   * @return true if the algorithm can no longer change the given state:
+   * it has moved on, finished, or is paused at the end of the step that
+   * produced the state
+   */
+  private boolean isFinal(int state) {
+    AlgorithmSynchronizer synchronizer = dispatch.getAlgorithmSynchronizer();
+    if ( state < dispatch.getAlgorithmState() ) return true;
+    if ( synchronizer == null ) return false;
+    if ( synchronizer.algorithmFinished() ) return true;
+    if ( synchronizer.isRunningAhead() )
+      return state <= synchronizer.getCompletedState();
+    return synchronizer.stepFinished();
+  }
 
-    for (Node n : nodes) {
-      if ( n.inScope(0) && ! n.isHidden() )
-        drawNode(n, g2d);
+  /**
+   * Draws the elements of the snapshot that intersect the clip rectangle
+   */
+  private void drawSnapshot(RenderSnapshot snapshot, Graphics2D g2d)
+    throws GalantException
+  {
+    Rectangle clip = g2d.getClipBounds();
+    if ( clip == null ) {
+      clip = new Rectangle(Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2,
+                           Integer.MAX_VALUE, Integer.MAX_VALUE);
     }
-    Timer.drawingTime.stop();
+    drawSnapshot(snapshot, Collections.singletonList(clip), g2d);
+  }
+
+  /**
+   * Draws the elements of the snapshot that intersect any of the given
+   * (disjoint) regions, each clipped to the region: edges first, to put
+   * them behind nodes. Nodes near a region are found via the grid of the
+   * snapshot; an edge is tested against the regions directly, using its
+   * end points and the position of its label/weight. The regions are
+   * drawn one by one with rectangular clips, since Java2D antialiases
+   * differently under a clip of another shape.
+   */
+  private void drawSnapshot(RenderSnapshot snapshot, List<Rectangle> regions,
+                            Graphics2D g2d)
+    throws GalantException
+  {
+    // bounds on the size of text boxes, monospaced fonts being assumed
+    FontMetrics metrics = g2d.getFontMetrics(NODE_WEIGHT_FONT);
+    int charWidth = metrics.charWidth('W');
+    int textHeight = metrics.getHeight() + 2 * LABEL_PADDING;
+
+    // an edge is drawn in a region if the region, widened by an arrowhead,
+    // meets its line or the region meets the box around its label/weight;
+    // regionsOf[i] has bit k set if edge i is drawn in region k
+    int edgeReach = highlightThickness + ARROW_SIZE;
+    Rectangle [] edgeRegions = new Rectangle[regions.size()];
+    Rectangle edgeArea = null;
+    for ( int k = 0; k < edgeRegions.length; k++ ) {
+      edgeRegions[k] = new Rectangle(regions.get(k));
+      edgeRegions[k].grow(edgeReach, edgeReach);
+      edgeArea = edgeArea == null
+        ? edgeRegions[k] : edgeArea.union(edgeRegions[k]);
+    }
+    if ( edgeArea == null ) return;
+    int edgeTextWidth = displayText && snapshot.maxEdgeTextLength > 0
+      ? snapshot.maxEdgeTextLength * charWidth + 2 * LABEL_PADDING + 1
+      : -1;
+    int loopHeight = Math.max(SELF_LOOP_DIAMETER, nodeRadius + ARROW_SIZE);
+    int [] regionsOf = new int[snapshot.edgeCount];
+    for ( int i = 0; i < snapshot.edgeCount; i++ ) {
+      int x1 = snapshot.sourceX[i];
+      int y1 = snapshot.sourceY[i];
+      int x2 = snapshot.targetX[i];
+      int y2 = snapshot.targetY[i];
+      boolean selfLoop = (snapshot.edgeFlags[i] & RenderSnapshot.SELF_LOOP) != 0;
+      boolean near = selfLoop
+        ? edgeArea.intersects(x1, y1, SELF_LOOP_DIAMETER, loopHeight)
+        : edgeArea.intersectsLine(x1, y1, x2, y2);
+      int middleX = (x1 + x2) / 2;
+      int middleY = (y1 + y2) / 2;
+      for ( int k = 0; k < edgeRegions.length; k++ ) {
+        boolean visible = false;
+        if ( near ) {
+          visible = selfLoop
+            ? edgeRegions[k].intersects(x1, y1, SELF_LOOP_DIAMETER, loopHeight)
+            : edgeRegions[k].intersectsLine(x1, y1, x2, y2);
+        }
+        if ( ! visible && ! selfLoop && edgeTextWidth >= 0 ) {
+          visible = regions.get(k).intersects(middleX - edgeTextWidth,
+                                              middleY - textHeight,
+                                              2 * edgeTextWidth,
+                                              2 * textHeight);
+        }
+        if ( visible ) regionsOf[i] |= 1 << k;
+      }
+    }
+
+    // a node extends nodeReach around its center, its label and weight
+    // to the right of it; a long id may stick out of the circle
+    int nodeReach = nodeRadius + highlightThickness;
+    if ( displayIds ) {
+      nodeReach = Math.max(nodeReach,
+                           ID_OFFSET + snapshot.maxNodeIdLength
+                           * g2d.getFontMetrics().charWidth('W') + 1);
+    }
+    int nodeTextWidth = displayText && snapshot.maxNodeTextLength > 0
+      ? NODE_LABEL_DISTANCE + snapshot.maxNodeTextLength * charWidth
+        + 2 * LABEL_PADDING + 1
+      : 0;
+    int verticalReach = nodeTextWidth > 0
+      ? Math.max(nodeReach, textHeight) : nodeReach;
+
+    Shape clip = g2d.getClip();
+    for ( int k = 0; k < regions.size(); k++ ) {
+      Rectangle region = regions.get(k);
+      g2d.setClip(clip);
+      g2d.clip(region);
+      for ( int i = 0; i < snapshot.edgeCount; i++ ) {
+        if ( (regionsOf[i] & (1 << k)) != 0 ) drawEdge(snapshot, i, g2d);
+      }
+      int [] nodes
+        = snapshot.nodesIn(region.x - nodeReach - nodeTextWidth,
+                           region.y - verticalReach,
+                           region.x + region.width + nodeReach,
+                           region.y + region.height + verticalReach);
+      for ( int i : nodes ) {
+        drawNode(snapshot, i, g2d);
+      }
+    }
+    g2d.setClip(clip);
+  }
+
+  /**
+   * Brings the layer up to date with the snapshot and copies it to the
+   * screen. If only the states of a few elements differ between the
+   * snapshot the layer shows and the new one, according to the time
+   * stamps in their histories, only the regions they cover (in either
+   * state) are cleared and redrawn; otherwise the whole layer is.
+   */
+  private void drawLayer(RenderSnapshot snapshot, Graphics2D g2d)
+    throws GalantException
+  {
+    AffineTransform transform = g2d.getTransform();
+    double scaleX = transform.getScaleX();
+    double scaleY = transform.getScaleY();
+    int width = (int) Math.ceil(getWidth() * scaleX);
+    int height = (int) Math.ceil(getHeight() * scaleY);
+    if ( width <= 0 || height <= 0 ) return;
+    String settings = displaySettings();
+
+    // nodes dragged since the layer was drawn, see repairLayer()
+    boolean repair = layerRepairs != null && snapshot == layerRepairSnapshot
+      && layerRepairGeneration == snapshotGeneration;
+    boolean redraw = layer == null
+      || layer.getWidth() != width || layer.getHeight() != height
+      || scaleX != layerScaleX || scaleY != layerScaleY
+      || ( layerGeneration != snapshotGeneration && ! repair )
+      || ! settings.equals(layerSettings)
+      || layerSnapshot == null || ! layerFinal;
+    if ( redraw || snapshot != layerSnapshot ) {
+      if ( layer == null
+           || layer.getWidth() != width || layer.getHeight() != height ) {
+        layer = new BufferedImage(width, height,
+                                  BufferedImage.TYPE_INT_ARGB_PRE);
+      }
+      Graphics2D layerGraphics = layer.createGraphics();
+      layerGraphics.scale(scaleX, scaleY);
+      layerGraphics.setFont(g2d.getFont());
+      List<Rectangle> regions = redraw ? null
+        : repair ? layerRepairs
+        : damage(layerSnapshot, snapshot, layerGraphics);
+      if ( regions == null ) {
+        regions = Collections.singletonList(new Rectangle(0, 0, getWidth(),
+                                                          getHeight()));
+      }
+      layerGraphics.setComposite(AlphaComposite.Clear);
+      for ( Rectangle region : regions ) layerGraphics.fill(region);
+      layerGraphics.setComposite(AlphaComposite.SrcOver);
+      layerGraphics.setRenderingHints(g2d.getRenderingHints());
+      layerGraphics.setClip(0, 0, getWidth(), getHeight());
+      drawSnapshot(snapshot, regions, layerGraphics);
+      layerGraphics.dispose();
+
+      layerSnapshot = snapshot;
+      layerFinal = snapshots.get(snapshot.state) == snapshot;
+      layerGeneration = snapshotGeneration;
+      layerScaleX = scaleX;
+      layerScaleY = scaleY;
+      layerSettings = settings;
+      layerRepairs = null;
+      layerRepairSnapshot = null;
+    }
+    g2d.drawImage(layer,
+                  AffineTransform.getScaleInstance(1 / scaleX, 1 / scaleY),
+                  null);
+  }
+
+  /**
+   * @return the user's choices that affect the drawing of a state
+   */
+  private String displaySettings() {
+    return nodeRadius + " " + defaultThickness + " " + highlightThickness
+      + " " + GraphDisplays.NODE_LABELS.isShown()
+      + " " + GraphDisplays.NODE_WEIGHTS.isShown()
+      + " " + GraphDisplays.EDGE_LABELS.isShown()
+      + " " + GraphDisplays.EDGE_WEIGHTS.isShown();
+  }
+
+  /**
+   * @return the regions to redraw when going from one snapshot to the
+   * other, i.e., the bounds of the elements whose histories changed in
+   * between, in both snapshots; or null if it is simpler to redraw
+   * everything: many elements changed, or some node appeared, disappeared
+   * or moved, in which case its edges did too
+   */
+  private List<Rectangle> damage(RenderSnapshot from, RenderSnapshot to,
+                                 Graphics2D g2d)
+  {
+    List<Node> nodes = snapshotGraph.getNodesChangedBetween(from.state, to.state);
+    List<Edge> edges = snapshotGraph.getEdgesChangedBetween(from.state, to.state);
+    int limit = (int) (MAXIMUM_REPAIR_FRACTION
+                       * Math.max(from.size(), to.size()));
+    if ( nodes.size() + edges.size() > limit ) return null;
+
+    FontMetrics metrics = g2d.getFontMetrics(NODE_WEIGHT_FONT);
+    List<Rectangle> regions = new ArrayList<Rectangle>();
+    for ( Node node : nodes ) {
+      int i = from.indexOf(node);
+      int j = to.indexOf(node);
+      if ( (i < 0) != (j < 0) ) return null;
+      if ( i < 0 ) continue;
+      if ( from.nodeX[i] != to.nodeX[j] || from.nodeY[i] != to.nodeY[j] )
+        return null;
+      addRegion(regions, nodeBounds(from, i, metrics));
+      addRegion(regions, nodeBounds(to, j, metrics));
+    }
+    for ( Edge edge : edges ) {
+      int i = from.indexOf(edge);
+      int j = to.indexOf(edge);
+      if ( i >= 0 ) addRegion(regions, edgeBounds(from, i, metrics));
+      if ( j >= 0 ) addRegion(regions, edgeBounds(to, j, metrics));
+    }
+    return regions;
+  }
+
+  /**
+   * Adds a region to a list of disjoint ones, merging it with those it
+   * overlaps; if there are too many, they all become one.
+   */
+  private void addRegion(List<Rectangle> regions, Rectangle region) {
+    boolean merged = true;
+    while ( merged ) {
+      merged = false;
+      for ( Iterator<Rectangle> i = regions.iterator(); i.hasNext(); ) {
+        Rectangle other = i.next();
+        if ( other.intersects(region) ) {
+          region = region.union(other);
+          i.remove();
+          merged = true;
+        }
+      }
+    }
+    if ( regions.size() == MAXIMUM_DAMAGE_REGIONS ) {
+      for ( Rectangle other : regions ) region = region.union(other);
+      regions.clear();
+    }
+    regions.add(region);
+  }
+
+  /**
+   * @return a rectangle containing everything drawn for the i-th node of
+   * the snapshot
+   */
+  private Rectangle nodeBounds(RenderSnapshot snapshot, int i,
+                               FontMetrics metrics) {
+    int x = snapshot.nodeX[i];
+    int y = snapshot.nodeY[i];
+    int reach = nodeRadius + highlightThickness + 2;
+    Rectangle bounds = new Rectangle(x - reach, y - reach,
+                                     2 * reach, 2 * reach);
+    if ( displayIds ) {
+      FontMetrics idMetrics = getFontMetrics(getFont());
+      bounds.add(new Rectangle(x - ID_OFFSET - 1, y + 4 - idMetrics.getAscent() - 1,
+                               idMetrics.stringWidth(snapshot.nodeId[i]) + 2,
+                               idMetrics.getHeight() + 2));
+    }
+    int textWidth = Math.max(textWidth(snapshot.nodeLabel[i], metrics),
+                             textWidth(snapshot.nodeWeight[i], metrics));
+    if ( displayText && textWidth > 0 ) {
+      int height = metrics.getHeight() + 2 * LABEL_PADDING + 2;
+      bounds.add(new Rectangle(x + nodeRadius, y - height,
+                               NODE_LABEL_DISTANCE + textWidth
+                               + 2 * LABEL_PADDING + 2,
+                               2 * height));
+    }
+    return bounds;
+  }
+
+  /**
+   * @return a rectangle containing everything drawn for the i-th edge of
+   * the snapshot
+   */
+  private Rectangle edgeBounds(RenderSnapshot snapshot, int i,
+                               FontMetrics metrics) {
+    int x1 = snapshot.sourceX[i];
+    int y1 = snapshot.sourceY[i];
+    int x2 = snapshot.targetX[i];
+    int y2 = snapshot.targetY[i];
+    int reach = highlightThickness + ARROW_SIZE + 2;
+    Rectangle bounds;
+    if ( (snapshot.edgeFlags[i] & RenderSnapshot.SELF_LOOP) != 0 ) {
+      bounds = new Rectangle(x1, y1, SELF_LOOP_DIAMETER,
+                             Math.max(SELF_LOOP_DIAMETER,
+                                      nodeRadius + ARROW_SIZE));
+      bounds.grow(reach, reach);
+      return bounds;
+    }
+    bounds = new Rectangle(Math.min(x1, x2), Math.min(y1, y2),
+                           Math.abs(x2 - x1), Math.abs(y2 - y1));
+    bounds.grow(reach, reach);
+    int textWidth = Math.max(textWidth(snapshot.edgeLabel[i], metrics),
+                             textWidth(snapshot.edgeWeight[i], metrics));
+    if ( displayText && textWidth > 0 ) {
+      int width = textWidth + 2 * LABEL_PADDING + 2;
+      int height = metrics.getHeight() + 2 * LABEL_PADDING + 2;
+      bounds.add(new Rectangle((x1 + x2) / 2 - width, (y1 + y2) / 2 - height,
+                               2 * width, 2 * height));
+    }
+    return bounds;
+  }
+
+  private static int textWidth(String text, FontMetrics metrics) {
+    return text == null ? 0 : metrics.stringWidth(text) + 1;
   }
 
 	@Override
 	public void paintComponent(Graphics g) {
+        paintCount++;
         try {
             // Get the graph to draw
             Graph graph = dispatch.getWorkingGraph();
 
-            // Get the normal width of an edge or node boundary
-            this.defaultThickness = GalantPreferences.NORMAL_WIDTH.get();
-
-            // Get the width of a node boundary that's highlighted or colored
-            this.highlightThickness = GalantPreferences.HIGHLIGHT_WIDTH.get();
-
-            // Get node radius
-            this.nodeRadius = GalantPreferences.NODE_RADIUS.get();
-	
-            // display id's only if radius is large enough
-            displayIds = ( nodeRadius >= MINIMUM_ID_RADIUS );
-
             super.paintComponent(g);
             Graphics2D g2d = (Graphics2D) g;
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -361,63 +1062,6 @@ public class GraphPanel extends JPanel{
         }
     }
 
-    /**
-     * @return true if the label of the node should be visible; the answer
-     * is controlled by toggle switches when not in animation mode and by the
-     * algorithm otherwise.
-     */
-    private boolean labelVisible(Node node) {
-        if ( ! GraphDisplays.NODE_LABELS.isShown() ) return false;
-        int state = dispatch.getDisplayState();
-        boolean visible = node.hasLabel(state)
-            && ! (node.getLabel(state).length() == 0)
-            && ! node.labelIsHidden(state);
-        return visible;
-    }
-
-    /**
-     * @return true if the weight of the node should be visible; the answer
-     * is controlled by toggle switches when not in animation mode and by the
-     * algorithm otherwise.
-     */
-    private boolean weightVisible(Node node) {
-        int state = dispatch.getDisplayState(); 
-        boolean visible = node.hasWeight(state);
-        visible = visible
-            && GraphDisplays.NODE_WEIGHTS.isShown()
-            && ! node.weightIsHidden(state);
-        return visible;
-    }
-
-    /**
-     * @return true if the label of the edge should be visible; the answer
-     * is controlled by toggle switches when not in animation mode and by the
-     * algorithm otherwise.
-     */
-    private boolean labelVisible(Edge edge) {
-        int state = dispatch.getDisplayState();
-        boolean visible = edge.hasLabel(state)
-            && ! (edge.getLabel(state).length() == 0);
-        visible = visible
-            && GraphDisplays.EDGE_LABELS.isShown()
-            && ! edge.labelIsHidden(state);
-        return visible;
-    }
-
-    /**
-     * @return true if the weight of the edge should be visible; the answer
-     * is controlled by toggle switches when not in animation mode and by the
-     * algorithm otherwise.
-     */
-    private boolean weightVisible(Edge edge) {
-        int state = dispatch.getDisplayState(); 
-        boolean visible = edge.hasWeight(state);
-        visible = visible
-            && GraphDisplays.EDGE_WEIGHTS.isShown()
-            && ! edge.weightIsHidden(state);
-        return visible;
-    }
-
     /**
      * @return the point at the center of node n, based on whether or not
      * you're in animation mode or whether the graph is layered.
@@ -430,7 +1074,7 @@ public class GraphPanel extends JPanel{
      * for a variety of interpretations based on graph type and window
      * dimensions.
      */
-    private Point getNodeCenter( Node n ) throws GalantException{
+    Point getNodeCenter( Node n ) throws GalantException{
         int state = dispatch.getDisplayState();
         Point nodeCenter = null;
 
@@ -497,96 +1141,81 @@ public class GraphPanel extends JPanel{
     }
 
 	/**
-	 * Draws the specified node and its properties to the screen
+	 * Draws the i-th node of the snapshot and its properties to the screen
      * the positions of nodes to be drawn are determined by their state
      * dependent position, which may not be the best solution since only one
      * position that going through the algorithm is used if algorithm don't move
      * nodes in the middle of execution, which is the most usual case.
 	 * 
-	 * @param n The node to be drawn (assumed to be non-null)
+	 * @param snapshot the state of the graph to be drawn
+	 * @param i the index of the node in the snapshot
 	 * @param g2d The graphics object used to draw the elements
-     *
-     * @todo Because the class NodeState no longer exists, we have to use
-     * n.hasX(stateNumber) instead of currentState.hasX(), for example. The
-     * former adds a level of indirection. There's probably a way to avoid
-     * this.
 	 */
-	private void drawNode(Node n, Graphics2D g2d)
+	private void drawNode(RenderSnapshot snapshot, int i, Graphics2D g2d)
         throws GalantException
     {
-        int stateNumber = dispatch.getDisplayState();
-        Point nodeCenter = getNodeCenter(n);
+        int x = snapshot.nodeX[i];
+        int y = snapshot.nodeY[i];
+        byte flags = snapshot.nodeFlags[i];
         g2d.setColor(Color.BLACK);
 		
-        if ( labelVisible(n) ) {
-            String label = n.getLabel(stateNumber);
-            if ( ! label.trim().equals("") ) {
-                TextLayout layout
-                    = new TextLayout( label, NODE_LABEL_FONT,
-                                      g2d.getFontRenderContext() );
-                Rectangle2D bounds = layout.getBounds();
-                // upper left corner of label: treats the bounding box of
-                // as that of the label text only, without any padding;
-                // ditto with weight below
-                Point labelPosition
-                    = new Point( nodeCenter.x
-                                 + nodeRadius
-                                 + NODE_LABEL_DISTANCE + LABEL_PADDING,
-                                 nodeCenter.y
-                                 + LABEL_PADDING );
-                g2d.setColor(Color.WHITE);
-                g2d.fillRect( labelPosition.x - LABEL_PADDING,
-                              labelPosition.y - LABEL_PADDING,
-                              (int) (bounds.getWidth() + 2 * LABEL_PADDING),
-                              (int) (bounds.getHeight() + 2 * LABEL_PADDING) );
-                g2d.setColor(Color.BLACK);
-                // text is anchored at *lower* left corner
-                layout.draw( g2d, (float) labelPosition.getX(),
-                             (float) (labelPosition.getY() 
-                                      + bounds.getHeight()) );
-            }
+        if ( displayText && snapshot.nodeLabel[i] != null
+             && GraphDisplays.NODE_LABELS.isShown() ) {
+            TextLayout layout
+                = snapshot.nodeLabelLayout( i, g2d.getFontRenderContext(),
+                                            NODE_LABEL_FONT );
+            Rectangle2D bounds = layout.getBounds();
+            // upper left corner of label: treats the bounding box of
+            // as that of the label text only, without any padding;
+            // ditto with weight below
+            int labelX = x + nodeRadius + NODE_LABEL_DISTANCE + LABEL_PADDING;
+            int labelY = y + LABEL_PADDING;
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect( labelX - LABEL_PADDING,
+                          labelY - LABEL_PADDING,
+                          (int) (bounds.getWidth() + 2 * LABEL_PADDING),
+                          (int) (bounds.getHeight() + 2 * LABEL_PADDING) );
+            g2d.setColor(Color.BLACK);
+            // text is anchored at *lower* left corner
+            layout.draw( g2d, (float) labelX,
+                         (float) (labelY + bounds.getHeight()) );
         } // end, draw node label
 			
-        if ( weightVisible(n) ) {
-            String weight = doubleToString(n.getWeight(stateNumber));
-            TextLayout layout = new TextLayout( weight, NODE_WEIGHT_FONT,
-                                                g2d.getFontRenderContext() );
+        if ( displayText && snapshot.nodeWeight[i] != null
+             && GraphDisplays.NODE_WEIGHTS.isShown() ) {
+            TextLayout layout
+                = snapshot.nodeWeightLayout( i, g2d.getFontRenderContext(),
+                                             NODE_WEIGHT_FONT );
             Rectangle2D bounds = layout.getBounds();
             // padding is 'shared' with node label
-            Point weightPosition = new Point( nodeCenter.x
-                                              + nodeRadius
-                                              + NODE_LABEL_DISTANCE
-                                              + LABEL_PADDING,
-                                              nodeCenter.y
-                                              - (int) (bounds.getHeight()) );
+            int weightX = x + nodeRadius + NODE_LABEL_DISTANCE + LABEL_PADDING;
+            int weightY = y - (int) (bounds.getHeight());
             g2d.setColor(Color.WHITE);
-            g2d.fillRect( weightPosition.x - LABEL_PADDING,
-                          weightPosition.y - LABEL_PADDING,
+            g2d.fillRect( weightX - LABEL_PADDING,
+                          weightY - LABEL_PADDING,
                           (int) (bounds.getWidth()) + 2 * LABEL_PADDING,
                           (int) (bounds.getHeight()) + 2 * LABEL_PADDING);
             g2d.setColor(Color.BLACK);
             // text is anchored at *lower* left corner
-            layout.draw( g2d, (float) weightPosition.getX(),
-                         (float) (weightPosition.getY()
-                                  + bounds.getHeight()) );
+            layout.draw( g2d, (float) weightX,
+                         (float) (weightY + bounds.getHeight()) );
         } // end, draw node weight
 
         /* Define node circle: used to create both outline and fill.
            Circle is filled first so that outline can be drawn on top of
            the filled circle */
-        Ellipse2D.Double nodeCircle
-            = new Ellipse2D.Double( nodeCenter.x - nodeRadius,
-                                    nodeCenter.y - nodeRadius,
-                                    2 * nodeRadius,
-                                    2 * nodeRadius );
+        nodeCircle.setFrame( x - nodeRadius,
+                             y - nodeRadius,
+                             2 * nodeRadius,
+                             2 * nodeRadius );
 
         /* draw node interior */
         if ( selectedNode != null
-             && selectedNode.equals(n)
+             && selectedNode.equals(snapshot.nodes[i])
              && ! dispatch.isAnimationMode() ) {
             g2d.setColor( SELECTED_NODE_COLOR );
         }
-        else if ( n.isMarked(stateNumber) ) {
+        else if ( (flags & RenderSnapshot.MARKED) != 0 ) {
             g2d.setColor( MARKED_NODE_COLOR );
         }
         else {
@@ -595,21 +1224,19 @@ public class GraphPanel extends JPanel{
         g2d.fill( nodeCircle );
 
         /* draw node boundary */
-        if ( n.isSelected(stateNumber) ) {
+        if ( (flags & RenderSnapshot.HIGHLIGHTED) != 0 ) {
             g2d.setColor( HIGHLIGHT_COLOR );
-            g2d.setStroke( new BasicStroke( highlightThickness ) );
+            g2d.setStroke( highlightStroke );
         }
-        else if ( n.getColor(stateNumber) == null ) {
+        else if ( snapshot.nodeColor[i] == null ) {
             // no declared color, use default color with default line width 
             g2d.setColor( DEFAULT_COLOR );
-            g2d.setStroke( new BasicStroke( defaultThickness ) );
+            g2d.setStroke( defaultStroke );
         }
         else {
             // color declared, use it and make stroke thicker
-            String nodeColor = n.getColor(stateNumber);
-            Color c = Color.decode( nodeColor );
-            g2d.setColor(c);
-            g2d.setStroke( new BasicStroke( highlightThickness ) );
+            g2d.setColor( snapshot.nodeColor[i] );
+            g2d.setStroke( highlightStroke );
         }
 
         // draw node boundary
@@ -619,61 +1246,54 @@ public class GraphPanel extends JPanel{
         /** @todo get rid of magic numbers here */
         if ( displayIds ) {
             g2d.setColor(Color.BLACK);
-            String idStr = "" + n.getId();
+            String idStr = snapshot.nodeId[i];
             if (idStr.length() > 1) {
-                g2d.drawChars( idStr.toCharArray(), 0,
-                               idStr.length(),
-                               nodeCenter.x-8, nodeCenter.y+4 );
+                g2d.drawString( idStr, x-ID_OFFSET, y+4 );
             }
             else {
-                g2d.drawChars( idStr.toCharArray(), 0,
-                               idStr.length(),
-                               nodeCenter.x-5, nodeCenter.y+4 );
+                g2d.drawString( idStr, x-5, y+4 );
             }
         }
     } // end, drawNode
 
 
 	/**
-	 * Draws the specified edge between its source and destination nodes
+	 * Draws the i-th edge of the snapshot between its source and
+	 * destination nodes
 	 * 
-	 * @param g The current graph, used to determine directedness
-	 * @param e The edge to be drawn
+	 * @param snapshot the state of the graph to be drawn, which also
+	 * determines directedness
+	 * @param i the index of the edge in the snapshot
 	 * @param g2d The graphics object used to draw the elements
 	 */
-	private void drawEdge(Graph g, Edge e, Graphics2D g2d) 
+	private void drawEdge(RenderSnapshot snapshot, int i, Graphics2D g2d) 
         throws GalantException
     {
-        int stateNumber = dispatch.getDisplayState();
-		int thickness = defaultThickness;
-		
-        Node target = e.getTargetNode();
-        Node source = e.getSourceNode();
-        Point p1 = getNodeCenter(source);
-        Point p2 = getNodeCenter(target);
+		Stroke stroke = defaultStroke;
+        byte flags = snapshot.edgeFlags[i];
+        int x1 = snapshot.sourceX[i];
+        int y1 = snapshot.sourceY[i];
+        int x2 = snapshot.targetX[i];
+        int y2 = snapshot.targetY[i];
                 
         // determine color and thickness of the edge
-        if ( e.isSelected(stateNumber) ) {
+        if ( (flags & RenderSnapshot.HIGHLIGHTED) != 0 ) {
             g2d.setColor(HIGHLIGHT_COLOR);
-            thickness = highlightThickness; 
+            stroke = highlightStroke; 
+        }
+        else if ( snapshot.edgeColor[i] != null ) {
+            g2d.setColor(snapshot.edgeColor[i]);
+            stroke = highlightStroke;
         }
         else {
-            String edgeColor = e.getColor(stateNumber);
-            if ( edgeColor != null ) {
-                Color c = Color.decode(e.getColor(stateNumber));
-                g2d.setColor(c);
-                thickness = highlightThickness;
-            }
-            else {
-                g2d.setColor(DEFAULT_COLOR);
-            }
+            g2d.setColor(DEFAULT_COLOR);
         }
 
         // determine stroke
         Stroke oldStroke = g2d.getStroke();
         // special case: selected edge (dashed)
         if ( selectedEdge != null
-             && selectedEdge.equals(e)
+             && selectedEdge.equals(snapshot.edges[i])
              && ! dispatch.isAnimationMode() ) {
             Stroke selectedStroke
                 = new BasicStroke(highlightThickness,
@@ -683,29 +1303,35 @@ public class GraphPanel extends JPanel{
             g2d.setStroke(selectedStroke);
         }
         else {
-            g2d.setStroke(new BasicStroke(thickness));
+            g2d.setStroke(stroke);
         }
 
-        if ( target.equals(source) ) {
+        if ( (flags & RenderSnapshot.SELF_LOOP) != 0 ) {
             // Self loop
-            g2d.drawOval(p1.x, p1.y, SELF_LOOP_DIAMETER, SELF_LOOP_DIAMETER);
+            g2d.drawOval(x1, y1, SELF_LOOP_DIAMETER, SELF_LOOP_DIAMETER);
             g2d.setStroke(oldStroke);
-            if (g.isDirected()) {
-                drawSelfLoopArrow(p1, g2d);
+            if ( snapshot.directed && displayArrows ) {
+                drawSelfLoopArrow(x1, y1, g2d);
             }
         }
         else {
             // Straight edge
-            g2d.drawLine(p1.x, p1.y, p2.x, p2.y);
+            g2d.drawLine(x1, y1, x2, y2);
             g2d.setStroke(oldStroke);
 
-            if (g.isDirected()) {
-                drawDirectedArrow(p1, p2, g2d);
+            if ( snapshot.directed && displayArrows ) {
+                drawDirectedArrow(x1, y1, x2, y2, g2d);
             }
-            if ( labelVisible(e) )
-                drawEdgeLabel(e.getLabel(stateNumber), p1, p2, g2d);
-            if ( weightVisible(e) )
-                drawEdgeWeight(e.getWeight(stateNumber), p1, p2, g2d);
+            if ( displayText && snapshot.edgeLabel[i] != null
+                 && GraphDisplays.EDGE_LABELS.isShown() )
+                drawEdgeLabel(snapshot.edgeLabelLayout(i, g2d.getFontRenderContext(),
+                                                       EDGE_LABEL_FONT),
+                              x1, y1, x2, y2, g2d);
+            if ( displayText && snapshot.edgeWeight[i] != null
+                 && GraphDisplays.EDGE_WEIGHTS.isShown() )
+                drawEdgeWeight(snapshot.edgeWeightLayout(i, g2d.getFontRenderContext(),
+                                                         EDGE_WEIGHT_FONT),
+                               x1, y1, x2, y2, g2d);
         }
         g2d.setColor(Color.BLACK);
     }
@@ -713,67 +1339,65 @@ public class GraphPanel extends JPanel{
 	/**
 	 * Draws a directed arrow on the end of an edge between the specified nodes
 	 * 
-	 * @param source The source point of the relevant edge
-	 * @param dest The destination point of the relevant edge
+	 * @param x1,y1 The source point of the relevant edge
+	 * @param x2,y2 The destination point of the relevant edge
 	 * @param g2d The graphics object used to draw the elements
 	 */
-	private void drawDirectedArrow(Point source, Point dest, Graphics2D g2d) {
-		Graphics2D g = (Graphics2D) g2d.create();
-		
-        double dx = dest.getX() - source.getX(); 
-        double dy = dest.getY() - source.getY();
-        double angle = Math.atan2(dy, dx);
+	private void drawDirectedArrow(int x1, int y1, int x2, int y2, Graphics2D g2d) {
+        double dx = x2 - x1; 
+        double dy = y2 - y1;
+        double distance = Math.sqrt(dx*dx + dy*dy);
+        if ( distance == 0 ) return;
+        // unit vectors along and across the edge
+        double ux = dx / distance;
+        double uy = dy / distance;
         
-        int len = (int) Math.sqrt(dx*dx + dy*dy) - nodeRadius;
+        int len = (int) distance - nodeRadius;
         
-        AffineTransform at = AffineTransform.getTranslateInstance(source.getX(), source.getY());
-        at.concatenate(AffineTransform.getRotateInstance(angle));
-        g.transform(at);
-
-        Stroke oldStroke = g.getStroke();
-		
-        g.fillPolygon(new int[] {len, len-6, len-6, len},
-                      new int[] {0, -6, 6, 0}, 4);
+        // the tip touches the target node
+        double tipX = x1 + len * ux;
+        double tipY = y1 + len * uy;
+        double baseX = x1 + (len - ARROW_SIZE) * ux;
+        double baseY = y1 + (len - ARROW_SIZE) * uy;
+        arrowHead.reset();
+        arrowHead.moveTo(tipX, tipY);
+        arrowHead.lineTo(baseX + ARROW_SIZE * uy, baseY - ARROW_SIZE * ux);
+        arrowHead.lineTo(baseX - ARROW_SIZE * uy, baseY + ARROW_SIZE * ux);
+        arrowHead.closePath();
+        g2d.fill(arrowHead);
     }
 	
 	/**
 	 * Draws a directed arrow on the end of a self edge at the specified point
 	 * 
-	 * @param p1 The location of the relevant node
+	 * @param x,y The location of the relevant node
 	 * @param g2d The graphics object used to draw the elements
 	 */
-	private void drawSelfLoopArrow(Point p1, Graphics2D g2d) {
-		int x = p1.x + 1;
-		int y = p1.y + nodeRadius;
+	private void drawSelfLoopArrow(int x, int y, Graphics2D g2d) {
+		x = x + 1;
+		y = y + nodeRadius;
 		
-		g2d.fillPolygon(new int[] {x, x-6, x+6, x},
-                      new int[] {y, y+6, y+6, y}, 4);
+		g2d.fillPolygon(new int[] {x, x-ARROW_SIZE, x+ARROW_SIZE, x},
+                      new int[] {y, y+ARROW_SIZE, y+ARROW_SIZE, y}, 4);
 	}
 	
 	/**
 	 * Draws an edge weight to the screen positioned along the edge itself
 	 * 
-	 * @param weight The value of the weight
-	 * @param label The label associated with the same edge. This is used to align the weight with the label.
-	 * @param source The source point of the relevant edge
-	 * @param dest The destination point of the relevant edge
+	 * @param layout The text of the weight, laid out in EDGE_WEIGHT_FONT
+	 * @param x1,y1 The source point of the relevant edge
+	 * @param x2,y2 The destination point of the relevant edge
 	 * @param g2d The graphics object used to draw the elements
 	 */
-	private void drawEdgeWeight( double weight, 
-                                 Point source,
-                                 Point dest,
+	private void drawEdgeWeight( TextLayout layout,
+                                 int x1, int y1, int x2, int y2,
                                  Graphics2D g2d ) {
         /** @todo need special handling for self loops, i.e., put label and
          * weight at the bottom of loop */
 		
-		String weightString = doubleToString( weight );
-
-        Point2D edgeMiddle = new Point2D.Double( 0.5 * ( source.x + dest.x ),
-                                          0.5 * ( source.y + dest.y ) );
+        Point2D edgeMiddle = new Point2D.Double( 0.5 * ( x1 + x2 ),
+                                          0.5 * ( y1 + y2 ) );
         
-        TextLayout layout
-            = new TextLayout( weightString, EDGE_WEIGHT_FONT,
-                              g2d.getFontRenderContext() );
         Rectangle2D bounds = layout.getBounds();
 
         Point2D weightPosition
@@ -799,21 +1423,21 @@ public class GraphPanel extends JPanel{
 	/**
 	 * Draws the specified label along the edge between the specified points, making sure it is always drawn upright.
 	 * 
-	 * @param label The label associated with the edge
-	 * @param source The source point of the relevant edge
-	 * @param dest The destination point of the relevant edge
+	 * @param layout The label associated with the edge, laid out in
+	 * EDGE_LABEL_FONT
+	 * @param x1,y1 The source point of the relevant edge
+	 * @param x2,y2 The destination point of the relevant edge
 	 * @param g2d The graphics object used to draw the elements
 	 */
-	private void drawEdgeLabel( String label, Point source, Point dest, Graphics2D g2d ) {
+	private void drawEdgeLabel( TextLayout layout,
+                                int x1, int y1, int x2, int y2,
+                                Graphics2D g2d ) {
         /** @todo need special handling for self loops, i.e., put label and
          * weight at the bottom of loop */
 		
-        Point2D edgeMiddle = new Point2D.Double( 0.5 * ( source.x + dest.x ),
-                                          0.5 * ( source.y + dest.y ) );
+        Point2D edgeMiddle = new Point2D.Double( 0.5 * ( x1 + x2 ),
+                                          0.5 * ( y1 + y2 ) );
         
-        TextLayout layout
-            = new TextLayout( label, EDGE_LABEL_FONT,
-                              g2d.getFontRenderContext() );
         Rectangle2D bounds = layout.getBounds();
 
         Point2D labelPosition
@@ -1058,4 +1682,4 @@ public class GraphPanel extends JPanel{
 	
 }
 
-//  [Last modified: 2017 11 03 at 01:00:34 GMT]
+//  [Last modified: 2026 10 19 at 14:39:02 GMT]
@@ -0,0 +1,126 @@
+package edu.ncsu.csc.Galant.gui.window.panels;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the (screen) positions of the nodes of a
+ * RenderSnapshot, so that GraphPanel can find the nodes near a clip
+ * rectangle without looking at all of them. The nodes of each cell are
+ * kept contiguously, cell after cell, as in a counting sort.
+ */
+class NodeGrid {
+
+    /** side of a cell in pixels, unless the nodes are very spread out */
+    private static final int CELL_SIZE = 64;
+
+    /** the number of cells is at most this many times the number of nodes */
+    private static final int CELLS_PER_NODE = 2;
+
+    private final int [] xs;
+    private final int [] ys;
+
+    private final int minX;
+    private final int minY;
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+
+    /** the nodes of cell c are cellNodes[cellStart[c]..cellStart[c+1]-1] */
+    private final int [] cellStart;
+    private final int [] cellNodes;
+
+    /**
+     * @param xs,ys the positions of nodes 0 through count - 1
+     */
+    NodeGrid(int [] xs, int [] ys, int count) {
+        this.xs = xs;
+        this.ys = ys;
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for ( int i = 0; i < count; i++ ) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        if ( count == 0 ) {
+            minX = minY = maxX = maxY = 0;
+        }
+        long width = (long) maxX - minX + 1;
+        long height = (long) maxY - minY + 1;
+        long cellSize = CELL_SIZE;
+        long maxCells = (long) CELLS_PER_NODE * Math.max(count, 1);
+        while ( ((width + cellSize - 1) / cellSize)
+                * ((height + cellSize - 1) / cellSize) > maxCells ) {
+            cellSize *= 2;
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.cellSize = (int) Math.min(cellSize, Integer.MAX_VALUE);
+        this.columns = (int) ((width + cellSize - 1) / cellSize);
+        this.rows = (int) ((height + cellSize - 1) / cellSize);
+
+        int [] cellOf = new int[count];
+        cellStart = new int[columns * rows + 1];
+        for ( int i = 0; i < count; i++ ) {
+            cellOf[i] = cell(column(xs[i]), row(ys[i]));
+            cellStart[cellOf[i] + 1]++;
+        }
+        for ( int c = 0; c < columns * rows; c++ ) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        cellNodes = new int[count];
+        int [] next = Arrays.copyOf(cellStart, columns * rows);
+        for ( int i = 0; i < count; i++ ) {
+            cellNodes[next[cellOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * @return the nodes whose positions lie in the rectangle [left,
+     * right] x [top, bottom], in increasing order, i.e., in the order in
+     * which they are drawn
+     */
+    int [] query(int left, int top, int right, int bottom) {
+        if ( right < left || bottom < top ) return new int[0];
+        int firstColumn = column(left);
+        int lastColumn = column(right);
+        int firstRow = row(top);
+        int lastRow = row(bottom);
+        int [] found = new int[16];
+        int count = 0;
+        for ( int row = firstRow; row <= lastRow; row++ ) {
+            for ( int column = firstColumn; column <= lastColumn; column++ ) {
+                int cell = cell(column, row);
+                for ( int k = cellStart[cell]; k < cellStart[cell + 1]; k++ ) {
+                    int i = cellNodes[k];
+                    if ( xs[i] < left || xs[i] > right
+                         || ys[i] < top || ys[i] > bottom ) continue;
+                    if ( count == found.length )
+                        found = Arrays.copyOf(found, 2 * count);
+                    found[count++] = i;
+                }
+            }
+        }
+        found = Arrays.copyOf(found, count);
+        Arrays.sort(found);
+        return found;
+    }
+
+    /** @return the column of x, clamped to the grid */
+    private int column(int x) {
+        long column = ((long) x - minX) / cellSize;
+        return (int) Math.max(0, Math.min(columns - 1, column));
+    }
+
+    private int row(int y) {
+        long row = ((long) y - minY) / cellSize;
+        return (int) Math.max(0, Math.min(rows - 1, row));
+    }
+
+    private int cell(int column, int row) {
+        return row * columns + column;
+    }
+}
+
+//  [Last modified: 2026 10 18 at 22:52:08 GMT]
@@ -0,0 +1,279 @@
+package edu.ncsu.csc.Galant.gui.window.panels;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Point;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.ncsu.csc.Galant.GalantException;
+import edu.ncsu.csc.Galant.graph.component.Edge;
+import edu.ncsu.csc.Galant.graph.component.Graph;
+import edu.ncsu.csc.Galant.graph.component.GraphElement;
+import edu.ncsu.csc.Galant.graph.component.Node;
+
+/**
+ * Everything GraphPanel needs to draw one (display) state of a graph,
+ * resolved once from the states of the nodes and edges and kept in
+ * parallel arrays: positions, colors, flags and the strings for labels,
+ * weights and ids. Repainting a state, e.g., when the window is exposed or
+ * the user steps back to it, is then a walk through the arrays instead of
+ * a lookup of every attribute of every element in its state history.
+ *
+ * Only the visible elements are included, in the order in which they are
+ * drawn. Choices made by the user rather than the algorithm, such as
+ * whether labels are shown at all, the node radius and line widths, are
+ * left to drawing time. A snapshot describes a state that can no longer
+ * change, so it never has to be updated; see GraphPanel.getSnapshot().
+ */
+class RenderSnapshot {
+
+    /** node or edge flags */
+    static final byte MARKED = 1;
+    static final byte HIGHLIGHTED = 2;
+    static final byte SELF_LOOP = 4;
+
+    final int state;
+    final boolean directed;
+    /** the message banner, or null if there is none */
+    final String message;
+
+    final int nodeCount;
+    final Node [] nodes;
+    final int [] nodeX;
+    final int [] nodeY;
+    /** null for the default (boundary) color */
+    final Color [] nodeColor;
+    final byte [] nodeFlags;
+    final String [] nodeId;
+    /** null if the node has no visible label or weight, respectively */
+    final String [] nodeLabel;
+    final String [] nodeWeight;
+
+    final int edgeCount;
+    final Edge [] edges;
+    final int [] sourceX;
+    final int [] sourceY;
+    final int [] targetX;
+    final int [] targetY;
+    final Color [] edgeColor;
+    final byte [] edgeFlags;
+    final String [] edgeLabel;
+    final String [] edgeWeight;
+
+    /**
+     * the length of the longest label or weight of a node, of an edge,
+     * respectively; a bound on the extent of the text around them
+     */
+    final int maxNodeTextLength;
+    final int maxEdgeTextLength;
+    /** the length of the longest node id */
+    final int maxNodeIdLength;
+
+    /** the nodes by position, built when first needed */
+    private NodeGrid nodeGrid;
+
+    /** the index of each node and edge, built when first needed */
+    private Map<GraphElement, Integer> indexes;
+
+    /**
+     * TextLayouts for labels and weights, created the first time they are
+     * drawn with a given FontRenderContext
+     */
+    private FontRenderContext renderContext;
+    private TextLayout [] nodeLabelLayout;
+    private TextLayout [] nodeWeightLayout;
+    private TextLayout [] edgeLabelLayout;
+    private TextLayout [] edgeWeightLayout;
+
+    /**
+     * Resolves the given state of the graph, using the panel for positions
+     * and number formats
+     * @param animating true if the state is that of an animation; when
+     * editing, only the latest states count
+     */
+    RenderSnapshot(GraphPanel panel, Graph graph, int state, boolean animating)
+        throws GalantException {
+        this.state = state;
+        this.directed = graph.isDirected();
+        this.message = animating ? graph.getMessage(state) : null;
+
+        List<Node> graphNodes = animating ? graph.getNodes(state) : graph.getNodes();
+        nodes = new Node[graphNodes.size()];
+        int count = 0;
+        for ( Node node : graphNodes ) {
+            if ( node.inScope(animating ? state : 0)
+                 && ! (animating ? node.isHidden(state) : node.isHidden()) )
+                nodes[count++] = node;
+        }
+        nodeCount = count;
+        nodeX = new int[count];
+        nodeY = new int[count];
+        nodeColor = new Color[count];
+        nodeFlags = new byte[count];
+        nodeId = new String[count];
+        nodeLabel = new String[count];
+        nodeWeight = new String[count];
+        int maxTextLength = 0;
+        int maxIdLength = 0;
+        for ( int i = 0; i < count; i++ ) {
+            Node node = nodes[i];
+            Point center = panel.getNodeCenter(node);
+            nodeX[i] = center.x;
+            nodeY[i] = center.y;
+            byte flags = 0;
+            if ( node.isMarked(state) ) flags |= MARKED;
+            if ( node.isSelected(state) ) flags |= HIGHLIGHTED;
+            nodeFlags[i] = flags;
+            String color = node.getColor(state);
+            if ( color != null ) nodeColor[i] = Color.decode(color);
+            nodeId[i] = "" + node.getId();
+            maxIdLength = Math.max(maxIdLength, nodeId[i].length());
+            if ( node.hasLabel(state) && ! node.labelIsHidden(state) ) {
+                String label = node.getLabel(state);
+                if ( ! label.trim().equals("") ) nodeLabel[i] = label;
+            }
+            if ( node.hasWeight(state) && ! node.weightIsHidden(state) )
+                nodeWeight[i] = panel.doubleToString(node.getWeight(state));
+            maxTextLength = Math.max(maxTextLength, length(nodeLabel[i]));
+            maxTextLength = Math.max(maxTextLength, length(nodeWeight[i]));
+        }
+        maxNodeTextLength = maxTextLength;
+        maxNodeIdLength = maxIdLength;
+
+        List<Edge> graphEdges = animating ? graph.getEdges(state) : graph.getEdges();
+        edges = new Edge[graphEdges.size()];
+        count = 0;
+        for ( Edge edge : graphEdges ) {
+            boolean visible = animating
+                ? edge.inScope(state) && ! edge.isHidden(state)
+                  && ! edge.getSource().isHidden(state)
+                  && ! edge.getTarget().isHidden(state)
+                : edge.inScope(0) && ! edge.isHidden()
+                  && ! edge.getSource().isHidden()
+                  && ! edge.getTarget().isHidden();
+            if ( visible ) edges[count++] = edge;
+        }
+        edgeCount = count;
+        sourceX = new int[count];
+        sourceY = new int[count];
+        targetX = new int[count];
+        targetY = new int[count];
+        edgeColor = new Color[count];
+        edgeFlags = new byte[count];
+        edgeLabel = new String[count];
+        edgeWeight = new String[count];
+        maxTextLength = 0;
+        for ( int i = 0; i < count; i++ ) {
+            Edge edge = edges[i];
+            Node source = edge.getSourceNode();
+            Node target = edge.getTargetNode();
+            Point p1 = panel.getNodeCenter(source);
+            Point p2 = panel.getNodeCenter(target);
+            sourceX[i] = p1.x;
+            sourceY[i] = p1.y;
+            targetX[i] = p2.x;
+            targetY[i] = p2.y;
+            byte flags = 0;
+            if ( edge.isSelected(state) ) flags |= HIGHLIGHTED;
+            if ( target.equals(source) ) flags |= SELF_LOOP;
+            edgeFlags[i] = flags;
+            String color = edge.getColor(state);
+            if ( color != null ) edgeColor[i] = Color.decode(color);
+            if ( edge.hasLabel(state) && ! edge.labelIsHidden(state) ) {
+                String label = edge.getLabel(state);
+                if ( label.length() != 0 ) edgeLabel[i] = label;
+            }
+            if ( edge.hasWeight(state) && ! edge.weightIsHidden(state) )
+                edgeWeight[i] = panel.doubleToString(edge.getWeight(state));
+            maxTextLength = Math.max(maxTextLength, length(edgeLabel[i]));
+            maxTextLength = Math.max(maxTextLength, length(edgeWeight[i]));
+        }
+        maxEdgeTextLength = maxTextLength;
+    }
+
+    /**
+     * @return the number of nodes and edges, a measure of the size of the
+     * snapshot
+     */
+    int size() { return nodeCount + edgeCount; }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    /**
+     * @return the index of the node or edge in this snapshot, or -1 if it
+     * is not visible
+     */
+    int indexOf(GraphElement element) {
+        if ( indexes == null ) {
+            Map<GraphElement, Integer> map
+                = new IdentityHashMap<GraphElement, Integer>(2 * size());
+            for ( int i = 0; i < nodeCount; i++ ) map.put(nodes[i], i);
+            for ( int i = 0; i < edgeCount; i++ ) map.put(edges[i], i);
+            indexes = map;
+        }
+        Integer index = indexes.get(element);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the nodes whose centers lie in the rectangle [left, right] x
+     * [top, bottom], in drawing order
+     */
+    int [] nodesIn(int left, int top, int right, int bottom) {
+        if ( nodeGrid == null ) nodeGrid = new NodeGrid(nodeX, nodeY, nodeCount);
+        return nodeGrid.query(left, top, right, bottom);
+    }
+
+    TextLayout nodeLabelLayout(int i, FontRenderContext context,
+                               Font font) {
+        checkContext(context);
+        if ( nodeLabelLayout[i] == null )
+            nodeLabelLayout[i] = new TextLayout(nodeLabel[i], font, context);
+        return nodeLabelLayout[i];
+    }
+
+    TextLayout nodeWeightLayout(int i, FontRenderContext context,
+                                Font font) {
+        checkContext(context);
+        if ( nodeWeightLayout[i] == null )
+            nodeWeightLayout[i] = new TextLayout(nodeWeight[i], font, context);
+        return nodeWeightLayout[i];
+    }
+
+    TextLayout edgeLabelLayout(int i, FontRenderContext context,
+                               Font font) {
+        checkContext(context);
+        if ( edgeLabelLayout[i] == null )
+            edgeLabelLayout[i] = new TextLayout(edgeLabel[i], font, context);
+        return edgeLabelLayout[i];
+    }
+
+    TextLayout edgeWeightLayout(int i, FontRenderContext context,
+                                Font font) {
+        checkContext(context);
+        if ( edgeWeightLayout[i] == null )
+            edgeWeightLayout[i] = new TextLayout(edgeWeight[i], font, context);
+        return edgeWeightLayout[i];
+    }
+
+    /**
+     * Discards the text layouts if they were made for a different context,
+     * e.g., after a change of rendering hints
+     */
+    private void checkContext(FontRenderContext context) {
+        if ( context.equals(renderContext) ) return;
+        renderContext = context;
+        nodeLabelLayout = new TextLayout[nodeCount];
+        nodeWeightLayout = new TextLayout[nodeCount];
+        edgeLabelLayout = new TextLayout[edgeCount];
+        edgeWeightLayout = new TextLayout[edgeCount];
+    }
+}
+
+//  [Last modified: 2026 10 19 at 01:06:40 GMT]
@@ -10,13 +10,47 @@ public class LogHelper {
 
     private static final String INDENT_STRING = "..";
 	private static LogHelper logHelper = null;
-	private static boolean loggingEnabled = false;
 
   /**
-   * a stack is used in order to selectively enable/disable debug printing in
-   * a sequence of nested method calls.
+   * The logging state of one thread; several algorithms may run at once,
+   * each in its own thread (see BatchRunner), and each enables, disables
+   * and restores logging on its own.
    */
-  private static Stack<Boolean> savedStates = new Stack<Boolean>();
+  private static class State {
+    boolean loggingEnabled = false;
+
+    /**
+     * a stack is used in order to selectively enable/disable debug printing
+     * in a sequence of nested method calls.
+     */
+    final Stack<Boolean> savedStates = new Stack<Boolean>();
+
+    /**
+     * degree of indentation, i.e., the number of occurrences of
+     * INDENT_STRING
+     */
+    int spaces = 0;
+  }
+
+  /**
+   * the logging state of the current thread; a thread it starts, e.g., an
+   * algorithm thread, begins with the same setting and indentation but
+   * with nothing saved
+   */
+  private static final InheritableThreadLocal<State> state
+    = new InheritableThreadLocal<State>() {
+        @Override
+        protected State initialValue() {
+          return new State();
+        }
+        @Override
+        protected State childValue(State parent) {
+          State child = new State();
+          child.loggingEnabled = parent.loggingEnabled;
+          child.spaces = parent.spaces;
+          return child;
+        }
+      };
 
   /**
    * Logging related to the graph panel, i.e., mouse actions and drawing,
@@ -25,21 +59,17 @@ public class LogHelper {
    */
     private static boolean guiLoggingEnabled = false;
 
-  /**
-   * degree of indentation, i.e., the number of occurrences of INDENT_STRING
-   */
-	private static int spaces = 0;
-
     public static void setEnabled( boolean enabled ) {
-      savedStates.push(loggingEnabled);
-        loggingEnabled = enabled;
+      State current = state.get();
+      current.savedStates.push(current.loggingEnabled);
+        current.loggingEnabled = enabled;
     }
 
     public static void enable() { setEnabled(true); }
     public static void disable() { setEnabled(false); }
 
     public static boolean isEnabled() {
-        return loggingEnabled;
+        return state.get().loggingEnabled;
     }
 
     /**
@@ -49,16 +79,17 @@ public class LogHelper {
      * - mfms
      */
     public static void restoreState() {
-      if ( savedStates.isEmpty() ) {
-        loggingEnabled = false;
+      State current = state.get();
+      if ( current.savedStates.isEmpty() ) {
+        current.loggingEnabled = false;
       }
       else {
-        loggingEnabled = savedStates.pop();
+        current.loggingEnabled = current.savedStates.pop();
       }
     }
 
 	public static void logDebug(String msg) {
-		if (loggingEnabled) {
+		if (isEnabled()) {
 			for (String line: msg.split("\n")){
          		System.out.println(spaceString() + line);
       		}
@@ -66,27 +97,27 @@ public class LogHelper {
 	}
 
 	public static void enterConstructor(Class<?> cls) {
-		spaces++;
-		if (loggingEnabled)
+		state.get().spaces++;
+		if (isEnabled())
 			System.out.println(spaceString() + "=> " + cls.getName() + "()");
 	}
 	public static void exitConstructor(Class<?> cls) {
-		if (loggingEnabled)
+		if (isEnabled())
 			System.out.println(spaceString() + "<= " + cls.getName() + "()");
-		spaces--;
+		state.get().spaces--;
 	}
 
 	public static void enterMethod(Class<?> cls, String methodName) {
-		if (loggingEnabled) {
-            spaces++;
+		if (isEnabled()) {
+            state.get().spaces++;
 			System.out.println(spaceString() + "-> " + cls.getName() + "." + methodName);
         }
 	}
 
 	public static void exitMethod(Class<?> cls, String methodName) {
-		if (loggingEnabled) {
+		if (isEnabled()) {
 			System.out.println(spaceString() + "<- " + cls.getName() + "." + methodName);
-            spaces--;
+            state.get().spaces--;
         }
 	}
 
@@ -99,7 +130,7 @@ public class LogHelper {
 	}
 
 	public static void guiEnterConstructor(Class<?> cls) {
-		spaces++;
+		state.get().spaces++;
 		if ( guiLoggingEnabled )
 			System.out.println(spaceString() + "=> " + cls.getName() + "()");
 	}
@@ -107,12 +138,12 @@ public class LogHelper {
 	public static void guiExitConstructor(Class<?> cls) {
 		if ( guiLoggingEnabled )
 			System.out.println(spaceString() + "<= " + cls.getName() + "()");
-		spaces--;
+		state.get().spaces--;
 	}
 
 	public static void guiEnterMethod(Class<?> cls, String methodName) {
 		if ( guiLoggingEnabled ) {
-            spaces++;
+            state.get().spaces++;
 			System.out.println(spaceString() + "-> " + cls.getName() + "." + methodName);
         }
 	}
@@ -120,16 +151,16 @@ public class LogHelper {
 	public static void guiExitMethod(Class<?> cls, String methodName) {
 		if ( guiLoggingEnabled ) {
 			System.out.println(spaceString() + "<- " + cls.getName() + "." + methodName);
-            spaces--;
+            state.get().spaces--;
         }
 	}
 
     public static void beginIndent() {
-        spaces++;
+        state.get().spaces++;
     }
 
     public static void endIndent() {
-        spaces--;
+        state.get().spaces--;
     }
 
     public static void showSourceCode(String code) {
@@ -141,6 +172,7 @@ public class LogHelper {
     }
 
 	private static String spaceString() {
+		int spaces = state.get().spaces;
 		String spaceStr = "";
 		if (spaces > 0) {
 			int spc = 0;
@@ -153,4 +185,4 @@ public class LogHelper {
 	}
 }
 
-//  [Last modified: 2017 01 10 at 14:50:35 GMT]
+//  [Last modified: 2026 10 19 at 14:31:55 GMT]
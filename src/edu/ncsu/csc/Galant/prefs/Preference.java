@@ -1,5 +1,9 @@
 package edu.ncsu.csc.Galant.prefs;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.prefs.Preferences;
 import edu.ncsu.csc.Galant.Galant;
 
@@ -10,6 +14,10 @@ import edu.ncsu.csc.Galant.Galant;
  * pushes the main value to the backing store. When the <code>Preference</code> object is created,
  * it gets its inital value from the backing store if available.
  * </p>
+ * <p>
+ * Listeners are told whenever the value changes, so that users of a preference can keep a copy
+ * of its value instead of asking for it each time they need it.
+ * </p>
  * @param <V> The type of the value.
  */
 public class Preference<V>
@@ -21,6 +29,8 @@ public class Preference<V>
 		private String key, label;
 		private V defaultValue, value;
 		private BackingStoreAccessor<V> accessor;
+		private List<PropertyChangeListener> listeners =
+			new CopyOnWriteArrayList<PropertyChangeListener>();
 
 		/**
 		 * Creates a preference with the given key, label, value type, and default value. Its value
@@ -91,7 +101,26 @@ public class Preference<V>
 		 */
 		public void put(V value)
 			{
+				V oldValue = this.value;
 				this.value = value;
+				if(oldValue == null ? value != null : !oldValue.equals(value))
+					for(PropertyChangeListener listener : listeners)
+						listener.propertyChange(new PropertyChangeEvent(this, getKey(), oldValue, value));
+			}
+
+		/**
+		 * Adds a listener that is told of every change of this preference's value; the property
+		 * name of the event is the key.
+		 */
+		public void addChangeListener(PropertyChangeListener listener)
+			{
+				listeners.add(listener);
+			}
+
+		/** Removes a listener added by {@link #addChangeListener(PropertyChangeListener)}. */
+		public void removeChangeListener(PropertyChangeListener listener)
+			{
+				listeners.remove(listener);
 			}
 
 		/** @return this <code>Preference</code>'s accessor. */